@@ -0,0 +1,45 @@
+package com.example.golfgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.golfgame.physics.ODE.AdaptiveStepper;
+import com.example.golfgame.physics.ODE.DerivativeFunction;
+import com.example.golfgame.physics.ODE.DormandPrince;
+
+/**
+ * Measures {@link AdaptiveStepper#solve} with {@link DormandPrince} on {@code y' = -sqrt(y)}, {@code y(0) = 1},
+ * up to just before the solution {@code y = (1 - t/2)^2} reaches 0 at {@code t = 2}. Near the end long trial
+ * steps probe {@code y < 0}, where the right-hand side is NaN, so this also covers the cost of the stepper
+ * rejecting such steps. {@code AdaptiveStepperChecks} in the simulation module checks the result.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AdaptiveStepperBenchmark {
+    private static final double END = 1.999;
+    private static final DerivativeFunction SQRT_DECAY = (t, y, dydt) -> dydt[0] = -Math.sqrt(y[0]);
+
+    private AdaptiveStepper stepper;
+    private final double[] y = new double[1];
+
+    @Setup
+    public void setUp() {
+        stepper = new AdaptiveStepper(new DormandPrince(), 1, 0.05);
+    }
+
+    @Benchmark
+    public double[] solve() {
+        stepper.reset();
+        y[0] = 1;
+        stepper.solve(SQRT_DECAY, 0, y, END);
+        return y;
+    }
+}
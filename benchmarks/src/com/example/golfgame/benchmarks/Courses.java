@@ -0,0 +1,25 @@
+package com.example.golfgame.benchmarks;
+
+/**
+ * Height functions of the courses the benchmarks run on.
+ */
+final class Courses {
+    /** The default course of the settings screen. */
+    static final String DEFAULT = "e^(-((x)^6+(y)^2)/500)-e^(-((x)^2+(y)^2)/500)+0.6";
+    /** A flat course above the water level. */
+    static final String FLAT = "0.6";
+
+    private Courses() {
+    }
+
+    static String forName(String name) {
+        switch (name) {
+            case "default":
+                return DEFAULT;
+            case "flat":
+                return FLAT;
+            default:
+                throw new IllegalArgumentException("Unknown course: " + name);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.golfgame.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.golfgame.utils.Function;
+import com.example.golfgame.utils.SurfaceFunction;
+
+/**
+ * Measures a single evaluation of the default course's height function, through the map-based
+ * {@link Function} and through the compiled {@link SurfaceFunction}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FunctionBenchmark {
+    private Function function;
+    private SurfaceFunction surfaceFunction;
+    private Map<String, Double> values;
+    private double x;
+    private double y;
+
+    @Setup
+    public void setUp() {
+        function = new Function(Courses.DEFAULT, "x", "y");
+        surfaceFunction = new SurfaceFunction(Courses.DEFAULT);
+        values = new HashMap<>();
+        x = 3.7;
+        y = -1.2;
+    }
+
+    @Benchmark
+    public double functionEvaluate() {
+        values.put("x", x);
+        values.put("y", y);
+        return function.evaluate(values);
+    }
+
+    @Benchmark
+    public double surfaceFunctionEvaluate() {
+        return surfaceFunction.evaluate(x, y);
+    }
+}
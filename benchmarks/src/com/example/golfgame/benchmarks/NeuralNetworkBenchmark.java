@@ -0,0 +1,92 @@
+package com.example.golfgame.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.golfgame.bot.neuralnetwork.PolicyNetwork;
+import com.example.golfgame.bot.neuralnetwork.Precision;
+import com.example.golfgame.bot.neuralnetwork.Workspace;
+import com.example.golfgame.utils.ppoUtils.BackPropResult;
+
+/**
+ * Measures forward and backward passes of the 100-128-128-4 policy network used by the agent, for a single
+ * sample and for a training mini-batch, both allocating and through a reused {@link Workspace}, in double and
+ * single precision.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NeuralNetworkBenchmark {
+    private static final int MINI_BATCH_SIZE = 64;
+
+    @Param({"DOUBLE", "FLOAT"})
+    private String precision;
+
+    private PolicyNetwork policyNetwork;
+    private double[] input;
+    private double[] outputDelta;
+    private double[] batchInputs;
+    private double[] batchOutputDeltas;
+    private Workspace workspace;
+
+    @Setup
+    public void setUp() {
+        policyNetwork = new PolicyNetwork(new int[]{100, 128, 128, 4}, Precision.valueOf(precision));
+        Random random = new Random(42);
+        input = new double[100];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = random.nextDouble();
+        }
+        outputDelta = new double[]{0.1, -0.2, 0.05, 0.3};
+        batchInputs = new double[100 * MINI_BATCH_SIZE];
+        for (int i = 0; i < batchInputs.length; i++) {
+            batchInputs[i] = random.nextDouble();
+        }
+        batchOutputDeltas = new double[4 * MINI_BATCH_SIZE];
+        for (int i = 0; i < batchOutputDeltas.length; i++) {
+            batchOutputDeltas[i] = random.nextGaussian() * 0.1;
+        }
+        workspace = policyNetwork.createWorkspace(MINI_BATCH_SIZE);
+        System.arraycopy(batchInputs, 0, workspace.getInputs(), 0, batchInputs.length);
+    }
+
+    @Benchmark
+    public double[] forward() {
+        return policyNetwork.forward(input);
+    }
+
+    @Benchmark
+    public BackPropResult backprop() {
+        return policyNetwork.backprop(input, outputDelta);
+    }
+
+    @Benchmark
+    public double[] forwardMiniBatch() {
+        return policyNetwork.forward(batchInputs, MINI_BATCH_SIZE);
+    }
+
+    @Benchmark
+    public BackPropResult backpropMiniBatch() {
+        return policyNetwork.backprop(policyNetwork.forwardWithZs(batchInputs, MINI_BATCH_SIZE), batchOutputDeltas, MINI_BATCH_SIZE);
+    }
+
+    @Benchmark
+    public double[] forwardMiniBatchWorkspace() {
+        return policyNetwork.forward(workspace, MINI_BATCH_SIZE);
+    }
+
+    @Benchmark
+    public BackPropResult backpropMiniBatchWorkspace() {
+        policyNetwork.forward(workspace, MINI_BATCH_SIZE);
+        return policyNetwork.backprop(workspace, batchOutputDeltas, MINI_BATCH_SIZE);
+    }
+}
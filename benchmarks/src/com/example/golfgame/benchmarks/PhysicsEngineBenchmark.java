@@ -0,0 +1,65 @@
+package com.example.golfgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.golfgame.physics.PhysicsEngine;
+import com.example.golfgame.physics.ODE.Euler;
+import com.example.golfgame.physics.ODE.Midpoint;
+import com.example.golfgame.physics.ODE.ODE;
+import com.example.golfgame.physics.ODE.Ralston;
+import com.example.golfgame.physics.ODE.RungeKutta;
+import com.example.golfgame.utils.BallState;
+import com.example.golfgame.utils.Function;
+
+/**
+ * Measures one {@link PhysicsEngine#update} step of a rolling ball on the default course with each solver.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PhysicsEngineBenchmark {
+    private static final double STEP_SIZE = 0.001;
+
+    @Param({"Euler", "Midpoint", "Ralston", "RungeKutta"})
+    public String solver;
+
+    private PhysicsEngine engine;
+    private BallState ball;
+
+    @Setup
+    public void setUp() {
+        engine = new PhysicsEngine(createSolver(solver), new Function(Courses.DEFAULT, "x", "y"));
+        ball = new BallState(0, 0, 0, 0);
+    }
+
+    @Benchmark
+    public BallState update() {
+        // Start every step from the same state so that each invocation does the same work
+        ball.setAllComponents(2.0, -1.0, 3.0, 1.5);
+        return engine.update(ball, STEP_SIZE);
+    }
+
+    private static ODE createSolver(String name) {
+        switch (name) {
+            case "Euler":
+                return new Euler();
+            case "Midpoint":
+                return new Midpoint();
+            case "Ralston":
+                return new Ralston();
+            case "RungeKutta":
+                return new RungeKutta();
+            default:
+                throw new IllegalArgumentException("Unknown solver: " + name);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.golfgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.golfgame.simulator.PhysicsSimulator;
+import com.example.golfgame.utils.BallState;
+import com.example.golfgame.utils.Function;
+
+/**
+ * Measures a full shot with {@link PhysicsSimulator#hit(float, float)}, from the moment the ball is hit
+ * until it comes to rest, on a flat course and on the default course.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PhysicsSimulatorBenchmark {
+    private static final float SPEED = 3.0f;
+    private static final float ANGLE = 0.5f;
+
+    @Param({"flat", "default"})
+    public String course;
+
+    private PhysicsSimulator simulator;
+
+    @Setup
+    public void setUp() {
+        // The goal is out of reach so that every shot rolls until the ball is at rest
+        simulator = new PhysicsSimulator(new Function(Courses.forName(course), "x", "y"), new BallState(50, 50, 0, 0));
+    }
+
+    @Benchmark
+    public BallState hit() {
+        simulator.setPosition(0, 0);
+        return simulator.hit(SPEED, ANGLE);
+    }
+}
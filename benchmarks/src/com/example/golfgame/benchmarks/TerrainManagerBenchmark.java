@@ -0,0 +1,48 @@
+package com.example.golfgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.golfgame.utils.Function;
+import com.example.golfgame.utils.gameUtils.TerrainManager;
+
+/**
+ * Measures {@link TerrainManager#getNormalizedMarkedHeightMap} and the observation the simulator builds each
+ * step, {@link TerrainManager#getState(float, float, float, float, double[])} into a reused buffer, on the
+ * default course, at the 10x10 size the simulator observes and at the 200x200 size of the rendered terrain.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TerrainManagerBenchmark {
+
+    @Param({"10", "200"})
+    public int gridSize;
+
+    private TerrainManager terrainManager;
+    private double[] state;
+
+    @Setup
+    public void setUp() {
+        terrainManager = new TerrainManager(new Function(Courses.DEFAULT, "x", "y"), gridSize, gridSize, 1, 1);
+        state = new double[gridSize * gridSize];
+    }
+
+    @Benchmark
+    public double[][] normalizedMarkedHeightMap() {
+        return terrainManager.getNormalizedMarkedHeightMap(1.5f, -2.0f, -3.0f, 4.0f);
+    }
+
+    @Benchmark
+    public double[] stateIntoBuffer() {
+        return terrainManager.getState(1.5f, -2.0f, -3.0f, 4.0f, state);
+    }
+}
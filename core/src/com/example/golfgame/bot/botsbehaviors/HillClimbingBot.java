@@ -9,7 +9,6 @@ import java.util.concurrent.Future;
 import java.util.Random;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.math.Vector2;
 import com.example.golfgame.GolfGame;
 import com.example.golfgame.bot.BotBehavior;
 import com.example.golfgame.physics.ODE.RungeKutta;
@@ -215,7 +214,7 @@ public class HillClimbingBot implements BotBehavior {
                 if (deltaPower == 0 && deltaAngle == 0) continue;
 
                 BallState newState = simulator.singleHit(Math.max(0.1f, originalHitPower + deltaPower), originalAngle + deltaAngle, game.getGolfGameScreen().getBallState());
-                List<Vector2> path = simulator.hitWithPath(Math.max(0.1f, originalHitPower + deltaAngle), originalAngle + deltaAngle).getValue();
+                List<BallState> path = simulator.hitWithPath(Math.max(0.1f, originalHitPower + deltaAngle), originalAngle + deltaAngle).getValue();
                 Gdx.app.postRunnable(new Runnable() {
                     @Override
                     public void run() {
@@ -268,7 +267,7 @@ public class HillClimbingBot implements BotBehavior {
         double smallestDistance = Integer.MAX_VALUE;
         BallState best = states[states.length-1];
         for (BallState state : states) {
-            if (state.isInWater(game.getGolfGameScreen())){
+            if (game.getGolfGameScreen().isBallInWater(state)){
                 continue;
             }
             if (GolfGameScreen.validGoal(state, goal)){
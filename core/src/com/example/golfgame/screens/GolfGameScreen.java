@@ -47,6 +47,7 @@ import com.example.golfgame.bot.WallE;
 import com.example.golfgame.utils.*;
 import com.example.golfgame.utils.animations.FlagAnimation;
 import com.example.golfgame.utils.animations.WaterAnimation;
+import com.example.golfgame.utils.gameUtils.GolfRules;
 import com.example.golfgame.utils.gameUtils.Sandbox;
 import com.example.golfgame.utils.gameUtils.TerrainManager;
 import com.example.golfgame.utils.gameUtils.WaterSurfaceManager;
@@ -99,7 +100,6 @@ public class GolfGameScreen implements Screen, Disposable {
     private WaterSurfaceManager waterSurfaceManager;
     private Function terrainHeightFunction;
     private BallState currentBallState, lastValidState, goalState = new BallState(-20, 20, 0, 0);
-    private static float GOAL_TOLERANCE = 1.5f;
     private double grassFrictionKinetic, grassFrictionStatic;
     private double sandFrictionKinetic = 0.7;
     private double sandFrictionStatic = 1;
@@ -519,7 +519,7 @@ public class GolfGameScreen implements Screen, Disposable {
             public void clicked(InputEvent event, float x, float y) {
                 PhysicsSimulator simulator = new PhysicsSimulator(terrainHeightFunction, goalState);
                 simulator.setPosition((float)currentBallState.getX(), (float)currentBallState.getY());
-                List<Vector2> result = simulator.hitWithPath(10, cameraViewAngle).getValue();
+                List<BallState> result = simulator.hitWithPath(10, cameraViewAngle).getValue();
                 lineInstance = terrainManager.createRedLineModel(result);
             }
         });
@@ -773,7 +773,7 @@ public class GolfGameScreen implements Screen, Disposable {
         updateBotBehavior();
     
         // Check if the ball has reached the goal
-        if (currentBallState.epsilonPositionEquals(goalState, GOAL_TOLERANCE)) {
+        if (currentBallState.epsilonPositionEquals(goalState, GolfRules.getGoalTolerance())) {
             handleGoalReached();
         }
     
@@ -867,7 +867,7 @@ public class GolfGameScreen implements Screen, Disposable {
      * @return true if the ball has reached the goal, false otherwise
      */
     public static boolean validGoal(BallState ball, BallState goal){
-        return ball.epsilonPositionEquals(goal, GOAL_TOLERANCE)&&Math.abs(ball.getVx())<3.5&&Math.abs(ball.getVy())<3.5;
+        return GolfRules.isGoal(ball, goal);
     }
 
     /**
@@ -878,7 +878,7 @@ public class GolfGameScreen implements Screen, Disposable {
      * @return true if the ball has reached the goal in the simulator, false otherwise
      */
     public static boolean validSimulatorGoal(BallState ball, BallState goal){
-        return ball.epsilonPositionEquals(goal, GOAL_TOLERANCE-0.5)&&Math.abs(ball.getVx())<3.5&&Math.abs(ball.getVy())<3.5;
+        return GolfRules.isSimulatorGoal(ball, goal);
     }
 
     /**
@@ -1220,7 +1220,7 @@ public class GolfGameScreen implements Screen, Disposable {
      * @param radius the new goal radius
      */
     public void setGoalRadius(float radius) {
-        GOAL_TOLERANCE = radius;
+        GolfRules.setGoalTolerance(radius);
     }
 
     /**
@@ -1255,7 +1255,7 @@ public class GolfGameScreen implements Screen, Disposable {
      * @return the goal tolerance
      */
     public static float getGoalTolerance() {
-        return GOAL_TOLERANCE;
+        return GolfRules.getGoalTolerance();
     }
 
     /**
@@ -1,13 +1,7 @@
 package com.example.golfgame.utils.gameUtils;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.File;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
@@ -20,25 +14,18 @@ import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
 import com.badlogic.gdx.graphics.g3d.utils.MeshPartBuilder;
 import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
-import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
-import com.example.golfgame.screens.GolfGameScreen;
+import com.example.golfgame.utils.BallState;
 import com.example.golfgame.utils.Function;
-import com.example.golfgame.utils.MatrixUtils;
+import com.example.golfgame.utils.HeightField;
 
 /**
  * Manages the terrain generation and properties in the golf game.
- * This includes creating grass, sand, and hole terrain models,
- * as well as determining terrain heights and sand areas.
+ * This includes creating grass, sand, and hole terrain models on top of
+ * the terrain heights and sand areas of {@link Terrain}.
  */
-public class TerrainManager {
-    private Function heightFunction;
+public class TerrainManager extends Terrain {
     private Texture grassTexture, sandTexture, holeTexture;
-    private int gridWidth, gridHeight;
-    private List<float[]> sandAreas;
-    private float[] holeArea;
-    private float scale;
-    private int parts;
 
     /**
      * Constructs a TerrainManager with specified parameters.
@@ -53,15 +40,10 @@ public class TerrainManager {
      * @param parts          The number of parts the terrain is divided into.
      */
     public TerrainManager(Function heightFunction, Texture grassTexture, Texture sandTexture, Texture holeTexture, int gridWidth, int gridHeight, float scale, int parts) {
-        this.heightFunction = heightFunction;
+        super(heightFunction, gridWidth, gridHeight, scale, parts);
         this.grassTexture = grassTexture;
         this.sandTexture = sandTexture;
         this.holeTexture = holeTexture;
-        this.gridWidth = gridWidth;
-        this.gridHeight = gridHeight;
-        this.scale = scale;
-        this.parts = parts;
-        this.sandAreas = new ArrayList<>();
     }
 
     /**
@@ -74,12 +56,20 @@ public class TerrainManager {
      * @param parts          The number of parts the terrain is divided into.
      */
     public TerrainManager(Function heightFunction, int gridWidth, int gridHeight, float scale, int parts) {
-        this.heightFunction = heightFunction;
-        this.gridWidth = gridWidth;
-        this.gridHeight = gridHeight;
-        this.scale = scale;
-        this.parts = parts;
-        this.sandAreas = new ArrayList<>();
+        super(heightFunction, gridWidth, gridHeight, scale, parts);
+    }
+
+    /**
+     * Constructs a TerrainManager with a compiled or sampled height function and without textures.
+     *
+     * @param heightFunction The compiled or sampled function defining the terrain height.
+     * @param gridWidth      The width of the terrain grid.
+     * @param gridHeight     The height of the terrain grid.
+     * @param scale          The scale factor for the terrain.
+     * @param parts          The number of parts the terrain is divided into.
+     */
+    public TerrainManager(HeightField heightFunction, int gridWidth, int gridHeight, float scale, int parts) {
+        super(heightFunction, gridWidth, gridHeight, scale, parts);
     }
 
     /**
@@ -88,12 +78,16 @@ public class TerrainManager {
      * @param heightFunction The function defining the terrain height.
      */
     public TerrainManager(Function heightFunction) {
-        this.heightFunction = heightFunction;
-        this.gridWidth = 200;
-        this.gridHeight = 200;
-        this.scale = 1;
-        this.parts = 4;
-        this.sandAreas = new ArrayList<>();
+        super(heightFunction);
+    }
+
+    /**
+     * Constructs a TerrainManager with only the compiled or sampled height function.
+     *
+     * @param heightFunction The compiled or sampled function defining the terrain height.
+     */
+    public TerrainManager(HeightField heightFunction) {
+        super(heightFunction);
     }
 
     /**
@@ -176,10 +170,10 @@ public class TerrainManager {
         float maxZ = centerZ + gridHeight * scale * 0.5f;
 
         // Clipping the hole area to terrain boundaries (drawing it bigger than 1, to rescale for a small picture)
-        float x1 = Math.max(minX, (float)(holeArea[0] - GolfGameScreen.getGoalTolerance()));
-        float z1 = Math.max(minZ, (float)(holeArea[1] - GolfGameScreen.getGoalTolerance()));
-        float x2 = Math.min(maxX, (float)(holeArea[0] + GolfGameScreen.getGoalTolerance()));
-        float z2 = Math.min(maxZ, (float)(holeArea[1] + GolfGameScreen.getGoalTolerance()));
+        float x1 = Math.max(minX, holeArea[0] - GolfRules.getGoalTolerance());
+        float z1 = Math.max(minZ, holeArea[1] - GolfRules.getGoalTolerance());
+        float x2 = Math.min(maxX, holeArea[0] + GolfRules.getGoalTolerance());
+        float z2 = Math.min(maxZ, holeArea[1] + GolfRules.getGoalTolerance());
         
         modelBuilder.begin();
         holeTexture.setWrap(Texture.TextureWrap.Repeat, Texture.TextureWrap.Repeat);
@@ -293,10 +287,10 @@ public class TerrainManager {
     /**
      * Creates a red line model from a list of points.
      *
-     * @param points The list of points defining the red line.
+     * @param points The list of ball positions defining the red line, e.g. the path of a simulated shot.
      * @return A ModelInstance representing the red line.
      */
-    public ModelInstance createRedLineModel(List<Vector2> points) {
+    public ModelInstance createRedLineModel(List<BallState> points) {
         final int MAX_VERTICES = 65536 / 7; // Adjust this if needed based on your usage
         ModelBuilder modelBuilder = new ModelBuilder();
 
@@ -314,9 +308,9 @@ public class TerrainManager {
 
             // Add vertices for each point in the current segment
             for (int i = start; i < end; i++) {
-                Vector2 point = points.get(i);
-                float x = point.x;
-                float z = point.y;
+                BallState point = points.get(i);
+                float x = (float) point.getX();
+                float z = (float) point.getY();
                 float y = getTerrainHeight(x, z) + 0.1f; // Use getTerrainHeight method to determine the y value
 
                 // Add vertex with position and color
@@ -356,230 +350,4 @@ public class TerrainManager {
         }
         return onSand;
     }
-
-    /**
-     * Checks if a given position is on a sand area.
-     *
-     * @param x The x-coordinate of the position.
-     * @param y The y-coordinate of the position.
-     * @return True if the position is on sand, false otherwise.
-     */
-    public boolean isBallOnSand(float x, float y) {
-        boolean onSand = false;
-        for (float[] area : sandAreas) {
-            float minX = area[0];
-            float maxX = area[2];
-            float minY = area[1];
-            float maxY = area[3];
-
-            if (x >= minX && x <= maxX &&
-                y >= minY && y <= maxY) {
-                onSand = true;
-                break;
-            }
-        }
-        return onSand;
-    }
-
-    /**
-     * Determines if the given position is water.
-     *
-     * @param x The x-coordinate of the position.
-     * @param y The y-coordinate of the position.
-     * @return True if the position is water, false otherwise.
-     */
-    public boolean isWater(float x, float y) {
-        // Logic to determine if the position (x, y) is water
-        // This is a placeholder. Replace with actual implementation.
-        // Example: check if the height at (x, y) is below water level.
-        float height = getTerrainHeight(x, y);
-        return height < 0; // Assuming waterLevel is defined
-    }
-
-    /**
-     * Calculates the height of the terrain at the specified coordinates.
-     *
-     * @param x The x-coordinate.
-     * @param z The z-coordinate.
-     * @return The height of the terrain at the specified coordinates.
-     */
-    public float getTerrainHeight(float x, float z) {
-        Map<String, Double> args = new HashMap<>();
-        args.put("x", (double) x);
-        args.put("y", (double) z);
-        return (float) heightFunction.evaluate(args);
-    }
-
-    /**
-     * Adds a sand area to the terrain.
-     *
-     * @param sandArea An array representing the boundaries of the sand area (minX, minY, maxX, maxY).
-     */
-    public void addSandArea(float[] sandArea) {
-        sandAreas.add(sandArea);
-    }
-
-    /**
-     * Returns the list of sand areas.
-     *
-     * @return The list of sand areas.
-     */
-    public List<float[]> getSandAreasList() {
-        return sandAreas;
-    }
-
-    /**
-     * Sets the hole area on the terrain.
-     *
-     * @param newHoleArea An array representing the boundaries of the hole area.
-     */
-    public void setHoleArea(float[] newHoleArea) {
-        holeArea = newHoleArea;
-    }
-
-    /**
-     * Generates a normalized heightmap of the terrain and marks the positions of the ball, the goal, and sand areas.
-     *
-     * @param ballX The x-coordinate of the ball.
-     * @param ballY The y-coordinate of the ball.
-     * @param goalX The x-coordinate of the goal.
-     * @param goalY The y-coordinate of the goal.
-     * @return A 2D array representing the normalized heightmap with marked ball, goal, and sand positions.
-     */
-    public double[][] getNormalizedMarkedHeightMap(float ballX, float ballY, float goalX, float goalY) {
-        double[][] heightMap = new double[gridWidth][gridHeight];
-
-        // Step 1: Calculate the height map and find min and max heights
-        float minHeight = Float.MAX_VALUE;
-        float maxHeight = Float.MIN_VALUE;
-
-        for (int x = 0; x < gridWidth; x++) {
-            for (int y = 0; y < gridHeight; y++) {
-                float worldX = (x - gridWidth / 2) * scale; 
-                float worldZ = (y - gridHeight / 2) * scale;
-                float height = getTerrainHeight(worldX, worldZ);
-                heightMap[x][y] = height;
-                if (height < minHeight) {
-                    minHeight = height;
-                }
-                if (height > maxHeight) {
-                    maxHeight = height;
-                }
-            }
-        }
-
-        // Step 2: Normalize the height map to the range [-1, 1] and set heights below 0 to -1
-        if (minHeight == maxHeight) {
-            for (int x = 0; x < gridWidth; x++) {
-                for (int y = 0; y < gridHeight; y++) {
-                    heightMap[x][y] = 0; // All points will be at the same height, normalized value 0
-                }
-            }
-        } else {
-            for (int x = 0; x < gridWidth; x++) {
-                for (int y = 0; y < gridHeight; y++) {
-                    if (heightMap[x][y] < 0) {
-                        heightMap[x][y] = -1;
-                    } else {
-                        heightMap[x][y] = 2 * ((heightMap[x][y] - minHeight) / (maxHeight - minHeight)) - 1;
-                    }
-                }
-            }
-        }
-
-        // Step 3: Mark the sand areas if sandAreas is not empty
-        if (!sandAreas.isEmpty()) {
-            for (float[] area : sandAreas) {
-                int startX = (int)((area[0] / scale) + gridWidth / 2);
-                int startY = (int)((area[1] / scale) + gridHeight / 2);
-                int endX = (int)((area[2] / scale) + gridWidth / 2);
-                int endY = (int)((area[3] / scale) + gridHeight / 2);
-
-                for (int x = startX; x <= endX; x++) {
-                    for (int y = startY; y <= endY; y++) {
-                        if (x >= 0 && x < gridWidth && y >= 0 && y < gridHeight) {
-                            heightMap[x][y] = 1; // Assuming 1 for sand areas to mark on the map
-                        }
-                    }
-                }
-            }
-        }
-
-        // Step 4: Mark the ball and goal positions
-        int ballPosX = (int) ((ballX / scale) + gridWidth / 2);
-        int ballPosY = (int) ((ballY / scale) + gridHeight / 2);
-        int goalPosX = (int) ((goalX / scale) + gridWidth / 2);
-        int goalPosY = (int) ((goalY / scale) + gridHeight / 2);
-
-        // Assuming 3 for ball and 5 for goal to mark on the map
-        if (ballPosX >= 0 && ballPosX < gridWidth && ballPosY >= 0 && ballPosY < gridHeight) {
-            heightMap[ballPosX][ballPosY] = 3;
-        }
-
-        if (goalPosX >= 0 && goalPosX < gridWidth && goalPosY >= 0 && goalPosY < gridHeight) {
-            heightMap[goalPosX][goalPosY] = 5;
-        }
-
-        return heightMap;
-    }
-
-    /**
-     * Converts the height map to an image and saves it as a PNG or JPEG file.
-     *
-     * @param heightMap The height map to be converted to an image.
-     * @param fileName  The name of the file to save the image.
-     * @param format    The format of the file (PNG or JPEG).
-     */
-    public static void saveHeightMapAsImage(double[][] heightMap, String fileName, String format) {
-        int width = heightMap.length;
-        int height = heightMap[0].length;
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                int value = (int) ((heightMap[x][y] + 1) * 127.5); // Normalize to [0, 255]
-                int color = (value << 16) | (value << 8) | value; // Grayscale
-                image.setRGB(x, y, color);
-            }
-        }
-
-        try {
-            File outputFile = new File(fileName + "." + format);
-            ImageIO.write(image, format, outputFile);
-            System.out.println("Image saved successfully: " + outputFile.getAbsolutePath());
-        } catch (Exception e) {
-            System.err.println("Error saving the image: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Returns the current state of the terrain.
-     *
-     * @param ballX The x-coordinate of the ball.
-     * @param ballY The y-coordinate of the ball.
-     * @param goalX The x-coordinate of the goal.
-     * @param goalY The y-coordinate of the goal.
-     * @return A flattened array representing the normalized height map with marked ball, goal, and sand positions.
-     */
-    public double[] getState(float ballX, float ballY, float goalX, float goalY) {
-        return MatrixUtils.flattenArray(getNormalizedMarkedHeightMap(ballX, ballY, goalX, goalY));
-    }
-
-    /**
-     * Gets the width of the terrain grid.
-     *
-     * @return The width of the terrain grid.
-     */
-    public int getTerrainWidth(){
-        return gridWidth;
-    }
-
-    /**
-     * Gets the height of the terrain grid.
-     *
-     * @return The height of the terrain grid.
-     */
-    public int getTerrainHeight(){
-        return gridHeight;
-    }
 }
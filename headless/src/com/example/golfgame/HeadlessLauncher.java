@@ -0,0 +1,102 @@
+package com.example.golfgame;
+
+import com.example.golfgame.simulator.PhysicsSimulator;
+import com.example.golfgame.simulator.ShotResult;
+import com.example.golfgame.utils.BallState;
+import com.example.golfgame.utils.Function;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Launches training and simulation batch jobs without the game window. Only the simulation module is on
+ * the classpath, so it runs on servers without a display or OpenGL.
+ *
+ * <pre>
+ * train                                           trains the PPO agent, see {@link TrainingRunner}
+ *                                                 (options as -D system properties, e.g. -Denvironments=8)
+ * shots FUNCTION BALL_X BALL_Y GOAL_X GOAL_Y N [SEED]
+ *                                                 plays N random shots from the ball position and prints
+ *                                                 where each one stops as CSV
+ * </pre>
+ */
+public class HeadlessLauncher {
+    private static final double MIN_SPEED = 1, MAX_SPEED = 5; // Диапазон скоростей случайных ударов, как в randomHits
+
+    /**
+     * The main method of the headless launcher.
+     *
+     * @param args the command and its arguments, see the class description
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            printUsage();
+            System.exit(1);
+        }
+        String[] commandArgs = Arrays.copyOfRange(args, 1, args.length);
+        try {
+            switch (args[0]) {
+                case "train":
+                    TrainingRunner.main(commandArgs);
+                    break;
+                case "shots":
+                    shots(commandArgs);
+                    break;
+                default:
+                    System.err.println("Unknown command: " + args[0]);
+                    printUsage();
+                    System.exit(1);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid arguments: " + e.getMessage());
+            printUsage();
+            System.exit(1);
+        }
+    }
+
+    // Случайные удары из одной позиции, параллельно через evaluateShots; результат в CSV на stdout
+    private static void shots(String[] args) {
+        if (args.length != 6 && args.length != 7) {
+            throw new IllegalArgumentException("shots expects 6 or 7 arguments, got " + args.length);
+        }
+        Function heightFunction = new Function(args[0], "x", "y");
+        BallState start = new BallState(Double.parseDouble(args[1]), Double.parseDouble(args[2]), 0, 0);
+        BallState goal = new BallState(Double.parseDouble(args[3]), Double.parseDouble(args[4]), 0, 0);
+        int count = Integer.parseInt(args[5]);
+        if (count < 1) {
+            throw new IllegalArgumentException("Number of shots must be at least 1, got " + count);
+        }
+        Random random = args.length == 7 ? new Random(Long.parseLong(args[6])) : new Random();
+
+        double[] speeds = new double[count];
+        double[] angles = new double[count];
+        for (int i = 0; i < count; i++) {
+            speeds[i] = MIN_SPEED + random.nextDouble() * (MAX_SPEED - MIN_SPEED);
+            angles[i] = random.nextDouble() * 2 * Math.PI;
+        }
+        PhysicsSimulator simulator = new PhysicsSimulator(heightFunction, goal);
+        long startTime = System.nanoTime();
+        ShotResult[] results = simulator.evaluateShots(start, speeds, angles);
+        long elapsed = System.nanoTime() - startTime;
+
+        int goals = 0, water = 0;
+        System.out.println("speed,angle,x,y,in_water,goal,steps");
+        for (int i = 0; i < count; i++) {
+            ShotResult result = results[i];
+            System.out.printf(Locale.ROOT, "%.6f,%.6f,%.6f,%.6f,%b,%b,%d%n", speeds[i], angles[i],
+                              result.getFinalState().getX(), result.getFinalState().getY(),
+                              result.isInWater(), result.isGoalReached(), result.getSteps());
+            goals += result.isGoalReached() ? 1 : 0;
+            water += result.isInWater() ? 1 : 0;
+        }
+        System.err.printf(Locale.ROOT, "%d shots in %.1f ms: %d in the hole, %d in water%n",
+                          count, elapsed / 1e6, goals, water);
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: HeadlessLauncher <command> [arguments]");
+        System.err.println("  train                                       train the PPO agent (options as -D system properties)");
+        System.err.println("  shots FUNCTION BALL_X BALL_Y GOAL_X GOAL_Y N [SEED]");
+        System.err.println("                                              play N random shots and print where they stop as CSV");
+    }
+}
@@ -0,0 +1,161 @@
+// Создайте новый файл, например, src/com/example/golfgame/TrainingRunner.java
+package com.example.golfgame; // Или ваш основной пакет
+
+import com.example.golfgame.bot.agents.CheckpointManager;
+import com.example.golfgame.bot.agents.PPOAgent;
+import com.example.golfgame.bot.neuralnetwork.Precision;
+import com.example.golfgame.simulator.ActorLearnerPipeline;
+import com.example.golfgame.simulator.ObservationEncoder;
+import com.example.golfgame.simulator.PhysicsSimulator;
+import com.example.golfgame.simulator.VectorizedSimulator;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+public class TrainingRunner {
+
+    public static void main(String[] args) {
+        // --- Параметры ---
+        // Размеры сетей (Пример: вход - 100 (10x10 карта). Добавьте скорость, если нужно!)
+        // УБЕДИТЕСЬ, ЧТО РАЗМЕР СООТВЕТСТВУЕТ ВЫХОДУ simulator.getState()
+        int stateDim = 100; // ЗАМЕНИТЕ на реальный размер вашего состояния (10x10 карта -> 100)
+                            // Если вы добавили скорость, то stateDim = 102
+        // Многоканальное наблюдение: высота, уклон, песок, вода, мяч/лунка на crop'е resolution x resolution
+        // (-DobservationResolution=N, -DobservationCell=размер клетки, -DobservationEgo=false для crop'а вокруг лунки)
+        int observationResolution = Integer.getInteger("observationResolution", 0); // 0: прежняя карта 10x10
+        float observationCell = Float.parseFloat(System.getProperty("observationCell", "1"));
+        boolean observationEgo = Boolean.parseBoolean(System.getProperty("observationEgo", "true"));
+        if (observationResolution > 0) {
+            stateDim = ObservationEncoder.CHANNELS * observationResolution * observationResolution;
+        }
+        int[] policyNetworkSizes = {stateDim, 128, 128, 4}; // Пример: 2 скрытых слоя по 128 нейронов, 4 выхода (mu_t, sig_t, mu_f, sig_f)
+        int[] valueNetworkSizes = {stateDim, 128, 128, 1};  // Пример: 2 скрытых слоя по 128 нейронов, 1 выход (ценность V(s))
+
+        // Параметры PPO
+        double gamma = 0.99;
+        double lambda = 0.95;
+        double epsilon = 0.2;
+
+        // Параметры обучения
+        int total_timesteps = 5*2048;
+        int n_steps_per_batch = 2048;      // Сколько шагов собирать перед одним вызовом train()
+        int epochs_per_batch = 5;         // Сколько раз проходить по собранному батчу
+        int mini_batch_size = 64;          // Размер мини-батча внутри эпохи
+        // Точность сетей: FLOAT вдвое уменьшает объем весов и активаций (-Dprecision=FLOAT)
+        Precision precision = Precision.valueOf(System.getProperty("precision", "DOUBLE"));
+
+        // Learning Rates (передаются в train)
+        // double policyLr = 0.0003; // Сейчас не используется для реального обучения политики
+        // double valueLr = 0.001;   // Используется для обучения Value Network
+
+        // Путь для сохранения/загрузки агента (опционально)
+        // Бинарный checkpoint хранит и состояние Adam, поэтому обучение продолжается без сброса оптимизатора
+        String agentFilePath = "ppo_agent.ckpt";
+        String legacyAgentFilePath = "ppo_agent.ser"; // Прежний формат (Java-сериализация), только для чтения
+
+        // Промежуточные checkpoint'ы: каждые N батчей или T минут, в фоне, хранятся последние K
+        // (-DcheckpointDir=..., -DcheckpointEveryBatches=N, -DcheckpointEveryMinutes=T, -DcheckpointKeep=K)
+        CheckpointManager checkpoints;
+        try {
+            checkpoints = new CheckpointManager(System.getProperty("checkpointDir", "checkpoints"),
+                                                Integer.getInteger("checkpointEveryBatches", 1),
+                                                TimeUnit.MINUTES.toMillis(Long.getLong("checkpointEveryMinutes", 10)),
+                                                Integer.getInteger("checkpointKeep", 3));
+        } catch (IOException e) {
+            System.err.println("Could not create the checkpoint directory, training without checkpoints: " + e.getMessage());
+            checkpoints = null;
+        }
+
+        // Прерванный запуск продолжается с последнего целого checkpoint'а и его номера батча
+        PPOAgent agent = checkpoints != null ? checkpoints.loadLatest() : null;
+        if (agent == null) {
+            try {
+                System.out.println("Attempting to load agent from: " + agentFilePath);
+                agent = PPOAgent.loadCheckpoint(agentFilePath);
+                System.out.println("Agent loaded successfully.");
+            } catch (IOException e) {
+                System.out.println("Could not load checkpoint. Reason: " + e);
+                try {
+                    System.out.println("Attempting to load agent from: " + legacyAgentFilePath);
+                    agent = PPOAgent.loadAgent(legacyAgentFilePath); // Состояние Adam в этом формате не сохраняется
+                    System.out.println("Agent loaded successfully.");
+                } catch (IOException | ClassNotFoundException legacyError) {
+                    System.out.println("Could not load agent, creating a new one. Reason: " + legacyError.getMessage());
+                    agent = new PPOAgent(policyNetworkSizes, valueNetworkSizes, gamma, lambda, epsilon, precision);
+                }
+            }
+        }
+        // Загруженный агент (в том числе из старого файла в double) переводим в выбранную точность
+        agent.setPrecision(precision);
+        System.out.println("Network precision: " + precision);
+
+        // Делим каждый мини-батч между всеми ядрами (результат детерминирован при фиксированном числе воркеров)
+        int trainingWorkers = Runtime.getRuntime().availableProcessors();
+        agent.setTrainingWorkers(trainingWorkers);
+        System.out.println("Training workers: " + trainingWorkers);
+
+        // --- Создание Симулятора ---
+        // Укажите вашу функцию высот или способ ее получения
+        String heightFunctionString = "0"; // ПРОСТЕЙШАЯ ПЛОСКАЯ КАРТА ДЛЯ ТЕСТА! Замените на вашу
+        System.out.println("Using height function: " + heightFunctionString);
+        PhysicsSimulator simulator = new PhysicsSimulator(heightFunctionString, agent);
+        if (observationResolution > 0) {
+            simulator.setObservation(observationResolution, observationCell, observationEgo);
+        }
+        System.out.println("Observation size: " + simulator.getObservationSize());
+        // Несколько независимых сред собирают данные параллельно, с одним проходом политики на шаг (-Denvironments=N)
+        int environmentCount = Integer.getInteger("environments", Runtime.getRuntime().availableProcessors());
+        if (environmentCount > 1) {
+            VectorizedSimulator environments = new VectorizedSimulator(heightFunctionString, agent, environmentCount, 2024);
+            if (observationResolution > 0) {
+                environments.setObservation(observationResolution, observationCell, observationEgo);
+            }
+            simulator.setEnvironments(environments);
+        }
+        System.out.println("Rollout environments: " + Math.max(1, environmentCount));
+        // simulator.addFunction("0.1*sin(x)+0.05*cos(y)"); // Если хотите добавить другие позже
+
+        System.out.println("Simulator and Agent created.");
+
+        // --- Запуск Симуляции и Обучения ---
+        System.out.println("Starting simulation loop...");
+        try {
+            // Запускаем симуляцию/обучение
+            if (Boolean.getBoolean("async")) {
+                // Конвейер: акторы собирают данные копией политики, пока агент обучается (-Dasync=true)
+                int actorCount = Math.max(1, environmentCount / 2);
+                ActorLearnerPipeline pipeline = new ActorLearnerPipeline(heightFunctionString, agent, actorCount,
+                                                                         Math.max(1, environmentCount / actorCount), 2, 2024);
+                if (observationResolution > 0) {
+                    pipeline.setObservation(observationResolution, observationCell, observationEgo);
+                }
+                pipeline.run(total_timesteps, n_steps_per_batch, epochs_per_batch, mini_batch_size);
+                System.out.println("Batch staleness: " + pipeline.getStalenessHistory());
+            } else {
+                simulator.runSimulation(
+                    total_timesteps,
+                    n_steps_per_batch,
+                    epochs_per_batch,
+                    mini_batch_size,
+                    checkpoints
+                );
+            }
+        } catch (Exception e) {
+             System.err.println("An error occurred during simulation/training:");
+             e.printStackTrace(); // Печатаем стек ошибки для диагностики
+        } finally { // Блок finally выполнится даже если была ошибка
+             if (checkpoints != null) {
+                 checkpoints.close(); // Дожидаемся фоновой записи checkpoint'ов
+             }
+             // --- Сохранение Агента (Опционально) ---
+             try {
+                 System.out.println("Attempting to save agent to: " + agentFilePath);
+                 agent.saveCheckpoint(agentFilePath, true);
+                 System.out.println("Agent saved successfully.");
+             } catch (IOException e) {
+                 System.err.println("Failed to save agent: " + e.getMessage());
+                 e.printStackTrace();
+             }
+        }
+        System.out.println("Training process finished.");
+    }
+}
\ No newline at end of file
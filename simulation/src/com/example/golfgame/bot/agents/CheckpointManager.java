@@ -0,0 +1,218 @@
+package com.example.golfgame.bot.agents;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes periodic checkpoints of a {@link PPOAgent} during training and finds the latest one to resume from.
+ *
+ * <p>A checkpoint is due every {@code batchInterval} batches or every {@code timeInterval} milliseconds,
+ * whichever comes first. {@link #save} snapshots the agent into memory on the calling thread, which only
+ * takes a copy of the parameters and Adam state, and writes it on a background thread: first to a temporary
+ * file, which is then atomically renamed to {@code checkpoint-<batch>-<timesteps>.ckpt}. A crash therefore
+ * never leaves a partial checkpoint under a checkpoint name. After each write only the newest
+ * {@code keepLast} checkpoints are kept.</p>
+ *
+ * <p>{@link #loadLatest()} loads the newest checkpoint that passes its checksum and remembers its batch and
+ * timestep counters, so {@link com.example.golfgame.simulator.PhysicsSimulator#runSimulation} can continue
+ * the count from there.</p>
+ */
+public class CheckpointManager implements AutoCloseable {
+    private static final Pattern FILE_NAME = Pattern.compile("checkpoint-(\\d+)-(\\d+)\\.ckpt");
+
+    private final Path directory;
+    private final int batchInterval;
+    private final long timeInterval;
+    private final int keepLast;
+    private final ExecutorService writer;
+    private long lastSaveTime = System.currentTimeMillis();
+    private int lastSavedBatch = -1;
+    private int resumedBatch = 0;
+    private int resumedTimesteps = 0;
+
+    /**
+     * Constructs a CheckpointManager that keeps its checkpoints in the given directory, creating it if needed.
+     *
+     * @param directory the directory of the checkpoints
+     * @param batchInterval save every this many batches; 0 disables the batch interval
+     * @param timeInterval save when this many milliseconds have passed since the last save; 0 disables the time interval
+     * @param keepLast the number of newest checkpoints to keep
+     * @throws IllegalArgumentException if an interval is negative or keepLast is less than 1
+     * @throws IOException if the directory cannot be created
+     */
+    public CheckpointManager(String directory, int batchInterval, long timeInterval, int keepLast) throws IOException {
+        if (batchInterval < 0 || timeInterval < 0 || keepLast < 1) {
+            throw new IllegalArgumentException("Intervals must not be negative and at least 1 checkpoint must be kept, got "
+                                               + batchInterval + ", " + timeInterval + " and " + keepLast);
+        }
+        this.directory = Files.createDirectories(Paths.get(directory));
+        this.batchInterval = batchInterval;
+        this.timeInterval = timeInterval;
+        this.keepLast = keepLast;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ppo-checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns whether a checkpoint is due after the given batch.
+     *
+     * @param batch the number of batches trained so far
+     * @return true if the batch or time interval has passed since the last checkpoint
+     */
+    public boolean isDue(int batch) {
+        if (batch == lastSavedBatch) {
+            return false;
+        }
+        return (batchInterval > 0 && batch % batchInterval == 0)
+               || (timeInterval > 0 && System.currentTimeMillis() - lastSaveTime >= timeInterval);
+    }
+
+    /**
+     * Snapshots the agent, including its Adam state, and writes the snapshot in the background. The agent may
+     * keep training as soon as this returns. A failed write is reported on {@code System.err} and does not stop
+     * training. Does nothing if this batch was already saved or resumed from.
+     *
+     * @param agent the agent to save; must not be trained during the call
+     * @param batch the number of batches trained so far
+     * @param timesteps the number of timesteps trained so far
+     */
+    public void save(PPOAgent agent, int batch, int timesteps) {
+        if (batch == lastSavedBatch) {
+            return;
+        }
+        final ByteBuffer snapshot = agent.createCheckpoint(true);
+        final String name = String.format("checkpoint-%08d-%d.ckpt", batch, timesteps);
+        lastSaveTime = System.currentTimeMillis();
+        lastSavedBatch = batch;
+        writer.execute(() -> {
+            try {
+                write(snapshot, name);
+                deleteOldCheckpoints();
+                System.out.println("Checkpoint saved: " + directory.resolve(name));
+            } catch (IOException e) {
+                System.err.println("Failed to save checkpoint " + name + ": " + e);
+            }
+        });
+    }
+
+    /**
+     * Loads the newest checkpoint in the directory that can be read and passes its checksum, skipping corrupt
+     * ones, and remembers its counters (see {@link #getResumedBatch()} and {@link #getResumedTimesteps()}).
+     *
+     * @return the agent of the newest valid checkpoint, or null if there is none
+     */
+    public PPOAgent loadLatest() {
+        List<Path> checkpoints;
+        try {
+            checkpoints = listCheckpoints();
+        } catch (IOException e) {
+            System.err.println("Failed to list checkpoints in " + directory + ": " + e);
+            return null;
+        }
+        for (int i = checkpoints.size() - 1; i >= 0; i--) {
+            Path checkpoint = checkpoints.get(i);
+            try {
+                PPOAgent agent = PPOAgent.loadCheckpoint(checkpoint.toString());
+                Matcher matcher = FILE_NAME.matcher(checkpoint.getFileName().toString());
+                matcher.matches();
+                resumedBatch = Integer.parseInt(matcher.group(1));
+                resumedTimesteps = Integer.parseInt(matcher.group(2));
+                lastSavedBatch = resumedBatch;
+                System.out.println("Resuming from checkpoint " + checkpoint + " (batch " + resumedBatch
+                                   + ", timestep " + resumedTimesteps + ")");
+                return agent;
+            } catch (IOException e) {
+                System.err.println("Skipping invalid checkpoint " + checkpoint + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of batches trained when the checkpoint loaded by {@link #loadLatest()} was written.
+     *
+     * @return the batch counter to resume from, 0 if nothing was loaded
+     */
+    public int getResumedBatch() {
+        return resumedBatch;
+    }
+
+    /**
+     * Returns the number of timesteps trained when the checkpoint loaded by {@link #loadLatest()} was written.
+     *
+     * @return the timestep counter to resume from, 0 if nothing was loaded
+     */
+    public int getResumedTimesteps() {
+        return resumedTimesteps;
+    }
+
+    /**
+     * Waits until every pending checkpoint is written, then stops the writer thread.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Запись во временный файл, сброс на диск и атомарное переименование
+    private void write(ByteBuffer snapshot, String name) throws IOException {
+        Path temporary = directory.resolve(name + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temporary, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void deleteOldCheckpoints() throws IOException {
+        List<Path> checkpoints = listCheckpoints();
+        for (int i = 0; i < checkpoints.size() - keepLast; i++) {
+            Files.deleteIfExists(checkpoints.get(i));
+        }
+    }
+
+    // Контрольные точки в порядке номера батча (имена дополнены нулями, так что порядок имен совпадает)
+    private List<Path> listCheckpoints() throws IOException {
+        List<Path> checkpoints = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (FILE_NAME.matcher(file.getFileName().toString()).matches()) {
+                    checkpoints.add(file);
+                }
+            }
+        }
+        Collections.sort(checkpoints);
+        return checkpoints;
+    }
+}
@@ -0,0 +1,740 @@
+package com.example.golfgame.bot.agents;
+
+import com.example.golfgame.bot.neuralnetwork.GaussianHead;
+import com.example.golfgame.bot.neuralnetwork.PolicyNetwork;
+import com.example.golfgame.bot.neuralnetwork.Precision;
+import com.example.golfgame.bot.neuralnetwork.ValueNetwork;
+import com.example.golfgame.bot.neuralnetwork.Workspace;
+import com.example.golfgame.utils.ppoUtils.Action;
+import com.example.golfgame.utils.ppoUtils.BackPropResult;
+import com.example.golfgame.utils.ppoUtils.State;
+import com.example.golfgame.utils.ppoUtils.RolloutBuffer;
+import com.example.golfgame.utils.ppoUtils.Transition;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * The PPOAgent class implements a Proximal Policy Optimization (PPO) agent.
+ * It uses policy and value networks to learn and select actions based on states.
+ */
+public class PPOAgent implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private PolicyNetwork policyNetwork;
+    private ValueNetwork valueNetwork;
+    private double gamma; // Discount factor
+    private double lambda; // GAE parameter
+    private double epsilon; // Clipping parameter for PPO
+    private Random random = new Random(System.currentTimeMillis());
+    private int trainingWorkers = 1; // Shards per mini-batch, see setTrainingWorkers
+    private transient ExecutorService executor; // null: common fork-join pool
+
+    // Бинарный checkpoint, см. createCheckpoint
+    private static final int CHECKPOINT_MAGIC = 0x434F5050; // "PPOC" в little-endian
+    private static final int CHECKPOINT_VERSION = 1;
+    private static final int CHECKPOINT_HEADER_SIZE = 2 * Integer.BYTES + 3 * Double.BYTES;
+
+    /**
+     * Constructs a PPOAgent with the specified parameters.
+     *
+     * @param policyNetworkSizes sizes of the layers in the policy network
+     * @param valueNetworkSizes sizes of the layers in the value network
+     * @param gamma discount factor
+     * @param lambda GAE parameter
+     * @param epsilon clipping parameter for PPO
+     */
+    public PPOAgent(int[] policyNetworkSizes, int[] valueNetworkSizes, double gamma, double lambda, double epsilon) {
+        this(policyNetworkSizes, valueNetworkSizes, gamma, lambda, epsilon, Precision.DOUBLE);
+    }
+
+    /**
+     * Constructs a PPOAgent whose networks store and compute in the given precision.
+     *
+     * @param policyNetworkSizes sizes of the layers in the policy network
+     * @param valueNetworkSizes sizes of the layers in the value network
+     * @param gamma discount factor
+     * @param lambda GAE parameter
+     * @param epsilon clipping parameter for PPO
+     * @param precision precision of both networks
+     */
+    public PPOAgent(int[] policyNetworkSizes, int[] valueNetworkSizes, double gamma, double lambda, double epsilon,
+                    Precision precision) {
+        // Ensure the networks use appropriate activation functions by default
+        this.policyNetwork = new PolicyNetwork(policyNetworkSizes, precision); // Uses ReLU hidden, Linear output by default
+        this.valueNetwork = new ValueNetwork(valueNetworkSizes, precision);   // Uses ReLU hidden, Linear output by default
+        this.gamma = gamma;
+        this.lambda = lambda;
+        this.epsilon = epsilon;
+    }
+    /**
+     * Creates an agent with copies of the networks of this one and the same PPO parameters, for acting on
+     * another thread while this agent trains. The copy has fresh Adam state and its own random number
+     * generator.
+     *
+     * @param seed the seed of the copy's random number generator
+     * @return an independent copy of this agent
+     */
+    public PPOAgent snapshot(long seed) {
+        PPOAgent copy = new PPOAgent(policyNetwork.copy(), valueNetwork.copy(), gamma, lambda, epsilon);
+        copy.setSeed(seed);
+        return copy;
+    }
+
+    /**
+     * Overwrites the network parameters of this agent with those of another agent with the same network
+     * shapes, e.g. to bring an actor up to date with a newer policy snapshot.
+     *
+     * @param source the agent to copy from; must not be trained during the call
+     * @throws IllegalArgumentException if the networks differ in shape or precision
+     */
+    public void copyNetworksFrom(PPOAgent source) {
+        policyNetwork.copyParametersFrom(source.policyNetwork);
+        valueNetwork.copyParametersFrom(source.valueNetwork);
+    }
+
+    private PPOAgent(PolicyNetwork policyNetwork, ValueNetwork valueNetwork, double gamma, double lambda, double epsilon) {
+        this.policyNetwork = policyNetwork;
+        this.valueNetwork = valueNetwork;
+        this.gamma = gamma;
+        this.lambda = lambda;
+        this.epsilon = epsilon;
+    }
+
+    public double softplus(double x) {
+        // Более стабильная реализация softplus
+        if (x > 30) return x; // Приближение для больших x
+        if (x < -30) return Math.exp(x); // Приближение для малых x
+        return Math.log(1 + Math.exp(x));
+    }
+
+    /**
+     * Stores a transition in the agent's memory.
+     * Note: This is not used in the current PPO training loop,
+     * data is passed directly to train(). Kept for potential other uses.
+     *
+     * @param transition the transition to store
+     */
+    public void storeTransition(Transition transition) {
+        // If you need a persistent memory buffer elsewhere, you can use this.
+        // For the current train() method, it's not directly used.
+        // this.memory.add(transition);
+    }
+
+    /**
+     * Trains both networks with PPO on a rollout. Computes the advantage column of the rollout from the
+     * value estimates recorded when the actions were selected, then runs {@code epochs} passes over it in
+     * shuffled mini-batches.
+     *
+     * @param rollout the rollout to train on, in trajectory order, with the values and log-probabilities
+     *                recorded by {@link #selectAction(State, RolloutBuffer, int)}
+     * @param epochs the number of passes over the rollout
+     * @param miniBatchSize the number of steps per parameter update
+     * @param policyLr the learning rate of the policy network
+     * @param valueLr the learning rate of the value network
+     */
+    public void train(RolloutBuffer rollout, int epochs, int miniBatchSize, double policyLr, double valueLr) {
+        if (rollout == null || rollout.size() == 0) {
+            System.err.println("Warning: Trying to train on empty batch data.");
+            return;
+        }
+
+        int batchSize = rollout.size();
+        System.out.println("Starting training: Batch Size=" + batchSize + ", Epochs=" + epochs + ", MiniBatchSize=" + miniBatchSize);
+
+        int[] indices = new int[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            indices[i] = i;
+        }
+
+        // 1. Compute Advantages ONCE for the entire batch from the values stored during collection.
+        computeAdvantages(rollout);
+        // --- Advantage Normalization (Optional but Recommended) ---
+        double[] advantagesArray = normalizeAdvantages(rollout);
+        // --- End Advantage Normalization ---
+
+        // Workspaces and gradient buffers are allocated once per call and reused by every mini-batch
+        GradientWorker[] workers = new GradientWorker[Math.max(1, trainingWorkers)];
+        int shardCapacity = Math.max(1, Math.min(miniBatchSize, batchSize));
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new GradientWorker(shardCapacity);
+        }
+
+        // 2. Training Loop over Epochs
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            shuffle(indices);
+
+            double totalPolicyLossEpoch = 0;
+            double totalValueLossEpoch = 0;
+            double totalEntropyEpoch = 0;
+            int miniBatchCount = 0;
+
+            // 3. Loop over Mini-batches
+            for (int start = 0; start < batchSize; start += miniBatchSize) {
+                
+                int end = Math.min(start + miniBatchSize, batchSize);
+                int currentMiniBatchSize = end - start;
+
+                // 4. Split the mini-batch into contiguous shards, one per worker
+                int shardCount = Math.min(workers.length, currentMiniBatchSize);
+                List<Callable<Void>> tasks = new ArrayList<>(shardCount);
+                for (int shard = 0; shard < shardCount; shard++) {
+                    final GradientWorker worker = workers[shard];
+                    final int first = start + currentMiniBatchSize * shard / shardCount;
+                    final int last = start + currentMiniBatchSize * (shard + 1) / shardCount;
+                    tasks.add(() -> {
+                        worker.computeGradients(rollout, indices, first, last, advantagesArray);
+                        return null;
+                    });
+                }
+                runAll(tasks);
+                reduceGradients(workers, shardCount);
+                for (int shard = 0; shard < shardCount; shard++) {
+                    totalPolicyLossEpoch += workers[shard].policyLoss;
+                    totalValueLossEpoch += workers[shard].valueLoss;
+                    totalEntropyEpoch += workers[shard].entropy;
+                }
+
+                // 5. Update Parameters after processing the mini-batch
+                policyNetwork.updateParameters(workers[0].policyGradients.getNablaW(), workers[0].policyGradients.getNablaB(), policyLr, currentMiniBatchSize);
+                valueNetwork.updateParameters(workers[0].valueGradients.getNablaW(), workers[0].valueGradients.getNablaB(), valueLr, currentMiniBatchSize);
+                miniBatchCount++;
+
+            } // End loop over mini-batches
+
+            // Log average losses for the epoch
+            if (miniBatchCount > 0) {
+                 System.out.printf("Epoch %d/%d - Avg Policy Loss: %.4f, Avg Value Loss: %.4f, Avg Entropy: %.4f%n",
+                                   epoch + 1, epochs, totalPolicyLossEpoch / batchSize, totalValueLossEpoch / batchSize,
+                                   totalEntropyEpoch / batchSize);
+             } else {
+                 System.out.println("Epoch " + (epoch + 1) + "/" + epochs + " - No mini-batches processed.");
+             }
+
+        } // End loop over epochs
+        System.out.println("Training finished for the batch.");
+    } // End train method
+
+
+    // Policy gradient dL/dz of the output layer for one sample, written into delta; returns the PPO loss
+    private double computePolicyDelta(GaussianHead head, double advantage, double oldLogProbability, double[] policy_initial_delta) {
+        // --- Calculate Policy Gradient dL/dz_L ---
+        double probabilityRatio = PolicyNetwork.probabilityRatio(head.getLogProbability(), oldLogProbability);
+
+        // L = -min(r * A, clip(r) * A). Пока работает неотсеченная ветвь, dL/dz = -A * r * dlogp/dz,
+        // иначе (отношение вышло за границу в сторону выгоды) градиент равен 0
+        boolean clipped = advantage > 0 ? probabilityRatio > 1 + epsilon : probabilityRatio < 1 - epsilon;
+        double dL_dlogp = clipped ? 0.0 : -advantage * probabilityRatio;
+
+        for (int r = 0; r < 4; r++) {
+            policy_initial_delta[r] = dL_dlogp * head.getLogProbabilityGradient(r);
+            // --- Optional: Gradient Clipping ---
+            double clipVal = 1.0;
+            policy_initial_delta[r] = Math.max(-clipVal, Math.min(clipVal, policy_initial_delta[r]));
+            // --- End Optional: Gradient Clipping ---
+        }
+        // --- End Policy Gradient Calculation ---
+        return PolicyNetwork.computeLoss(probabilityRatio, advantage, epsilon);
+    }
+
+    /**
+     * Computes the gradients of both networks for a shard of a mini-batch into buffers it owns, so several
+     * workers can run at once. The networks are only read while gradients are computed, and every buffer is
+     * allocated up front, so a shard allocates nothing.
+     */
+    private final class GradientWorker {
+        private final Workspace policyWorkspace;
+        private final Workspace valueWorkspace;
+        private final BackPropResult policyGradients;
+        private final BackPropResult valueGradients;
+        private final double[] value_initial_delta;
+        private final double[] policy_initial_deltas;
+        private final double[] policyOutput = new double[4];
+        private final double[] policy_initial_delta = new double[4];
+        private final double[] action = new double[2];
+        private final GaussianHead head = new GaussianHead();
+        private double policyLoss;
+        private double valueLoss;
+        private double entropy;
+
+        private GradientWorker(int capacity) {
+            policyWorkspace = policyNetwork.createWorkspace(capacity);
+            valueWorkspace = valueNetwork.createWorkspace(capacity);
+            policyGradients = policyWorkspace.getGradients();
+            valueGradients = valueWorkspace.getGradients();
+            value_initial_delta = new double[capacity];
+            policy_initial_deltas = new double[4 * capacity];
+        }
+
+        private void computeGradients(RolloutBuffer rollout, int[] indices, int first, int last, double[] advantagesArray) {
+            int count = last - first;
+            policyLoss = 0;
+            valueLoss = 0;
+            entropy = 0;
+
+            // === Value Network Gradients ===
+            // Gather the shard into (features x samples) matrices straight in the workspace inputs
+            double[] valueInputs = valueWorkspace.getInputs();
+            rollout.gatherObservations(indices, first, last, valueInputs);
+            double[] predictedValues = valueNetwork.forward(valueWorkspace, count);
+            for (int s = 0; s < count; s++) {
+                int index = indices[first + s];
+                // Цель - GAE-возврат: исходное (ненормализованное) преимущество плюс сохраненная V(s)
+                double targetValue = rollout.getAdvantage(index) + rollout.getValue(index);
+                double dL_dValue = predictedValues[s] - targetValue;
+                value_initial_delta[s] = dL_dValue; // dL/dz = dL/d(output) * 1 (for linear output)
+                valueLoss += 0.5 * Math.pow(dL_dValue, 2); // Accumulate MSE loss for logging
+            }
+            valueNetwork.backprop(valueWorkspace, value_initial_delta, count);
+
+            // === Policy Network Gradients ===
+            System.arraycopy(valueInputs, 0, policyWorkspace.getInputs(), 0, rollout.getObservationSize() * count);
+            double[] policyOutputs = policyNetwork.forward(policyWorkspace, count);
+            for (int s = 0; s < count; s++) {
+                int index = indices[first + s];
+                double advantage = advantagesArray[index]; // Use potentially normalized advantage
+                action[0] = rollout.getAngle(index);
+                action[1] = rollout.getForce(index);
+                getColumn(policyOutputs, count, s, policyOutput);
+                policyNetwork.evaluateHead(policyOutput, action, head);
+                // Accumulate actual PPO loss for logging
+                policyLoss += computePolicyDelta(head, advantage, rollout.getLogProb(index), policy_initial_delta);
+                entropy += head.getEntropy();
+                setColumn(policy_initial_deltas, count, s, policy_initial_delta);
+            }
+            policyNetwork.backprop(policyWorkspace, policy_initial_deltas, count);
+        }
+    }
+
+    // Pairwise (tree) sum of the workers' gradients into workers[0]. The pairing depends only on the
+    // number of shards, so the result is the same for every run with the same worker count.
+    private void reduceGradients(final GradientWorker[] workers, int count) {
+        for (int stride = 1; stride < count; stride *= 2) {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i + stride < count; i += 2 * stride) {
+                final GradientWorker into = workers[i];
+                final GradientWorker from = workers[i + stride];
+                tasks.add(() -> {
+                    addGradients(into.policyGradients, from.policyGradients);
+                    addGradients(into.valueGradients, from.valueGradients);
+                    return null;
+                });
+            }
+            runAll(tasks);
+        }
+    }
+
+    private static void addGradients(BackPropResult into, BackPropResult from) {
+        addArrays(into.getNablaW(), from.getNablaW());
+        addArrays(into.getNablaB(), from.getNablaB());
+    }
+
+    private static void addArrays(double[][] into, double[][] from) {
+        for (int i = 0; i < into.length; i++) {
+            double[] target = into[i];
+            double[] source = from[i];
+            for (int j = 0; j < target.length; j++) {
+                target[j] += source[j];
+            }
+        }
+    }
+
+    // Runs the tasks on the executor, or directly when there is only one
+    private void runAll(List<Callable<Void>> tasks) {
+        try {
+            if (tasks.size() == 1) {
+                tasks.get(0).call();
+                return;
+            }
+            ExecutorService pool = executor != null ? executor : ForkJoinPool.commonPool();
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing gradients", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to compute gradients", e.getCause());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to compute gradients", e);
+        }
+    }
+
+    /**
+     * Sets the number of workers each training mini-batch is split across. Every worker computes the
+     * gradients of a contiguous shard of the mini-batch into its own buffers, and the partial gradients are
+     * summed pairwise before the Adam step. For a fixed seed and worker count training is deterministic,
+     * whatever the number of threads of the executor. Defaults to 1, which trains on the calling thread.
+     *
+     * @param workers the number of shards per mini-batch
+     * @throws IllegalArgumentException if workers is less than 1
+     */
+    public void setTrainingWorkers(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of training workers must be at least 1, got " + workers);
+        }
+        this.trainingWorkers = workers;
+    }
+
+    /**
+     * Sets the executor the training workers run on. Defaults to the common fork-join pool.
+     *
+     * @param executor the executor to use
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Reseeds the random number generator used to shuffle mini-batches and sample actions.
+     *
+     * @param seed the new seed
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * Converts both networks to the given precision, e.g. to train an agent loaded from a double-precision
+     * checkpoint in single precision.
+     *
+     * @param precision the new precision of both networks
+     */
+    public void setPrecision(Precision precision) {
+        policyNetwork.setPrecision(precision);
+        valueNetwork.setPrecision(precision);
+    }
+
+    // Helper method for advantage normalization (optional but recommended)
+    private double[] normalizeAdvantages(RolloutBuffer rollout) {
+        int size = rollout.size();
+        double[] advantages = new double[size];
+        for (int i = 0; i < size; i++) {
+            advantages[i] = rollout.getAdvantage(i);
+        }
+        if (size <= 1) {
+            return advantages; // Cannot normalize if size is 0 or 1
+        }
+
+        double sum = 0.0;
+        for (double adv : advantages) {
+            sum += adv;
+        }
+        double mean = sum / size;
+
+        double sumSq = 0.0;
+        for (double adv : advantages) {
+            sumSq += (adv - mean) * (adv - mean);
+        }
+        // Use population standard deviation or sample standard deviation? Usually population for batch.
+        // Add epsilon for numerical stability if std dev is close to zero
+        double stdDev = Math.sqrt(sumSq / size) + 1e-8;
+
+        double[] normalizedAdvantages = new double[size];
+        for (int i = 0; i < size; i++) {
+            normalizedAdvantages[i] = (advantages[i] - mean) / stdDev;
+        }
+        // Optional: Log mean and std dev before normalization for debugging
+        // System.out.printf("Advantage stats: Mean=%.4f, StdDev=%.4f%n", mean, stdDev);
+        return normalizedAdvantages;
+    }
+
+
+    // --- Вспомогательные методы для батчей (матрица: признаки x примеры, по строкам) ---
+    private static void setColumn(double[] matrix, int batchSize, int column, double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            matrix[i * batchSize + column] = values[i];
+        }
+    }
+
+    private static void getColumn(double[] matrix, int batchSize, int column, double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = matrix[i * batchSize + column];
+        }
+    }
+
+    // То же, что Collections.shuffle(list, random), но для int[]
+    private void shuffle(int[] indices) {
+        for (int i = indices.length; i > 1; i--) {
+            int j = random.nextInt(i);
+            int swap = indices[i - 1];
+            indices[i - 1] = indices[j];
+            indices[j] = swap;
+        }
+    }
+
+    // GAE advantages from the stored values; the recursion restarts wherever a trajectory ends
+    private void computeAdvantages(RolloutBuffer rollout) {
+        double advantage = 0.0;
+        for (int i = rollout.size() - 1; i >= 0; i--) {
+            if (!rollout.continuesToNextStep(i)) {
+                advantage = 0.0;
+            }
+            double delta = rollout.getReward(i) + gamma * rollout.getNextValue(i) - rollout.getValue(i);
+            advantage = delta + gamma * lambda * advantage;
+            rollout.setAdvantage(i, advantage);
+        }
+    }
+
+
+    // --- Методы selectAction, softplus, selectRandomAction --- (без изменений)
+    public Action selectAction(State state) {
+         return sampleAction(policyNetwork.forward(state.getState()));
+    }
+
+    /**
+     * Selects an action and records the value estimate of the state and the log-probability of the action
+     * at the given step of a rollout, for {@link #train}.
+     *
+     * @param state the state to act in
+     * @param rollout the rollout being collected
+     * @param step the index of the step in the rollout
+     * @return the selected action
+     */
+    public Action selectAction(State state, RolloutBuffer rollout, int step) {
+         return selectActions(new State[]{state}, rollout, new int[]{step})[0];
+    }
+
+    /**
+     * Selects an action for each of several states with one batched forward pass of the policy network.
+     * Actions are sampled in the order of the states, so the result depends only on the seed of the agent.
+     *
+     * @param states the states to act in, all of the same size
+     * @return one action per state, in the same order
+     */
+    public Action[] selectActions(State[] states) {
+         return selectActions(states, null, null);
+    }
+
+    /**
+     * Like {@link #selectActions(State[])}, but also records the value estimate of each state and the
+     * log-probability of its action at the given steps of a rollout, using one batched forward pass of the
+     * value network.
+     *
+     * @param states the states to act in, all of the same size
+     * @param rollout the rollout being collected
+     * @param steps the index in the rollout of the step of each state
+     * @return one action per state, in the same order
+     */
+    public Action[] selectActions(State[] states, RolloutBuffer rollout, int[] steps) {
+         int count = states.length;
+         int stateSize = states[0].getState().length;
+         double[] inputs = new double[stateSize * count];
+         for (int s = 0; s < count; s++) {
+             setColumn(inputs, count, s, states[s].getState());
+         }
+         double[] policyOutputs = policyNetwork.forward(inputs, count);
+         Action[] actions = new Action[count];
+         double[] policyOutput = new double[4];
+         double[] action = new double[2];
+         for (int s = 0; s < count; s++) {
+             getColumn(policyOutputs, count, s, policyOutput);
+             actions[s] = sampleAction(policyOutput);
+             if (rollout != null) {
+                 // Лог-вероятность действия после ограничения силы - именно оно попадет в rollout
+                 action[0] = actions[s].getAngle();
+                 action[1] = actions[s].getForce();
+                 rollout.setLogProb(steps[s], policyNetwork.computeLogProbability(policyOutput, action));
+             }
+         }
+         if (rollout != null) {
+             double[] values = valueNetwork.forward(inputs, count);
+             for (int s = 0; s < count; s++) {
+                 rollout.setValue(steps[s], values[s]);
+             }
+         }
+         return actions;
+    }
+
+    // Сэмплирование действия из выхода политики (mu_theta, sigma_theta_raw, mu_force, sigma_force_raw)
+    private Action sampleAction(double[] policyOutput) {
+         double mu_theta = policyOutput[0];
+         double sigma_theta_raw = policyOutput[1];
+         double mu_force = policyOutput[2];
+         double sigma_force_raw = policyOutput[3];
+
+         double sigma_theta = softplus(sigma_theta_raw);
+         double sigma_force = softplus(sigma_force_raw);
+
+         // Добавим ограничение на минимальную сигму для стабильности
+         sigma_theta = Math.max(sigma_theta, 1e-6);
+         sigma_force = Math.max(sigma_force, 1e-6);
+
+         double theta = mu_theta + sigma_theta * random.nextGaussian();
+         double force = mu_force + sigma_force * random.nextGaussian();
+
+         // Ограничение силы в разумных пределах
+         force = Math.max(1.0, Math.min(force, 5.0)); // Примерные границы, подберите под вашу игру
+
+         // Опционально: Ограничение угла (например, в [-pi, pi] или [0, 2pi])
+         // theta = Math.atan2(Math.sin(theta), Math.cos(theta)); // Нормализация в [-pi, pi]
+
+         return new Action(theta, force);
+    }
+
+    /**
+     * Returns the value network's estimate of a state, e.g. to bootstrap a trajectory cut off mid-episode.
+     *
+     * @param state the state to evaluate
+     * @return the value estimate of the state
+     */
+    public double estimateValue(State state) {
+         return valueNetwork.forward(state.getState())[0];
+    }
+
+    /**
+     * Returns the value network's estimates of several states with one batched forward pass.
+     *
+     * @param states the states to evaluate, all of the same size
+     * @return one value estimate per state, in the same order
+     */
+    public double[] estimateValues(State[] states) {
+         int count = states.length;
+         double[] inputs = new double[states[0].getState().length * count];
+         for (int s = 0; s < count; s++) {
+             setColumn(inputs, count, s, states[s].getState());
+         }
+         return valueNetwork.forward(inputs, count).clone();
+    }
+
+     public Action selectRandomAction() {
+         double theta = random.nextDouble() * 2 * Math.PI;
+         double force = random.nextDouble() * (5.0 - 1.0) + 1.0; // Границы силы
+         return new Action(theta, force);
+     }
+
+
+    // --- Методы saveAgent, loadAgent --- (без изменений)
+    public void saveAgent(String filePath) throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filePath))) {
+            oos.writeObject(this);
+        }
+    }
+
+    public static PPOAgent loadAgent(String filePath) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filePath))) {
+            return (PPOAgent) ois.readObject();
+        }
+    }
+
+    /**
+     * Encodes the agent as a binary checkpoint in memory. The checkpoint is little-endian: a header (magic
+     * number, format version, gamma, lambda and epsilon), the blocks of the policy and value networks (see
+     * {@link com.example.golfgame.bot.neuralnetwork.NeuralNetwork#writeCheckpoint(ByteBuffer, boolean)}) and a
+     * CRC32 of everything before it.
+     *
+     * @param includeOptimizerState whether to include the Adam state, so training resumes where it stopped
+     * @return the checkpoint, positioned at 0
+     */
+    public ByteBuffer createCheckpoint(boolean includeOptimizerState) {
+        int size = CHECKPOINT_HEADER_SIZE + policyNetwork.checkpointSize(includeOptimizerState)
+                   + valueNetwork.checkpointSize(includeOptimizerState) + Integer.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(CHECKPOINT_MAGIC);
+        buffer.putInt(CHECKPOINT_VERSION);
+        buffer.putDouble(gamma);
+        buffer.putDouble(lambda);
+        buffer.putDouble(epsilon);
+        policyNetwork.writeCheckpoint(buffer, includeOptimizerState);
+        valueNetwork.writeCheckpoint(buffer, includeOptimizerState);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Writes the agent to a file as a binary checkpoint, see {@link #createCheckpoint(boolean)}.
+     *
+     * @param filePath the file to write
+     * @param includeOptimizerState whether to include the Adam state, so training resumes where it stopped
+     * @throws IOException if the file cannot be written
+     */
+    public void saveCheckpoint(String filePath, boolean includeOptimizerState) throws IOException {
+        ByteBuffer checkpoint = createCheckpoint(includeOptimizerState);
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (checkpoint.hasRemaining()) {
+                channel.write(checkpoint);
+            }
+        }
+    }
+
+    /**
+     * Loads an agent from a binary checkpoint file written by {@link #saveCheckpoint(String, boolean)}. The
+     * file is memory-mapped rather than read through a stream. If the checkpoint has the Adam state, training
+     * continues with it.
+     *
+     * @param filePath the file to read
+     * @return the loaded agent
+     * @throws IOException if the file cannot be read, is not a checkpoint, has an unsupported version or
+     *                     fails its checksum
+     */
+    public static PPOAgent loadCheckpoint(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Checkpoint is too large: " + size + " bytes");
+            }
+            return readCheckpoint(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Decodes an agent from a checkpoint created by {@link #createCheckpoint(boolean)}.
+     *
+     * @param checkpoint the checkpoint, from its position to its limit
+     * @return the decoded agent
+     * @throws IOException if the data is not a checkpoint, has an unsupported version or fails its checksum
+     */
+    public static PPOAgent readCheckpoint(ByteBuffer checkpoint) throws IOException {
+        ByteBuffer buffer = checkpoint.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < CHECKPOINT_HEADER_SIZE + Integer.BYTES || buffer.getInt(0) != CHECKPOINT_MAGIC) {
+            throw new IOException("Not a PPO agent checkpoint");
+        }
+        int version = buffer.getInt(Integer.BYTES);
+        if (version != CHECKPOINT_VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version + ", expected " + CHECKPOINT_VERSION);
+        }
+        int checksumPosition = buffer.limit() - Integer.BYTES;
+        ByteBuffer body = buffer.duplicate();
+        body.limit(checksumPosition);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != buffer.getInt(checksumPosition)) {
+            throw new IOException("Checkpoint checksum mismatch: the file is corrupt or incomplete");
+        }
+
+        buffer.position(2 * Integer.BYTES);
+        double gamma = buffer.getDouble();
+        double lambda = buffer.getDouble();
+        double epsilon = buffer.getDouble();
+        PolicyNetwork policyNetwork = PolicyNetwork.readCheckpoint(buffer);
+        ValueNetwork valueNetwork = ValueNetwork.readCheckpoint(buffer);
+        if (buffer.position() != checksumPosition) {
+            throw new IOException("Checkpoint has " + (checksumPosition - buffer.position()) + " unexpected bytes after the networks");
+        }
+        return new PPOAgent(policyNetwork, valueNetwork, gamma, lambda, epsilon);
+    }
+    public PolicyNetwork getPolicyNetwork() {
+        return policyNetwork;
+    }
+
+    public ValueNetwork getValueNetwork() {
+        return valueNetwork;
+    }
+}
\ No newline at end of file
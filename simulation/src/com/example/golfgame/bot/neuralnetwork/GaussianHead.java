@@ -0,0 +1,48 @@
+package com.example.golfgame.bot.neuralnetwork;
+
+/**
+ * The Gaussian policy head of a {@link PolicyNetwork} evaluated at one action: the log-probability of the
+ * action, the entropy of the policy and their gradients with respect to the four policy outputs
+ * {@code (mu_theta, sigma_theta_raw, mu_force, sigma_force_raw)}. Filled by
+ * {@link PolicyNetwork#evaluateHead(double[], double[], GaussianHead)}; reuse one per thread to evaluate
+ * many samples without allocating.
+ */
+public final class GaussianHead {
+    private double logProbability;
+    private double entropy;
+    final double[] logProbabilityGradient = new double[4];
+    final double[] entropyGradient = new double[4];
+
+    void set(double logProbability, double entropy) {
+        this.logProbability = logProbability;
+        this.entropy = entropy;
+    }
+
+    public double getLogProbability() {
+        return logProbability;
+    }
+
+    public double getEntropy() {
+        return entropy;
+    }
+
+    /**
+     * Returns the gradient of the log-probability with respect to output {@code i} of the policy network.
+     *
+     * @param i the index of the output, 0 to 3
+     * @return d log p / d output[i]
+     */
+    public double getLogProbabilityGradient(int i) {
+        return logProbabilityGradient[i];
+    }
+
+    /**
+     * Returns the gradient of the entropy with respect to output {@code i} of the policy network.
+     *
+     * @param i the index of the output, 0 to 3
+     * @return d entropy / d output[i]
+     */
+    public double getEntropyGradient(int i) {
+        return entropyGradient[i];
+    }
+}
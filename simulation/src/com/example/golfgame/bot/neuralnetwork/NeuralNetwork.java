@@ -0,0 +1,1020 @@
+package com.example.golfgame.bot.neuralnetwork;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.example.golfgame.utils.FloatMatrixUtils;
+import com.example.golfgame.utils.MatrixUtils;
+import com.example.golfgame.utils.ppoUtils.BackPropResult;
+
+/**
+ * Abstract class representing a neural network for machine learning tasks.
+ * Provides methods for forward propagation, backpropagation, and parameter updates using Adam optimizer.
+ *
+ * <p>The weights of layer {@code l} form a {@code sizes[l + 1] x sizes[l]} matrix stored row by row in the flat
+ * array {@code weights[l]}, so the weight from neuron {@code k} of layer {@code l} to neuron {@code j} of the next
+ * layer is {@code weights[l][j * sizes[l] + k]}. Gradients use the same layout.</p>
+ *
+ * <p>A network of {@link Precision#FLOAT} keeps its parameters in {@code floatWeights} and {@code floatBiases}
+ * instead (same layout) and computes in single precision; {@link #setPrecision(Precision)} converts between
+ * the two, e.g. after loading a checkpoint saved in double precision.</p>
+ */
+public abstract class NeuralNetwork implements Serializable {
+    private static final long serialVersionUID = 1L; // Добавлено для Serializable
+    // Сериализованная форма осталась прежней (веса как double[][][]), чтобы старые файлы .ser загружались
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("numLayers", int.class),
+        new ObjectStreamField("sizes", int[].class),
+        new ObjectStreamField("weights", double[][][].class),
+        new ObjectStreamField("biases", double[][].class),
+        new ObjectStreamField("layerActivationTypes", ActivationType[].class),
+        new ObjectStreamField("precision", Precision.class) // Нет в старых файлах: тогда DOUBLE
+    };
+    protected int numLayers;
+    protected int[] sizes;
+    protected double[][] weights;       // null при Precision.FLOAT
+    protected double[][] biases;
+    protected float[][] floatWeights;   // Параметры при Precision.FLOAT, иначе null
+    protected float[][] floatBiases;
+    protected ActivationType[] layerActivationTypes;
+    protected Precision precision = Precision.DOUBLE;
+
+    // --- Поля для Adam Optimizer ---
+    // transient: Java-сериализация не сохраняет состояние Adam; его сохраняет бинарный checkpoint (writeCheckpoint)
+    private transient double[][] m_weights; // Первый момент для весов
+    private transient double[][] v_weights; // Второй момент для весов
+    private transient double[][] m_biases;    // Первый момент для смещений
+    private transient double[][] v_biases;    // Второй момент для смещений
+    private transient float[][] m_weightsFloat; // Те же моменты при Precision.FLOAT
+    private transient float[][] v_weightsFloat;
+    private transient float[][] m_biasesFloat;
+    private transient float[][] v_biasesFloat;
+    // Константы, а не transient-поля: при десериализации инициализаторы полей не выполняются, и они были бы 0
+    private static final double BETA1 = 0.9;     // Параметр Adam
+    private static final double BETA2 = 0.999;   // Параметр Adam
+    private static final double EPSILON_ADAM = 1e-8; // Параметр Adam для стабильности
+    private transient long t = 0;             // Счетчик шагов Adam (для коррекции смещения)
+    // --- Конец полей Adam ---
+
+    // Workspace для forward(double[], int), свой у каждого потока
+    private transient ThreadLocal<Workspace> threadWorkspaces = new ThreadLocal<>();
+
+    /**
+     * Constructs a neural network with specified layer sizes and activation functions.
+     * Also initializes the Adam optimizer state.
+     *
+     * @param sizes               An array specifying the number of neurons in each layer.
+     * @param layerActivationTypes An array specifying the activation function for each layer
+     *                            (starting from the first hidden layer). Its length must be
+     *                            sizes.length - 1. The last element corresponds to the output layer.
+     * @throws IllegalArgumentException if the lengths of sizes and layerActivationTypes don't match.
+     */
+    public NeuralNetwork(int[] sizes, ActivationType[] layerActivationTypes) {
+        this(sizes, layerActivationTypes, Precision.DOUBLE);
+    }
+
+    /**
+     * Constructs a neural network with specified layer sizes, activation functions and precision.
+     * The initial weights are drawn in double precision and rounded for {@link Precision#FLOAT}.
+     *
+     * @param sizes               An array specifying the number of neurons in each layer.
+     * @param layerActivationTypes An array specifying the activation function for each layer
+     *                            (starting from the first hidden layer).
+     * @param precision           The precision of the weights, Adam moments and activations.
+     * @throws IllegalArgumentException if the lengths of sizes and layerActivationTypes don't match.
+     */
+    public NeuralNetwork(int[] sizes, ActivationType[] layerActivationTypes, Precision precision) {
+        if (sizes.length - 1 != layerActivationTypes.length) {
+            throw new IllegalArgumentException("Number of activation types must be equal to number of layers minus 1.");
+        }
+        this.numLayers = sizes.length;
+        this.sizes = sizes;
+        this.layerActivationTypes = layerActivationTypes;
+        this.biases = new double[sizes.length - 1][];
+        this.weights = new double[sizes.length - 1][];
+        Random rand = new Random();
+
+        // Инициализируем состояние Adam сразу
+        initializeAdamState();
+
+        for (int i = 1; i < sizes.length; i++) {
+            int layerIdx = i - 1;
+            biases[layerIdx] = new double[sizes[i]];
+            double stdDev = calculateInitStdDev(sizes[i-1], sizes[i], layerActivationTypes[layerIdx]);
+            weights[layerIdx] = new double[sizes[i] * sizes[i - 1]];
+
+            for (int j = 0; j < sizes[i]; j++) {
+                biases[layerIdx][j] = 0.01 * rand.nextGaussian(); // Малое случайное значение
+                for (int k = 0; k < sizes[i - 1]; k++) {
+                    weights[layerIdx][j * sizes[i - 1] + k] = rand.nextGaussian() * stdDev;
+                }
+            }
+        }
+        setPrecision(precision);
+    }
+
+    // Метод для инициализации или сброса состояния Adam
+    private void initializeAdamState() {
+        allocateAdamState();
+         System.out.println("Adam optimizer state initialized.");
+    }
+
+    // Нулевые моменты Adam в точности сети
+    private void allocateAdamState() {
+        this.t = 0;
+        int layers = sizes.length - 1;
+        if (precision == Precision.FLOAT) {
+            this.m_weightsFloat = new float[layers][];
+            this.v_weightsFloat = new float[layers][];
+            this.m_biasesFloat = new float[layers][];
+            this.v_biasesFloat = new float[layers][];
+        } else {
+            this.m_weights = new double[layers][];
+            this.v_weights = new double[layers][];
+            this.m_biases = new double[layers][];
+            this.v_biases = new double[layers][];
+        }
+
+        for (int i = 1; i < sizes.length; i++) {
+            int layerIdx = i - 1;
+            // Новые массивы Java уже заполнены нулями
+            if (precision == Precision.FLOAT) {
+                m_weightsFloat[layerIdx] = new float[sizes[i] * sizes[i - 1]];
+                v_weightsFloat[layerIdx] = new float[sizes[i] * sizes[i - 1]];
+                m_biasesFloat[layerIdx] = new float[sizes[i]];
+                v_biasesFloat[layerIdx] = new float[sizes[i]];
+            } else {
+                m_weights[layerIdx] = new double[sizes[i] * sizes[i - 1]];
+                v_weights[layerIdx] = new double[sizes[i] * sizes[i - 1]];
+                m_biases[layerIdx] = new double[sizes[i]];
+                v_biases[layerIdx] = new double[sizes[i]];
+            }
+        }
+    }
+
+    /**
+     * Converts the weights, biases and Adam moments of this network to the given precision, keeping the Adam
+     * step counter. Converting to {@link Precision#FLOAT} rounds every value; converting back widens exactly.
+     * Use it to train a network loaded from a double-precision checkpoint in single precision.
+     *
+     * @param target the new precision
+     */
+    public void setPrecision(Precision target) {
+        if (target == precision) {
+            return;
+        }
+        if (target == Precision.FLOAT) {
+            floatWeights = toFloat(weights);
+            floatBiases = toFloat(biases);
+            m_weightsFloat = toFloat(m_weights);
+            v_weightsFloat = toFloat(v_weights);
+            m_biasesFloat = toFloat(m_biases);
+            v_biasesFloat = toFloat(v_biases);
+            weights = biases = m_weights = v_weights = m_biases = v_biases = null;
+        } else {
+            weights = toDouble(floatWeights);
+            biases = toDouble(floatBiases);
+            m_weights = toDouble(m_weightsFloat);
+            v_weights = toDouble(v_weightsFloat);
+            m_biases = toDouble(m_biasesFloat);
+            v_biases = toDouble(v_biasesFloat);
+            floatWeights = floatBiases = m_weightsFloat = v_weightsFloat = m_biasesFloat = v_biasesFloat = null;
+        }
+        precision = target;
+        threadWorkspaces = new ThreadLocal<>(); // Старые workspace другой точности
+    }
+
+    /**
+     * Returns the precision this network stores and computes in.
+     *
+     * @return the precision of the network
+     */
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Returns the number of neurons in each layer.
+     *
+     * @return a copy of the layer sizes
+     */
+    public int[] getSizes() {
+        return sizes.clone();
+    }
+
+    /**
+     * Returns the activation function of each layer after the input layer.
+     *
+     * @return a copy of the activation types
+     */
+    public ActivationType[] getLayerActivationTypes() {
+        return layerActivationTypes.clone();
+    }
+
+    /**
+     * Overwrites the weights and biases of this network with those of another network of the same shape and
+     * precision, e.g. to refresh a policy snapshot used by another thread. The Adam state is left alone.
+     *
+     * @param source the network to copy from; must not be updated during the call
+     * @throws IllegalArgumentException if the networks differ in layer sizes or precision
+     */
+    public void copyParametersFrom(NeuralNetwork source) {
+        if (!Arrays.equals(sizes, source.sizes) || precision != source.precision) {
+            throw new IllegalArgumentException("Cannot copy parameters of a " + Arrays.toString(source.sizes) + " " + source.precision
+                                               + " network into a " + Arrays.toString(sizes) + " " + precision + " network.");
+        }
+        for (int layer = 0; layer < numLayers - 1; layer++) {
+            if (precision == Precision.FLOAT) {
+                System.arraycopy(source.floatWeights[layer], 0, floatWeights[layer], 0, floatWeights[layer].length);
+                System.arraycopy(source.floatBiases[layer], 0, floatBiases[layer], 0, floatBiases[layer].length);
+            } else {
+                System.arraycopy(source.weights[layer], 0, weights[layer], 0, weights[layer].length);
+                System.arraycopy(source.biases[layer], 0, biases[layer], 0, biases[layer].length);
+            }
+        }
+    }
+
+    private static float[][] toFloat(double[][] arrays) {
+        if (arrays == null) return null;
+        float[][] result = new float[arrays.length][];
+        for (int i = 0; i < arrays.length; i++) {
+            result[i] = FloatMatrixUtils.toFloat(arrays[i]);
+        }
+        return result;
+    }
+
+    private static double[][] toDouble(float[][] arrays) {
+        if (arrays == null) return null;
+        double[][] result = new double[arrays.length][];
+        for (int i = 0; i < arrays.length; i++) {
+            result[i] = FloatMatrixUtils.toDouble(arrays[i]);
+        }
+        return result;
+    }
+
+
+    // Вспомогательный метод для инициализации весов (He/Xavier initialization)
+    private double calculateInitStdDev(int fanIn, int fanOut, ActivationType activation) {
+        switch (activation) {
+            case RELU:
+                return Math.sqrt(2.0 / fanIn); // He initialization
+            case TANH:
+            case SIGMOID: // Xavier/Glorot initialization
+                return Math.sqrt(1.0 / fanIn); // Упрощенный Xavier/Glorot
+            case LINEAR:
+            default: // Для линейного или неизвестного - используем базовый Glorot/Xavier
+                 return Math.sqrt(1.0 / fanIn);
+        }
+    }
+
+    // Применение функции активации: result = f(z) для первых length элементов
+    private static void applyActivation(double[] z, ActivationType type, double[] result, int length) {
+        for (int i = 0; i < length; i++) {
+            switch (type) {
+                case SIGMOID: result[i] = MatrixUtils.sigmoid(z[i]); break;
+                case RELU:    result[i] = MatrixUtils.relu(z[i]); break;
+                case TANH:    result[i] = MatrixUtils.tanh(z[i]); break;
+                case LINEAR:  default: result[i] = z[i]; break;
+            }
+        }
+    }
+
+    // Умножение на производную функции активации на месте: delta .*= f'(z)
+    private static void multiplyByActivationPrime(double[] delta, double[] z, ActivationType type, int length) {
+        for (int i = 0; i < length; i++) {
+            switch (type) {
+                case SIGMOID: delta[i] *= MatrixUtils.sigmoidPrime(z[i]); break;
+                case RELU:    delta[i] *= MatrixUtils.reluPrime(z[i]); break;
+                case TANH:    delta[i] *= MatrixUtils.tanhPrime(z[i]); break;
+                case LINEAR:  default: break;
+            }
+        }
+    }
+
+    // Прямой проход: activations[0] уже содержит входы; заполняет zs[l] = W * A + b и activations[l + 1] = f(zs[l])
+    private void propagate(double[][] activations, double[][] zs, int batchSize) {
+        for (int layer = 0; layer < numLayers - 1; layer++) {
+            int rows = sizes[layer + 1];
+            int length = rows * batchSize;
+            double[] z = zs[layer];
+            if (batchSize == 1) {
+                MatrixUtils.gemv(weights[layer], rows, sizes[layer], activations[layer], z);
+            } else {
+                MatrixUtils.gemm(weights[layer], rows, sizes[layer], activations[layer], batchSize, z);
+            }
+            double[] bias = biases[layer];
+            for (int j = 0; j < rows; j++) {
+                double b = bias[j];
+                int offset = j * batchSize;
+                for (int s = 0; s < batchSize; s++) {
+                    z[offset + s] += b;
+                }
+            }
+            if (containsNaN(z, length)) throw new IllegalStateException("NaN in z layer " + (layer + 1));
+            applyActivation(z, layerActivationTypes[layer], activations[layer + 1], length);
+            if (containsNaN(activations[layer + 1], length)) {
+                throw new IllegalStateException("NaN after activation layer " + (layer + 1) + " type " + layerActivationTypes[layer]);
+            }
+        }
+    }
+
+    // Обратный проход по результатам propagate; delta чередуется между двумя буферами deltaBuffers
+    private BackPropResult backpropagate(double[][] activations, double[][] zs, double[] outputDeltas, int batchSize,
+                                         double[][] deltaBuffers, BackPropResult gradients) {
+        double[][] nabla_b = gradients.getNablaB();
+        double[][] nabla_w = gradients.getNablaW();
+        double[] delta = outputDeltas;
+
+        for (int layer = numLayers - 2; layer >= 0; layer--) {
+            int rows = sizes[layer + 1];
+            int cols = sizes[layer];
+            // dL/dW = delta * A^T, dL/db = сумма delta по примерам
+            MatrixUtils.gemmTransposeSecond(delta, rows, batchSize, activations[layer], cols, nabla_w[layer]);
+            for (int j = 0; j < rows; j++) {
+                double sum = 0;
+                for (int s = 0; s < batchSize; s++) {
+                    sum += delta[j * batchSize + s];
+                }
+                nabla_b[layer][j] = sum;
+            }
+            if (layer == 0) {
+                break;
+            }
+            // delta предыдущего слоя = (W^T * delta) .* f'(z), без явного транспонирования W
+            double[] next = delta == deltaBuffers[0] ? deltaBuffers[1] : deltaBuffers[0];
+            MatrixUtils.gemmTransposeFirst(weights[layer], rows, cols, delta, batchSize, next);
+            multiplyByActivationPrime(next, zs[layer - 1], layerActivationTypes[layer - 1], cols * batchSize);
+            delta = next;
+        }
+        return gradients;
+    }
+
+    // --- Те же проходы в одинарной точности (Precision.FLOAT) по floatWeights и floatBiases ---
+    private static void applyActivation(float[] z, ActivationType type, float[] result, int length) {
+        for (int i = 0; i < length; i++) {
+            switch (type) {
+                case SIGMOID: result[i] = (float) MatrixUtils.sigmoid(z[i]); break;
+                case RELU:    result[i] = (float) MatrixUtils.relu(z[i]); break;
+                case TANH:    result[i] = (float) MatrixUtils.tanh(z[i]); break;
+                case LINEAR:  default: result[i] = z[i]; break;
+            }
+        }
+    }
+
+    private static void multiplyByActivationPrime(float[] delta, float[] z, ActivationType type, int length) {
+        for (int i = 0; i < length; i++) {
+            switch (type) {
+                case SIGMOID: delta[i] *= (float) MatrixUtils.sigmoidPrime(z[i]); break;
+                case RELU:    delta[i] *= (float) MatrixUtils.reluPrime(z[i]); break;
+                case TANH:    delta[i] *= (float) MatrixUtils.tanhPrime(z[i]); break;
+                case LINEAR:  default: break;
+            }
+        }
+    }
+
+    private void propagateFloat(float[][] activations, float[][] zs, int batchSize) {
+        for (int layer = 0; layer < numLayers - 1; layer++) {
+            int rows = sizes[layer + 1];
+            int length = rows * batchSize;
+            float[] z = zs[layer];
+            if (batchSize == 1) {
+                FloatMatrixUtils.gemv(floatWeights[layer], rows, sizes[layer], activations[layer], z);
+            } else {
+                FloatMatrixUtils.gemm(floatWeights[layer], rows, sizes[layer], activations[layer], batchSize, z);
+            }
+            float[] bias = floatBiases[layer];
+            for (int j = 0; j < rows; j++) {
+                float b = bias[j];
+                int offset = j * batchSize;
+                for (int s = 0; s < batchSize; s++) {
+                    z[offset + s] += b;
+                }
+            }
+            if (containsNaN(z, length)) throw new IllegalStateException("NaN in z layer " + (layer + 1));
+            applyActivation(z, layerActivationTypes[layer], activations[layer + 1], length);
+            if (containsNaN(activations[layer + 1], length)) {
+                throw new IllegalStateException("NaN after activation layer " + (layer + 1) + " type " + layerActivationTypes[layer]);
+            }
+        }
+    }
+
+    // outputDeltas должен лежать в одном из deltaBuffers; градиенты пишутся в nabla_w и nabla_b
+    private void backpropagateFloat(float[][] activations, float[][] zs, float[] outputDeltas, int batchSize,
+                                   float[][] deltaBuffers, float[][] nabla_w, float[][] nabla_b) {
+        float[] delta = outputDeltas;
+
+        for (int layer = numLayers - 2; layer >= 0; layer--) {
+            int rows = sizes[layer + 1];
+            int cols = sizes[layer];
+            // dL/dW = delta * A^T, dL/db = сумма delta по примерам
+            FloatMatrixUtils.gemmTransposeSecond(delta, rows, batchSize, activations[layer], cols, nabla_w[layer]);
+            for (int j = 0; j < rows; j++) {
+                float sum = 0;
+                for (int s = 0; s < batchSize; s++) {
+                    sum += delta[j * batchSize + s];
+                }
+                nabla_b[layer][j] = sum;
+            }
+            if (layer == 0) {
+                break;
+            }
+            // delta предыдущего слоя = (W^T * delta) .* f'(z), без явного транспонирования W
+            float[] next = delta == deltaBuffers[0] ? deltaBuffers[1] : deltaBuffers[0];
+            FloatMatrixUtils.gemmTransposeFirst(floatWeights[layer], rows, cols, delta, batchSize, next);
+            multiplyByActivationPrime(next, zs[layer - 1], layerActivationTypes[layer - 1], cols * batchSize);
+            delta = next;
+        }
+    }
+
+    /**
+     * Updates the parameters of the neural network using the Adam optimizer.
+     *
+     * @param nabla_w       the gradients for the weights (dL/dW) accumulated over the mini-batch, one flat
+     *                      row-major array per layer.
+     * @param nabla_b       the gradients for the biases (dL/db) accumulated over the mini-batch.
+     * @param eta           the learning rate (alpha in Adam).
+     * @param miniBatchSize the size of the mini-batch (used for averaging gradients).
+     */
+    public void updateParameters(double[][] nabla_w, double[][] nabla_b, double eta, int miniBatchSize) {
+        if (miniBatchSize <= 0) {
+             System.err.println("Warning: miniBatchSize is zero or negative in updateParameters. Skipping update.");
+             return;
+        }
+        // Проверяем, инициализировано ли состояние Adam (важно после десериализации)
+        if (m_weights == null && m_weightsFloat == null) {
+            initializeAdamState();
+        }
+
+        t++; // Увеличиваем счетчик шагов Adam
+
+        // Коррекция смещения для моментов (bias correction terms)
+        double biasCorrection1 = 1.0 - Math.pow(BETA1, t);
+        double biasCorrection2 = 1.0 - Math.pow(BETA2, t);
+
+        if (precision == Precision.FLOAT) {
+            for (int j = 0; j < floatWeights.length; j++) {
+                updateFloat(floatWeights[j], m_weightsFloat[j], v_weightsFloat[j], nabla_w[j], eta, miniBatchSize, biasCorrection1, biasCorrection2);
+                updateFloat(floatBiases[j], m_biasesFloat[j], v_biasesFloat[j], nabla_b[j], eta, miniBatchSize, biasCorrection1, biasCorrection2);
+            }
+            return;
+        }
+
+        for (int j = 0; j < weights.length; j++) { // Индекс слоя (0 = первый скрытый)
+            double[] w = weights[j];
+            double[] mw = m_weights[j];
+            double[] vw = v_weights[j];
+            double[] gw = nabla_w[j];
+            for (int n = 0; n < w.length; n++) { // Индекс веса в плоской матрице слоя
+                // Вычисляем средний градиент по мини-батчу
+                double grad_w = gw[n] / miniBatchSize;
+
+                // Обновляем моменты для веса
+                mw[n] = BETA1 * mw[n] + (1.0 - BETA1) * grad_w;
+                vw[n] = BETA2 * vw[n] + (1.0 - BETA2) * (grad_w * grad_w);
+
+                // Коррекция смещения моментов
+                double m_hat_w = mw[n] / biasCorrection1;
+                double v_hat_w = vw[n] / biasCorrection2;
+
+                // Обновление веса по формуле Adam
+                w[n] -= eta * m_hat_w / (Math.sqrt(v_hat_w) + EPSILON_ADAM);
+            }
+        }
+
+        for (int j = 0; j < biases.length; j++) { // Индекс слоя (0 = первый скрытый)
+            for (int m = 0; m < biases[j].length; m++) { // Индекс нейрона (смещения) в слое j+1
+                 // Вычисляем средний градиент по мини-батчу
+                double grad_b = nabla_b[j][m] / miniBatchSize;
+
+                 // Обновляем моменты для смещения b[j][m]
+                m_biases[j][m] = BETA1 * m_biases[j][m] + (1.0 - BETA1) * grad_b;
+                v_biases[j][m] = BETA2 * v_biases[j][m] + (1.0 - BETA2) * (grad_b * grad_b);
+
+                 // Коррекция смещения моментов
+                double m_hat_b = m_biases[j][m] / biasCorrection1;
+                double v_hat_b = v_biases[j][m] / biasCorrection2;
+
+                 // Обновление смещения по формуле Adam
+                this.biases[j][m] -= eta * m_hat_b / (Math.sqrt(v_hat_b) + EPSILON_ADAM);
+            }
+        }
+    }
+
+    // Шаг Adam для одного массива параметров в одинарной точности (арифметика в double, хранение во float)
+    private void updateFloat(float[] params, float[] m, float[] v, double[] gradients, double eta, int miniBatchSize,
+                             double biasCorrection1, double biasCorrection2) {
+        for (int n = 0; n < params.length; n++) {
+            double grad = gradients[n] / miniBatchSize;
+            double mn = BETA1 * m[n] + (1.0 - BETA1) * grad;
+            double vn = BETA2 * v[n] + (1.0 - BETA2) * (grad * grad);
+            m[n] = (float) mn;
+            v[n] = (float) vn;
+            params[n] -= (float) (eta * (mn / biasCorrection1) / (Math.sqrt(vn / biasCorrection2) + EPSILON_ADAM));
+        }
+    }
+
+    // Прямое распространение с сохранением промежуточных значений z
+    public Pair<List<double[]>, List<double[]>> forwardWithZs(double[] input) {
+        return forwardWithZs(input, 1);
+    }
+
+    /**
+     * Runs a forward pass over a whole batch, keeping the weighted inputs and activations of every layer
+     * for {@link #backprop(Pair, double[], int)}. Training loops should prefer {@link #forward(Workspace, int)},
+     * which reuses its buffers.
+     *
+     * <p>A batch is a {@code layerSize x batchSize} matrix stored row by row, so column {@code s} holds the
+     * values for sample {@code s}: element {@code (j, s)} is at index {@code j * batchSize + s}.</p>
+     *
+     * @param inputs    the inputs, {@code sizes[0] x batchSize}
+     * @param batchSize the number of samples
+     * @return the activations of every layer (starting with the inputs) and the weighted inputs z of every
+     *         layer after the first, as batch matrices
+     * @throws IllegalArgumentException if the inputs do not hold {@code batchSize} samples
+     */
+    public Pair<List<double[]>, List<double[]>> forwardWithZs(double[] inputs, int batchSize) {
+        checkBatch(inputs, sizes[0], batchSize);
+        Workspace workspace = createWorkspace(batchSize);
+        System.arraycopy(inputs, 0, workspace.getInputs(), 0, inputs.length);
+        forward(workspace, batchSize);
+        if (precision == Precision.FLOAT) {
+            List<double[]> activations = new ArrayList<>();
+            List<double[]> zs = new ArrayList<>();
+            for (float[] activation : workspace.floatActivations) {
+                activations.add(FloatMatrixUtils.toDouble(activation));
+            }
+            for (float[] z : workspace.floatZs) {
+                zs.add(FloatMatrixUtils.toDouble(z));
+            }
+            return new Pair<>(activations, zs);
+        }
+        return new Pair<>(new ArrayList<>(Arrays.asList(workspace.activations)), new ArrayList<>(Arrays.asList(workspace.zs)));
+    }
+
+    // Класс Pair для возврата двух значений
+    public static class Pair<T, U> implements Serializable {
+        private static final long serialVersionUID = 1L;
+        public final T _1;
+        public final U _2;
+        public Pair(T t, U u) { this._1 = t; this._2 = u; }
+     }
+
+    // Обратное распространение ошибки для одного примера
+    public BackPropResult backprop(double[] input, double[] initial_delta) {
+        return backprop(forwardWithZs(input), initial_delta, 1);
+    }
+
+    /**
+     * Backpropagates the error of a whole batch through the result of an earlier forward pass, without
+     * repeating that pass.
+     *
+     * @param forwardResult the activations and weighted inputs from {@link #forwardWithZs(double[], int)}
+     * @param outputDeltas  dL/dz of the output layer, {@code sizes[numLayers - 1] x batchSize}
+     * @param batchSize     the number of samples
+     * @return the gradients summed over the batch
+     * @throws IllegalArgumentException if the deltas do not hold {@code batchSize} samples
+     */
+    public BackPropResult backprop(Pair<List<double[]>, List<double[]>> forwardResult, double[] outputDeltas, int batchSize) {
+        return backprop(forwardResult, outputDeltas, batchSize, createGradients());
+    }
+
+    /**
+     * Backpropagates the error of a whole batch like {@link #backprop(Pair, double[], int)}, but writes the
+     * gradients into existing arrays, so a caller can keep one set of gradient buffers per thread.
+     *
+     * @param forwardResult the activations and weighted inputs from {@link #forwardWithZs(double[], int)}
+     * @param outputDeltas  dL/dz of the output layer, {@code sizes[numLayers - 1] x batchSize}
+     * @param batchSize     the number of samples
+     * @param gradients     gradients shaped like this network, e.g. from {@link #createGradients()}; overwritten
+     * @return {@code gradients}, holding the gradients summed over the batch
+     * @throws IllegalArgumentException if the deltas do not hold {@code batchSize} samples
+     */
+    public BackPropResult backprop(Pair<List<double[]>, List<double[]>> forwardResult, double[] outputDeltas, int batchSize,
+                                   BackPropResult gradients) {
+        checkBatch(outputDeltas, sizes[numLayers - 1], batchSize);
+        if (precision == Precision.FLOAT) {
+            // Округляем сохраненный проход обратно во float и считаем как в workspace
+            Workspace workspace = createWorkspace(batchSize);
+            for (int layer = 0; layer < numLayers; layer++) {
+                double[] activation = forwardResult._1.get(layer);
+                FloatMatrixUtils.toFloat(activation, workspace.floatActivations[layer], activation.length);
+                if (layer > 0) {
+                    double[] z = forwardResult._2.get(layer - 1);
+                    FloatMatrixUtils.toFloat(z, workspace.floatZs[layer - 1], z.length);
+                }
+            }
+            return backpropagateFloat(workspace, outputDeltas, batchSize, gradients);
+        }
+        int width = 0;
+        for (int size : sizes) {
+            width = Math.max(width, size);
+        }
+        double[][] deltaBuffers = {new double[width * batchSize], new double[width * batchSize]};
+        return backpropagate(forwardResult._1.toArray(new double[0][]), forwardResult._2.toArray(new double[0][]),
+                             outputDeltas, batchSize, deltaBuffers, gradients);
+    }
+
+    /**
+     * Creates a workspace for passes over batches of up to {@code maxBatchSize} samples through this network.
+     *
+     * @param maxBatchSize the largest batch the workspace has to hold
+     * @return a new workspace
+     * @throws IllegalArgumentException if maxBatchSize is not positive
+     */
+    public Workspace createWorkspace(int maxBatchSize) {
+        return new Workspace(sizes, maxBatchSize, precision);
+    }
+
+    /**
+     * Runs a forward pass over the batch in {@link Workspace#getInputs()}, keeping every intermediate value in
+     * the workspace for {@link #backprop(Workspace, double[], int)}. Allocates nothing.
+     *
+     * @param workspace a workspace of this network holding the inputs
+     * @param batchSize the number of samples
+     * @return the output buffer of the workspace, {@code sizes[numLayers - 1] x batchSize}; overwritten by the
+     *         next pass
+     * @throws IllegalArgumentException if the workspace does not belong to a network of this shape or is too small
+     */
+    public double[] forward(Workspace workspace, int batchSize) {
+        checkWorkspace(workspace, batchSize);
+        if (precision == Precision.FLOAT) {
+            float[][] activations = workspace.floatActivations;
+            FloatMatrixUtils.toFloat(workspace.getInputs(), activations[0], sizes[0] * batchSize);
+            propagateFloat(activations, workspace.floatZs, batchSize);
+            FloatMatrixUtils.toDouble(activations[numLayers - 1], workspace.getOutputs(), sizes[numLayers - 1] * batchSize);
+            return workspace.getOutputs();
+        }
+        propagate(workspace.activations, workspace.zs, batchSize);
+        return workspace.getOutputs();
+    }
+
+    /**
+     * Backpropagates the error of the batch of the last {@link #forward(Workspace, int)} through the same
+     * workspace into {@link Workspace#getGradients()}. Multiplies by the transposed weights in place and
+     * allocates nothing after the first call.
+     *
+     * @param workspace    the workspace of the forward pass
+     * @param outputDeltas dL/dz of the output layer, {@code sizes[numLayers - 1] x batchSize}
+     * @param batchSize    the number of samples
+     * @return the gradients of the workspace, summed over the batch
+     * @throws IllegalArgumentException if the workspace does not fit or the deltas are too short
+     */
+    public BackPropResult backprop(Workspace workspace, double[] outputDeltas, int batchSize) {
+        checkWorkspace(workspace, batchSize);
+        if (outputDeltas.length < sizes[numLayers - 1] * batchSize) {
+            throw new IllegalArgumentException("Expected a " + sizes[numLayers - 1] + " x " + batchSize + " batch of deltas but got " + outputDeltas.length + " values.");
+        }
+        if (precision == Precision.FLOAT) {
+            return backpropagateFloat(workspace, outputDeltas, batchSize, workspace.getGradients());
+        }
+        return backpropagate(workspace.activations, workspace.zs, outputDeltas, batchSize, workspace.deltaBuffers(), workspace.getGradients());
+    }
+
+    // Обратный проход во float по буферам workspace; градиенты переводятся в double для оптимизатора
+    private BackPropResult backpropagateFloat(Workspace workspace, double[] outputDeltas, int batchSize, BackPropResult gradients) {
+        float[][] deltaBuffers = workspace.floatDeltaBuffers();
+        FloatMatrixUtils.toFloat(outputDeltas, deltaBuffers[0], sizes[numLayers - 1] * batchSize);
+        workspace.ensureFloatGradients();
+        backpropagateFloat(workspace.floatActivations, workspace.floatZs, deltaBuffers[0], batchSize, deltaBuffers,
+                           workspace.floatNablaW, workspace.floatNablaB);
+        for (int layer = 0; layer < numLayers - 1; layer++) {
+            FloatMatrixUtils.toDouble(workspace.floatNablaW[layer], gradients.getNablaW()[layer], workspace.floatNablaW[layer].length);
+            FloatMatrixUtils.toDouble(workspace.floatNablaB[layer], gradients.getNablaB()[layer], workspace.floatNablaB[layer].length);
+        }
+        return gradients;
+    }
+
+    /**
+     * Creates zeroed gradient arrays with the shape of the weights and biases of this network.
+     *
+     * @return zero gradients for this network
+     */
+    public BackPropResult createGradients() {
+        double[][] nabla_w = new double[numLayers - 1][];
+        double[][] nabla_b = new double[numLayers - 1][];
+        for (int i = 0; i < numLayers - 1; i++) {
+            nabla_w[i] = new double[sizes[i + 1] * sizes[i]];
+            nabla_b[i] = new double[sizes[i + 1]];
+        }
+        return new BackPropResult(nabla_w, nabla_b);
+    }
+
+    // Геттеры для весов и смещений (веса слоя - плоская матрица по строкам); при FLOAT - копии в double
+    public double[][] getWeights() {
+        return precision == Precision.FLOAT ? toDouble(floatWeights) : weights;
+    }
+    public double[][] getBiases() {
+        return precision == Precision.FLOAT ? toDouble(floatBiases) : biases;
+    }
+
+    // Старый метод forward (не используется в обучении PPO, но может быть нужен где-то еще)
+    public double[] forward(double[] input) {
+        return forward(input, 1);
+    }
+
+    /**
+     * Runs a forward pass over a whole batch. Intermediate values go to a workspace kept per calling thread,
+     * so only the returned outputs are allocated.
+     *
+     * @param inputs    the inputs, {@code sizes[0] x batchSize}, laid out as in {@link #forwardWithZs(double[], int)}
+     * @param batchSize the number of samples
+     * @return the outputs, {@code sizes[numLayers - 1] x batchSize}
+     * @throws IllegalArgumentException if the inputs do not hold {@code batchSize} samples
+     */
+    public double[] forward(double[] inputs, int batchSize) {
+        checkBatch(inputs, sizes[0], batchSize);
+        Workspace workspace = threadWorkspaces.get();
+        if (workspace == null || !workspace.fits(sizes, precision, batchSize)) {
+            workspace = createWorkspace(batchSize);
+            threadWorkspaces.set(workspace);
+        }
+        System.arraycopy(inputs, 0, workspace.getInputs(), 0, inputs.length);
+        double[] outputs = forward(workspace, batchSize);
+        return Arrays.copyOf(outputs, sizes[numLayers - 1] * batchSize);
+    }
+
+
+    private void checkBatch(double[] matrix, int rows, int batchSize) {
+        if (batchSize <= 0 || matrix.length != rows * batchSize) {
+            throw new IllegalArgumentException("Expected a " + rows + " x " + batchSize + " batch but got " + matrix.length + " values.");
+        }
+    }
+
+    private void checkWorkspace(Workspace workspace, int batchSize) {
+        if (!workspace.fits(sizes, precision, batchSize)) {
+            throw new IllegalArgumentException("Workspace of capacity " + workspace.getCapacity() + " (" + workspace.getPrecision() + ") does not fit a batch of " + batchSize + " for layer sizes " + Arrays.toString(sizes) + " (" + precision + ")");
+        }
+    }
+
+    // Проверка на NaN в первых length элементах
+    private static boolean containsNaN(double[] vector, int length) {
+        for (int i = 0; i < length; i++) {
+            double value = vector[i];
+            if (Double.isNaN(value) || Double.isInfinite(value)) { // Проверяем и на Infinity
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsNaN(float[] vector, int length) {
+        for (int i = 0; i < length; i++) {
+            float value = vector[i];
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeCheckpoint(ByteBuffer, boolean)} writes.
+     *
+     * @param includeOptimizerState whether the Adam moments and step counter are included
+     * @return the size of the checkpoint block of this network
+     */
+    public int checkpointSize(boolean includeOptimizerState) {
+        int elementSize = precision == Precision.FLOAT ? Float.BYTES : Double.BYTES;
+        int parameters = 0;
+        for (int i = 1; i < sizes.length; i++) {
+            parameters += sizes[i] * sizes[i - 1] + sizes[i];
+        }
+        int size = Integer.BYTES * (3 + sizes.length + layerActivationTypes.length) + parameters * elementSize;
+        if (includeOptimizerState) {
+            size += Long.BYTES + 2 * parameters * elementSize; // Шаг Adam и два момента на параметр
+        }
+        return size;
+    }
+
+    /**
+     * Writes this network as a binary checkpoint block at the position of a little-endian buffer: a header
+     * (precision, layer sizes, activations, whether the optimizer state follows), the weights and biases of
+     * each layer as raw values in the precision of the network, and optionally the Adam step counter and
+     * moments. Read it back with {@link PolicyNetwork#readCheckpoint} or {@link ValueNetwork#readCheckpoint}.
+     *
+     * @param buffer the buffer to write to, with at least {@link #checkpointSize(boolean)} bytes remaining
+     * @param includeOptimizerState whether to include the Adam moments and step counter, so training can resume exactly
+     */
+    public void writeCheckpoint(ByteBuffer buffer, boolean includeOptimizerState) {
+        buffer.putInt(precision.ordinal());
+        buffer.putInt(numLayers);
+        for (int size : sizes) {
+            buffer.putInt(size);
+        }
+        for (ActivationType type : layerActivationTypes) {
+            buffer.putInt(type.ordinal());
+        }
+        buffer.putInt(includeOptimizerState ? 1 : 0);
+        if (precision == Precision.FLOAT) {
+            putLayers(buffer, floatWeights, floatBiases);
+        } else {
+            putLayers(buffer, weights, biases);
+        }
+        if (includeOptimizerState) {
+            buffer.putLong(t);
+            if (precision == Precision.FLOAT) {
+                putLayers(buffer, m_weightsFloat, m_biasesFloat);
+                putLayers(buffer, v_weightsFloat, v_biasesFloat);
+            } else {
+                putLayers(buffer, m_weights, m_biases);
+                putLayers(buffer, v_weights, v_biases);
+            }
+        }
+    }
+
+    /**
+     * Reads a network from a checkpoint block written by {@link #writeCheckpoint(ByteBuffer, boolean)},
+     * starting at the position of a little-endian buffer and leaving the position after the block. If the
+     * block has no optimizer state, the Adam state starts from zero.
+     *
+     * @param checkpoint the buffer to read from
+     * @throws IOException if the header is malformed
+     */
+    protected NeuralNetwork(ByteBuffer checkpoint) throws IOException {
+        this.precision = readEnum(checkpoint, Precision.values(), "precision");
+        this.numLayers = checkpoint.getInt();
+        if (numLayers < 2 || numLayers > checkpoint.remaining() / Integer.BYTES) {
+            throw new IOException("Invalid number of layers in checkpoint: " + numLayers);
+        }
+        this.sizes = new int[numLayers];
+        for (int i = 0; i < numLayers; i++) {
+            sizes[i] = checkpoint.getInt();
+            if (sizes[i] <= 0) {
+                throw new IOException("Invalid layer size in checkpoint: " + sizes[i]);
+            }
+        }
+        this.layerActivationTypes = new ActivationType[numLayers - 1];
+        for (int i = 0; i < layerActivationTypes.length; i++) {
+            layerActivationTypes[i] = readEnum(checkpoint, ActivationType.values(), "activation");
+        }
+        boolean hasOptimizerState = checkpoint.getInt() != 0;
+        if (precision == Precision.FLOAT) {
+            floatWeights = new float[numLayers - 1][];
+            floatBiases = new float[numLayers - 1][];
+            getLayers(checkpoint, floatWeights, floatBiases);
+        } else {
+            weights = new double[numLayers - 1][];
+            biases = new double[numLayers - 1][];
+            getLayers(checkpoint, weights, biases);
+        }
+        allocateAdamState();
+        if (hasOptimizerState) {
+            long step = checkpoint.getLong();
+            if (precision == Precision.FLOAT) {
+                getLayers(checkpoint, m_weightsFloat, m_biasesFloat);
+                getLayers(checkpoint, v_weightsFloat, v_biasesFloat);
+            } else {
+                getLayers(checkpoint, m_weights, m_biases);
+                getLayers(checkpoint, v_weights, v_biases);
+            }
+            t = step;
+        }
+    }
+
+    private static <E extends Enum<E>> E readEnum(ByteBuffer buffer, E[] values, String name) throws IOException {
+        int ordinal = buffer.getInt();
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IOException("Invalid " + name + " in checkpoint: " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    // Блоки слоев: для каждого слоя матрица весов (по строкам), затем смещения
+    private static void putLayers(ByteBuffer buffer, double[][] weights, double[][] biases) {
+        for (int layer = 0; layer < weights.length; layer++) {
+            putArray(buffer, weights[layer]);
+            putArray(buffer, biases[layer]);
+        }
+    }
+
+    private static void putLayers(ByteBuffer buffer, float[][] weights, float[][] biases) {
+        for (int layer = 0; layer < weights.length; layer++) {
+            putArray(buffer, weights[layer]);
+            putArray(buffer, biases[layer]);
+        }
+    }
+
+    // Массивы, уже созданные нужного размера, заполняются; null - создаются по sizes
+    private void getLayers(ByteBuffer buffer, double[][] weights, double[][] biases) {
+        for (int layer = 0; layer < weights.length; layer++) {
+            if (weights[layer] == null) {
+                weights[layer] = new double[sizes[layer + 1] * sizes[layer]];
+                biases[layer] = new double[sizes[layer + 1]];
+            }
+            getArray(buffer, weights[layer]);
+            getArray(buffer, biases[layer]);
+        }
+    }
+
+    private void getLayers(ByteBuffer buffer, float[][] weights, float[][] biases) {
+        for (int layer = 0; layer < weights.length; layer++) {
+            if (weights[layer] == null) {
+                weights[layer] = new float[sizes[layer + 1] * sizes[layer]];
+                biases[layer] = new float[sizes[layer + 1]];
+            }
+            getArray(buffer, weights[layer]);
+            getArray(buffer, biases[layer]);
+        }
+    }
+
+    // Массовое копирование через представление буфера (порядок байтов берется из буфера)
+    private static void putArray(ByteBuffer buffer, double[] values) {
+        buffer.asDoubleBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Double.BYTES);
+    }
+
+    private static void putArray(ByteBuffer buffer, float[] values) {
+        buffer.asFloatBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Float.BYTES);
+    }
+
+    private static void getArray(ByteBuffer buffer, double[] values) {
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Double.BYTES);
+    }
+
+    private static void getArray(ByteBuffer buffer, float[] values) {
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Float.BYTES);
+    }
+
+    // Сохранение сети
+    public void saveNetwork(String filePath) throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filePath))) {
+            oos.writeObject(this); // Сохраняем объект NeuralNetwork целиком
+        }
+    }
+
+    // Загрузка сети
+    public static NeuralNetwork loadNetwork(String filePath) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filePath))) {
+            NeuralNetwork loadedNetwork = (NeuralNetwork) ois.readObject();
+            // Явно инициализируем состояние Adam после загрузки, если оно transient
+            if (loadedNetwork.m_weights == null && loadedNetwork.m_weightsFloat == null) {
+                loadedNetwork.initializeAdamState();
+            }
+            return loadedNetwork;
+        }
+    }
+
+    // --- Переопределение readObject для инициализации Adam при десериализации ---
+    // Этот метод вызывается АВТОМАТИЧЕСКИ при десериализации
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        // Читаем основные не-transient поля (weights, biases, sizes, etc.)
+        ObjectInputStream.GetField fields = ois.readFields();
+        numLayers = fields.get("numLayers", 0);
+        sizes = (int[]) fields.get("sizes", null);
+        biases = (double[][]) fields.get("biases", null);
+        layerActivationTypes = (ActivationType[]) fields.get("layerActivationTypes", null);
+        double[][][] nestedWeights = (double[][][]) fields.get("weights", null);
+        weights = new double[nestedWeights.length][];
+        for (int layer = 0; layer < nestedWeights.length; layer++) {
+            int cols = sizes[layer];
+            weights[layer] = new double[nestedWeights[layer].length * cols];
+            for (int row = 0; row < nestedWeights[layer].length; row++) {
+                System.arraycopy(nestedWeights[layer][row], 0, weights[layer], row * cols, cols);
+            }
+        }
+
+        threadWorkspaces = new ThreadLocal<>();
+
+        // Так как поля Adam объявлены transient, они НЕ будут прочитаны из файла.
+        // Поэтому мы должны их инициализировать заново после загрузки объекта.
+        precision = Precision.DOUBLE;
+        initializeAdamState();
+        // В файле веса всегда в double; сеть FLOAT округляет их обратно
+        Precision storedPrecision = (Precision) fields.get("precision", null);
+        if (storedPrecision != null) {
+            setPrecision(storedPrecision);
+        }
+    }
+    // Запись в прежнем формате: веса разворачиваются обратно в double[][][]
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        double[][] weights = getWeights();
+        double[][][] nestedWeights = new double[weights.length][][];
+        for (int layer = 0; layer < weights.length; layer++) {
+            int cols = sizes[layer];
+            nestedWeights[layer] = new double[sizes[layer + 1]][];
+            for (int row = 0; row < nestedWeights[layer].length; row++) {
+                nestedWeights[layer][row] = Arrays.copyOfRange(weights[layer], row * cols, (row + 1) * cols);
+            }
+        }
+        ObjectOutputStream.PutField fields = oos.putFields();
+        fields.put("numLayers", numLayers);
+        fields.put("sizes", sizes);
+        fields.put("weights", nestedWeights);
+        fields.put("biases", getBiases());
+        fields.put("layerActivationTypes", layerActivationTypes);
+        fields.put("precision", precision);
+        oos.writeFields();
+    }
+
+    public void resetAdamState() {
+        System.out.println("Resetting Adam optimizer state for " + this.getClass().getSimpleName()); // Добавим имя класса для ясности
+        allocateAdamState(); // Обнуляет t и моменты в точности сети
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package com.example.golfgame.bot.neuralnetwork;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.example.golfgame.utils.MatrixUtils;
+
+/**
+ * A policy network that extends the NeuralNetwork class.
+ * This network is used for policy-based reinforcement learning.
+ */
+public class PolicyNetwork extends NeuralNetwork {
+    // Значение, которое Java вычисляла для прежней версии класса: старые файлы .ser остаются совместимыми
+    private static final long serialVersionUID = 7464152446105660083L;
+    private double minProbability = 1e-10; // Minimum probability to avoid zero probabilities
+    private static final double MIN_SIGMA = 1e-6; // Minimum standard deviation of each action component
+    private static final double MAX_LOG_RATIO = 20.0; // Limit of |log(new / old probability)|
+    private static final double LOG_2PI = Math.log(2 * Math.PI); // Normalisation of the 2-d Gaussian, log((2pi)^(2/2))
+    private static final double HALF_LOG_2PI_E = 0.5 * Math.log(2 * Math.PI * Math.E); // Entropy of N(0, 1)
+
+    public PolicyNetwork(int[] sizes) {
+        // Пример: ReLU для всех скрытых, Linear для выхода
+        super(sizes, createActivationTypes(sizes.length, ActivationType.TANH, ActivationType.LINEAR));
+    }
+
+    /**
+     * Constructs a PolicyNetwork with the default activations that stores and computes in the given precision.
+     *
+     * @param sizes an array specifying the number of neurons in each layer
+     * @param precision the precision of the weights, Adam moments and activations
+     */
+    public PolicyNetwork(int[] sizes, Precision precision) {
+        super(sizes, createActivationTypes(sizes.length, ActivationType.TANH, ActivationType.LINEAR), precision);
+    }
+
+     /**
+      * Constructs a PolicyNetwork with specified layer sizes and activations.
+      *
+      * @param sizes an array specifying the number of neurons in each layer
+      * @param activationTypes array of activation types for hidden and output layers
+      */
+    public PolicyNetwork(int[] sizes, ActivationType[] activationTypes) {
+        super(sizes, activationTypes);
+    }
+
+    /**
+     * Constructs a PolicyNetwork with specified layer sizes, activations and precision.
+     *
+     * @param sizes an array specifying the number of neurons in each layer
+     * @param activationTypes array of activation types for hidden and output layers
+     * @param precision the precision of the weights, Adam moments and activations
+     */
+    public PolicyNetwork(int[] sizes, ActivationType[] activationTypes, Precision precision) {
+        super(sizes, activationTypes, precision);
+    }
+
+    private PolicyNetwork(ByteBuffer checkpoint) throws IOException {
+        super(checkpoint);
+    }
+
+    /**
+     * Reads a PolicyNetwork from a checkpoint block written by {@link #writeCheckpoint(ByteBuffer, boolean)}.
+     *
+     * @param checkpoint the little-endian buffer to read from, positioned at the block
+     * @return the network, with its Adam state if the block has one
+     * @throws IOException if the block is malformed
+     */
+    public static PolicyNetwork readCheckpoint(ByteBuffer checkpoint) throws IOException {
+        return new PolicyNetwork(checkpoint);
+    }
+
+    /**
+     * Creates a network with the same shape, precision and parameters as this one, and fresh Adam state.
+     *
+     * @return an independent copy of this network
+     */
+    public PolicyNetwork copy() {
+        PolicyNetwork copy = new PolicyNetwork(getSizes(), getLayerActivationTypes(), getPrecision());
+        copy.copyParametersFrom(this);
+        return copy;
+    }
+
+    private static ActivationType[] createActivationTypes(int numLayers, ActivationType hiddenType, ActivationType outputType) {
+        if (numLayers < 2) {
+            throw new IllegalArgumentException("Network must have at least 2 layers (input and output).");
+        }
+        ActivationType[] types = new ActivationType[numLayers - 1];
+        for (int i = 0; i < types.length - 1; i++) {
+            types[i] = hiddenType; // Скрытые слои
+        }
+        types[types.length - 1] = outputType; // Выходной слой
+        return types;
+    }
+
+    /**
+     * Computes the loss for the policy network using the PPO objective function.
+     *
+     * @param policyOutputs the outputs of the policy network
+     * @param advantage the advantage computed for the action
+     * @param oldLogProbability the log-probability of the action under the policy that collected it
+     * @param epsilon the clipping parameter for PPO
+     * @param action the action taken
+     * @return the computed loss value
+     */
+    public double computeLoss(double[] policyOutputs, double advantage, double oldLogProbability, double epsilon, double[] action) {
+        return computeLoss(probabilityRatio(computeLogProbability(policyOutputs, action), oldLogProbability), advantage, epsilon);
+    }
+
+    /**
+     * Computes the clipped PPO loss {@code -min(r * A, clip(r, 1 - epsilon, 1 + epsilon) * A)} of one sample.
+     *
+     * @param probabilityRatio the ratio r of the new to the old probability of the action
+     * @param advantage the advantage A of the action
+     * @param epsilon the clipping parameter for PPO
+     * @return the computed loss value
+     */
+    public static double computeLoss(double probabilityRatio, double advantage, double epsilon) {
+        double clippedRatio = Math.max(Math.min(probabilityRatio, 1 + epsilon), 1 - epsilon);
+        return -Math.min(probabilityRatio * advantage, clippedRatio * advantage);
+    }
+
+    /**
+     * Returns the ratio {@code exp(logProbability - oldLogProbability)} of the new to the old probability
+     * of an action. The log-ratio is limited to +-{@value #MAX_LOG_RATIO} so the ratio stays finite.
+     *
+     * @param logProbability the log-probability under the current policy
+     * @param oldLogProbability the log-probability under the policy that collected the action
+     * @return the probability ratio
+     */
+    public static double probabilityRatio(double logProbability, double oldLogProbability) {
+        double logRatio = Math.max(-MAX_LOG_RATIO, Math.min(MAX_LOG_RATIO, logProbability - oldLogProbability));
+        return Math.exp(logRatio);
+    }
+
+    /**
+     * Computes the probability of taking a specific action given the policy output.
+     *
+     * @param policyOutput the output of the policy network
+     * @param action the action for which the probability is computed
+     * @return the computed probability value
+     */
+    public double computeProbability(double[] policyOutput, double[] action) {
+        return Math.max(Math.exp(computeLogProbability(policyOutput, action)), minProbability);
+    }
+
+    /**
+     * Computes the log-probability of taking a specific action given the policy output, without
+     * forming the densities themselves, so it stays finite far in the tails.
+     *
+     * @param policyOutput the output of the policy network
+     * @param action the action for which the log-probability is computed
+     * @return the log-probability of the action
+     */
+    public double computeLogProbability(double[] policyOutput, double[] action) {
+        double sigma_theta = sigma(policyOutput[1]);
+        double sigma_force = sigma(policyOutput[3]);
+        double z_theta = (action[0] - policyOutput[0]) / sigma_theta;
+        double z_force = (action[1] - policyOutput[2]) / sigma_force;
+        return -0.5 * (z_theta * z_theta + z_force * z_force) - Math.log(sigma_theta * sigma_force) - LOG_2PI;
+    }
+
+    /**
+     * Evaluates the Gaussian policy head at an action in one pass: the log-probability of the action, the
+     * entropy of the policy, and the gradients of both with respect to {@code mu} and raw {@code sigma} of
+     * the angle and the force. Where {@code sigma} is held at its minimum its gradients are 0.
+     *
+     * @param policyOutput the output of the policy network (mu_theta, sigma_theta_raw, mu_force, sigma_force_raw)
+     * @param action the action (theta, force)
+     * @param head receives the results
+     */
+    public void evaluateHead(double[] policyOutput, double[] action, GaussianHead head) {
+        double logProbability = -LOG_2PI;
+        double entropy = 0.0;
+        // Два независимых измерения: (mu, sigma_raw) = выходы (0, 1) для угла и (2, 3) для силы
+        for (int d = 0; d < 2; d++) {
+            double mu = policyOutput[2 * d];
+            double sigma_raw = policyOutput[2 * d + 1];
+            double softplus = softplus(sigma_raw);
+            double sigma = Math.max(softplus, MIN_SIGMA);
+            double z = (action[d] - mu) / sigma;
+            double logSigma = Math.log(sigma);
+            logProbability += -0.5 * z * z - logSigma;
+            entropy += HALF_LOG_2PI_E + logSigma;
+
+            // d sigma / d sigma_raw = sigmoid(sigma_raw), пока sigma не упирается в минимум
+            double dSigma_dRaw = softplus > MIN_SIGMA ? MatrixUtils.sigmoid(sigma_raw) : 0.0;
+            head.logProbabilityGradient[2 * d] = z / sigma;
+            head.logProbabilityGradient[2 * d + 1] = (z * z - 1) / sigma * dSigma_dRaw;
+            head.entropyGradient[2 * d] = 0.0;
+            head.entropyGradient[2 * d + 1] = dSigma_dRaw / sigma;
+        }
+        head.set(logProbability, entropy);
+    }
+
+    // Та же нижняя граница sigma, что и при выборе действия в PPOAgent
+    private double sigma(double sigma_raw) {
+        return Math.max(softplus(sigma_raw), MIN_SIGMA);
+    }
+
+    /**
+     * Applies the softplus activation function to the input value.
+     *
+     * @param x the input value
+     * @return the result of applying the softplus function to the input value
+     */
+    public double softplus(double x) {
+        // Более стабильная реализация softplus
+        if (x > 30) return x; // Приближение для больших x
+        if (x < -30) return Math.exp(x); // Приближение для малых x
+        return Math.log(1 + Math.exp(x));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.golfgame.bot.neuralnetwork;
+
+/**
+ * Enum representing the floating-point precision a neural network stores its weights, Adam moments and
+ * activations in. Inputs, outputs and gradients are exchanged as {@code double} either way.
+ */
+public enum Precision {
+    DOUBLE,
+    FLOAT // Half the memory traffic of DOUBLE, enough for training the agent's networks
+}
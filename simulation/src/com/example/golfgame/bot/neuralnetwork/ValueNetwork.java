@@ -0,0 +1,105 @@
+package com.example.golfgame.bot.neuralnetwork;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class ValueNetwork extends NeuralNetwork {
+    // Значение, которое Java вычисляла для прежней версии класса: старые файлы .ser остаются совместимыми
+    private static final long serialVersionUID = 5940071753648575798L;
+
+    /**
+     * Constructs a ValueNetwork with specified layer sizes.
+     * Assumes ReLU for hidden layers and Linear for the output layer.
+     *
+     * @param sizes an array specifying the number of neurons in each layer
+     */
+    public ValueNetwork(int[] sizes) {
+         // Пример: ReLU для всех скрытых, Linear для выхода
+        super(sizes, createActivationTypes(sizes.length, ActivationType.RELU, ActivationType.LINEAR));
+    }
+
+    /**
+     * Constructs a ValueNetwork with the default activations that stores and computes in the given precision.
+     *
+     * @param sizes an array specifying the number of neurons in each layer
+     * @param precision the precision of the weights, Adam moments and activations
+     */
+    public ValueNetwork(int[] sizes, Precision precision) {
+        super(sizes, createActivationTypes(sizes.length, ActivationType.RELU, ActivationType.LINEAR), precision);
+    }
+
+    /**
+     * Constructs a ValueNetwork with specified layer sizes and activations.
+     *
+     * @param sizes an array specifying the number of neurons in each layer
+     * @param activationTypes array of activation types for hidden and output layers
+     */
+    public ValueNetwork(int[] sizes, ActivationType[] activationTypes) {
+        super(sizes, activationTypes);
+    }
+
+    /**
+     * Constructs a ValueNetwork with specified layer sizes, activations and precision.
+     *
+     * @param sizes an array specifying the number of neurons in each layer
+     * @param activationTypes array of activation types for hidden and output layers
+     * @param precision the precision of the weights, Adam moments and activations
+     */
+    public ValueNetwork(int[] sizes, ActivationType[] activationTypes, Precision precision) {
+        super(sizes, activationTypes, precision);
+    }
+
+    private ValueNetwork(ByteBuffer checkpoint) throws IOException {
+        super(checkpoint);
+    }
+
+    /**
+     * Reads a ValueNetwork from a checkpoint block written by {@link #writeCheckpoint(ByteBuffer, boolean)}.
+     *
+     * @param checkpoint the little-endian buffer to read from, positioned at the block
+     * @return the network, with its Adam state if the block has one
+     * @throws IOException if the block is malformed
+     */
+    public static ValueNetwork readCheckpoint(ByteBuffer checkpoint) throws IOException {
+        return new ValueNetwork(checkpoint);
+    }
+
+    /**
+     * Creates a network with the same shape, precision and parameters as this one, and fresh Adam state.
+     *
+     * @return an independent copy of this network
+     */
+    public ValueNetwork copy() {
+        ValueNetwork copy = new ValueNetwork(getSizes(), getLayerActivationTypes(), getPrecision());
+        copy.copyParametersFrom(this);
+        return copy;
+    }
+
+     // Вспомогательный метод для создания массива активаций (можно вынести в утилиты)
+     private static ActivationType[] createActivationTypes(int numLayers, ActivationType hiddenType, ActivationType outputType) {
+         if (numLayers < 2) {
+             throw new IllegalArgumentException("Network must have at least 2 layers (input and output).");
+         }
+         ActivationType[] types = new ActivationType[numLayers - 1];
+         for (int i = 0; i < types.length - 1; i++) {
+             types[i] = hiddenType; // Скрытые слои
+         }
+         types[types.length - 1] = outputType; // Выходной слой
+         return types;
+     }
+
+    /**
+     * Computes the loss for the value network using mean squared error.
+     *
+     * @param output the output of the value network
+     * @param target the target values
+     * @return the computed loss value
+     */
+    public double computeLoss(double[] output, double[] target) {
+        double loss = 0.0;
+        for (int i = 0; i < output.length; i++) {
+            loss += Math.pow(output[i] - target[i], 2);
+        }
+        return loss / output.length;
+    }
+}
\ No newline at end of file
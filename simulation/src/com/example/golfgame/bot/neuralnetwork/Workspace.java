@@ -0,0 +1,165 @@
+package com.example.golfgame.bot.neuralnetwork;
+
+import java.util.Arrays;
+
+import com.example.golfgame.utils.ppoUtils.BackPropResult;
+
+/**
+ * Every intermediate buffer of the forward and backward passes of a {@link NeuralNetwork} over batches of up
+ * to a fixed number of samples: inputs, weighted inputs and activations of each layer, the deltas and the
+ * gradients. Passes that run through a workspace allocate nothing, so one workspace per thread removes the
+ * garbage of a training loop. Create one with {@link NeuralNetwork#createWorkspace(int)}.
+ *
+ * <p>Batches use the layout of {@link NeuralNetwork#forwardWithZs(double[], int)}: a {@code layerSize x batchSize}
+ * matrix stored row by row in the first {@code layerSize * batchSize} elements of a buffer. A workspace is not
+ * thread-safe.</p>
+ *
+ * <p>A workspace of a {@link Precision#FLOAT} network keeps its layers in {@code float} buffers; only the
+ * inputs, outputs and gradients are {@code double}.</p>
+ */
+public final class Workspace {
+    private final int[] sizes;
+    private final int capacity;
+    private final Precision precision;
+    final double[][] activations; // activations[l]: слой l, activations[0] - входы (null при FLOAT)
+    final double[][] zs;          // zs[l]: взвешенные входы слоя l + 1 (null при FLOAT)
+    final float[][] floatActivations; // То же при FLOAT (иначе null)
+    final float[][] floatZs;
+    private final double[] inputs;
+    private final double[] outputs;
+    private double[][] deltas;    // Два буфера для delta, выделяются при первом обратном проходе
+    private float[][] floatDeltas;
+    float[][] floatNablaW;        // Градиенты при FLOAT до перевода в double, см. ensureFloatGradients
+    float[][] floatNablaB;
+    private BackPropResult gradients;
+
+    Workspace(int[] sizes, int capacity, Precision precision) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Workspace capacity must be positive, got " + capacity);
+        }
+        this.sizes = sizes.clone();
+        this.capacity = capacity;
+        this.precision = precision;
+        if (precision == Precision.FLOAT) {
+            this.activations = null;
+            this.zs = null;
+            this.floatActivations = new float[sizes.length][];
+            this.floatZs = new float[sizes.length - 1][];
+            for (int layer = 0; layer < sizes.length; layer++) {
+                floatActivations[layer] = new float[sizes[layer] * capacity];
+                if (layer > 0) {
+                    floatZs[layer - 1] = new float[sizes[layer] * capacity];
+                }
+            }
+            this.inputs = new double[sizes[0] * capacity];
+            this.outputs = new double[sizes[sizes.length - 1] * capacity];
+        } else {
+            this.floatActivations = null;
+            this.floatZs = null;
+            this.activations = new double[sizes.length][];
+            this.zs = new double[sizes.length - 1][];
+            for (int layer = 0; layer < sizes.length; layer++) {
+                activations[layer] = new double[sizes[layer] * capacity];
+                if (layer > 0) {
+                    zs[layer - 1] = new double[sizes[layer] * capacity];
+                }
+            }
+            this.inputs = activations[0];
+            this.outputs = activations[sizes.length - 1];
+        }
+    }
+
+    /**
+     * Returns the input buffer, {@code sizes[0] x capacity}. Write the batch here before a forward pass.
+     *
+     * @return the input buffer
+     */
+    public double[] getInputs() {
+        return inputs;
+    }
+
+    /**
+     * Returns the output buffer, filled by the last forward pass.
+     *
+     * @return the output buffer
+     */
+    public double[] getOutputs() {
+        return outputs;
+    }
+
+    /**
+     * Returns the gradients written by the last backward pass through this workspace.
+     *
+     * @return the gradients
+     */
+    public BackPropResult getGradients() {
+        if (gradients == null) {
+            double[][] nabla_w = new double[sizes.length - 1][];
+            double[][] nabla_b = new double[sizes.length - 1][];
+            for (int layer = 0; layer < sizes.length - 1; layer++) {
+                nabla_w[layer] = new double[sizes[layer + 1] * sizes[layer]];
+                nabla_b[layer] = new double[sizes[layer + 1]];
+            }
+            gradients = new BackPropResult(nabla_w, nabla_b);
+        }
+        return gradients;
+    }
+
+    /**
+     * Returns the largest batch this workspace holds.
+     *
+     * @return the capacity in samples
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the precision of the network this workspace was created for.
+     *
+     * @return the precision of the layer buffers
+     */
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    // Два буфера для delta шириной в самый широкий слой
+    double[][] deltaBuffers() {
+        if (deltas == null) {
+            int width = maxWidth();
+            deltas = new double[][]{new double[width * capacity], new double[width * capacity]};
+        }
+        return deltas;
+    }
+
+    float[][] floatDeltaBuffers() {
+        if (floatDeltas == null) {
+            int width = maxWidth();
+            floatDeltas = new float[][]{new float[width * capacity], new float[width * capacity]};
+        }
+        return floatDeltas;
+    }
+
+    void ensureFloatGradients() {
+        if (floatNablaW == null) {
+            floatNablaW = new float[sizes.length - 1][];
+            floatNablaB = new float[sizes.length - 1][];
+            for (int layer = 0; layer < sizes.length - 1; layer++) {
+                floatNablaW[layer] = new float[sizes[layer + 1] * sizes[layer]];
+                floatNablaB[layer] = new float[sizes[layer + 1]];
+            }
+        }
+    }
+
+    boolean fits(int[] networkSizes, Precision networkPrecision, int batchSize) {
+        return batchSize > 0 && batchSize <= capacity && precision == networkPrecision && Arrays.equals(sizes, networkSizes);
+    }
+
+    private int maxWidth() {
+        int width = 0;
+        for (int size : sizes) {
+            width = Math.max(width, size);
+        }
+        return width;
+    }
+}
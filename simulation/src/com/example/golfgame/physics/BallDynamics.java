@@ -0,0 +1,73 @@
+package com.example.golfgame.physics;
+
+import com.example.golfgame.physics.ODE.DerivativeFunction;
+
+/**
+ * The equations of motion of a ball rolling on a surface under gravity and kinetic friction,
+ * for the state vector (x, y, vx, vy). The slopes are sampled at the position passed to each
+ * evaluation, so every stage of a Runge-Kutta step sees the terrain under its own position.
+ *
+ * <p>With slopes hx, hy the accelerations are
+ * <pre>
+ * ax = -g * hx / (1 + hx^2 + hy^2) - mu_k * g / sqrt(1 + hx^2 + hy^2) * vx / sqrt(vx^2 + vy^2 + (hx * vx + hy * vy)^2)
+ * ay = -g * hy / (1 + hx^2 + hy^2) - mu_k * g / sqrt(1 + hx^2 + hy^2) * vy / sqrt(vx^2 + vy^2 + (hx * vx + hy * vy)^2)
+ * </pre></p>
+ */
+public class BallDynamics implements DerivativeFunction {
+    private final SurfaceGradient surface;
+    private double g;
+    private double mu_k;
+
+    /**
+     * Constructs the equations of motion for a surface.
+     *
+     * @param surface the slopes of the surface the ball rolls on
+     * @param g the acceleration due to gravity
+     * @param mu_k the coefficient of kinetic friction
+     */
+    public BallDynamics(SurfaceGradient surface, double g, double mu_k) {
+        this.surface = surface;
+        this.g = g;
+        this.mu_k = mu_k;
+    }
+
+    /**
+     * Sets the coefficient of kinetic friction.
+     *
+     * @param mu_k the coefficient of kinetic friction
+     */
+    public void setKineticFriction(double mu_k) {
+        this.mu_k = mu_k;
+    }
+
+    /**
+     * Computes (vx, vy, ax, ay) for the state (x, y, vx, vy).
+     *
+     * @param t the time (unused, the system is autonomous)
+     * @param y the state vector (x, y, vx, vy)
+     * @param dydt the array receiving (vx, vy, ax, ay)
+     */
+    @Override
+    public void compute(double t, double[] y, double[] dydt) {
+        double dx = surface.slopeX(y[0], y[1]);
+        double dy = surface.slopeY(y[0], y[1]);
+        double vx = y[2];
+        double vy = y[3];
+        double slopeNormSquared = 1 + dx * dx + dy * dy;
+        double gravity = -g / slopeNormSquared;
+        double friction = (mu_k * g) / Math.sqrt(slopeNormSquared);
+        double verticalVelocity = dx * vx + dy * vy;
+        double speed = Math.sqrt(vx * vx + vy * vy + verticalVelocity * verticalVelocity);
+
+        dydt[0] = vx;
+        dydt[1] = vy;
+        if (speed == 0) {
+            // Direction of friction is undefined for a ball at rest
+            dydt[2] = gravity * dx;
+            dydt[3] = gravity * dy;
+        } else {
+            dydt[2] = gravity * dx - friction * (vx / speed);
+            dydt[3] = gravity * dy - friction * (vy / speed);
+        }
+    }
+}
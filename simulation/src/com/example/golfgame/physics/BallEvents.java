@@ -0,0 +1,70 @@
+package com.example.golfgame.physics;
+
+import com.example.golfgame.physics.ODE.EventFunction;
+import com.example.golfgame.utils.HeightField;
+
+/**
+ * Event functions on the ball state (x, y, vx, vy) that end a shot. Each function is zero or positive while
+ * the ball keeps rolling and drops below zero at the moment the shot ends, so that
+ * {@link PhysicsEngine#updateUntilEvent} can locate that moment inside a step. Each event is active exactly
+ * where the matching check of the game holds, including on its boundary.
+ */
+public final class BallEvents {
+
+    private BallEvents() {
+    }
+
+    /**
+     * The ball comes to rest: both velocity components drop below the threshold,
+     * matching {@link PhysicsEngine#isAtRest}.
+     *
+     * @param speedThreshold the velocity below which the ball counts as resting
+     * @return the rest event
+     */
+    public static EventFunction rest(final double speedThreshold) {
+        return new EventFunction() {
+            @Override
+            public double evaluate(double t, double[] y) {
+                return Math.max(Math.abs(y[2]), Math.abs(y[3])) - speedThreshold;
+            }
+        };
+    }
+
+    /**
+     * The ball rolls into water, i.e. the height of the terrain under it drops below 0.
+     *
+     * @param surface the height of the terrain
+     * @return the water event
+     */
+    public static EventFunction water(final HeightField surface) {
+        return new EventFunction() {
+            @Override
+            public double evaluate(double t, double[] y) {
+                return surface.evaluate(y[0], y[1]);
+            }
+        };
+    }
+
+    /**
+     * The ball reaches the goal: it is within the tolerance of the goal along both axes and slow enough
+     * along both axes to drop in, matching {@link com.example.golfgame.utils.gameUtils.GolfRules#isSimulatorGoal}
+     * (distance at most the tolerance, speed below the maximum).
+     *
+     * @param goalX the x-coordinate of the goal
+     * @param goalY the y-coordinate of the goal
+     * @param tolerance the distance from the goal along each axis within which the ball counts as in the hole
+     * @param maxSpeed the velocity along each axis above which the ball rolls over the hole
+     * @return the goal event
+     */
+    public static EventFunction goal(final double goalX, final double goalY, final double tolerance, final double maxSpeed) {
+        return new EventFunction() {
+            @Override
+            public double evaluate(double t, double[] y) {
+                // a - nextUp(b) < 0 ровно тогда, когда a <= b: граница допуска считается попаданием
+                double distance = Math.max(Math.abs(y[0] - goalX), Math.abs(y[1] - goalY)) - Math.nextUp(tolerance);
+                double speed = Math.max(Math.abs(y[2]), Math.abs(y[3])) - maxSpeed;
+                return Math.max(distance, speed);
+            }
+        };
+    }
+}
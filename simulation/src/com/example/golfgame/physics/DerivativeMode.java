@@ -0,0 +1,9 @@
+package com.example.golfgame.physics;
+
+/**
+ * Enum representing the ways the physics engine can obtain slopes of the surface.
+ */
+public enum DerivativeMode {
+    ANALYTIC, // Exact derivatives differentiated symbolically from the height expression
+    FINITE_DIFFERENCE // Numerical derivatives sampled around the point
+}
@@ -0,0 +1,410 @@
+package com.example.golfgame.physics;
+
+import java.util.Arrays;
+
+import com.example.golfgame.physics.ODE.EventFunction;
+import com.example.golfgame.physics.ODE.EventLocator;
+import com.example.golfgame.physics.ODE.RungeKutta;
+import com.example.golfgame.utils.BallState;
+
+/**
+ * Integrates many balls on the same surface at once. The states of the balls are kept in parallel
+ * arrays (x, y, vx, vy) and all balls still rolling are advanced together, one classical Runge-Kutta
+ * step at a time, with the same equations as {@link BallDynamics}. After every step the balls whose
+ * shot ended are moved out and the remaining ones are compacted to the front of the arrays, so the
+ * loops only ever run over rolling balls.
+ *
+ * <p>Apart from sampling the slopes, the loops over the balls contain only arithmetic on arrays, so
+ * the JIT can vectorise them. The results are the same as integrating every ball separately with
+ * {@link PhysicsEngine#updateUntilEvent} and a {@link RungeKutta} solver.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * MultiBallEngine balls = new MultiBallEngine(engine, 0.001, speeds.length);
+ * for (int i = 0; i < speeds.length; i++) {
+ *     balls.addBall(x, y, -speeds[i] * Math.cos(angles[i]), -speeds[i] * Math.sin(angles[i]));
+ * }
+ * balls.run(BallEvents.rest(PhysicsEngine.REST_THRESHOLD));
+ * BallState end = balls.getFinalState(0);
+ * }</pre>
+ *
+ * <p>An instance keeps its buffers between runs and must be used by one thread at a time.</p>
+ */
+public class MultiBallEngine {
+    private static final int STATE_DIMENSION = 4;
+    private static final double EVENT_TIME_TOLERANCE = 1e-9;
+
+    private final PhysicsEngine engine;
+    private final BallDynamics equationsOfMotion;
+    private final double stepSize;
+    private final EventLocator eventLocator = new EventLocator(STATE_DIMENSION, EVENT_TIME_TOLERANCE);
+
+    private int ballCount;
+    private int active;
+
+    // State of the rolling balls, compacted to the first 'active' entries
+    private double[] x, y, vx, vy;
+    private int[] ids;
+    private int[] steps;
+    private boolean[] finished;
+
+    // Step buffers: state at the start of the step, stage state, stage accelerations, weighted sum of the slopes
+    private double[] previousX, previousY, previousVx, previousVy;
+    private double[] stageX, stageY, stageVx, stageVy;
+    private double[] accelerationX, accelerationY;
+    private double[] sumX, sumY, sumVx, sumVy;
+    private double[] slopeX, slopeY;
+
+    // Results by ball id
+    private double[] finalStates;
+    private double[] statesBeforeEvent;
+    private int[] events;
+    private int[] stepCounts;
+
+    // Single ball buffers for checking and locating events
+    private final double[] ball = new double[STATE_DIMENSION];
+    private final double[] previousBall = new double[STATE_DIMENSION];
+    private final double[] startDerivative = new double[STATE_DIMENSION];
+    private final double[] endDerivative = new double[STATE_DIMENSION];
+
+    /**
+     * Constructs a multi-ball engine using the surface, friction and derivative mode of an engine.
+     *
+     * @param engine the engine whose configuration to use; only read, so it may be shared
+     * @param stepSize the time step of the Runge-Kutta integration
+     * @param capacity the number of balls to allocate room for; grows as needed
+     */
+    public MultiBallEngine(PhysicsEngine engine, double stepSize, int capacity) {
+        if (stepSize <= 0) {
+            throw new IllegalArgumentException("Step size must be positive.");
+        }
+        this.engine = engine;
+        this.stepSize = stepSize;
+        this.equationsOfMotion = new BallDynamics(new SurfaceGradient() {
+            @Override
+            public double slopeX(double x, double y) {
+                return MultiBallEngine.this.engine.derivativeX(x, y);
+            }
+
+            @Override
+            public double slopeY(double x, double y) {
+                return MultiBallEngine.this.engine.derivativeY(x, y);
+            }
+        }, engine.getGravity(), engine.getKineticFriction());
+        allocate(Math.max(1, capacity));
+    }
+
+    private void allocate(int capacity) {
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        vx = grow(vx, capacity);
+        vy = grow(vy, capacity);
+        ids = ids == null ? new int[capacity] : Arrays.copyOf(ids, capacity);
+        steps = steps == null ? new int[capacity] : Arrays.copyOf(steps, capacity);
+        finished = new boolean[capacity];
+        previousX = new double[capacity];
+        previousY = new double[capacity];
+        previousVx = new double[capacity];
+        previousVy = new double[capacity];
+        stageX = new double[capacity];
+        stageY = new double[capacity];
+        stageVx = new double[capacity];
+        stageVy = new double[capacity];
+        accelerationX = new double[capacity];
+        accelerationY = new double[capacity];
+        sumX = new double[capacity];
+        sumY = new double[capacity];
+        sumVx = new double[capacity];
+        sumVy = new double[capacity];
+        slopeX = new double[capacity];
+        slopeY = new double[capacity];
+        finalStates = grow(finalStates, capacity * STATE_DIMENSION);
+        statesBeforeEvent = grow(statesBeforeEvent, capacity * STATE_DIMENSION);
+        events = events == null ? new int[capacity] : Arrays.copyOf(events, capacity);
+        stepCounts = stepCounts == null ? new int[capacity] : Arrays.copyOf(stepCounts, capacity);
+    }
+
+    private static double[] grow(double[] array, int length) {
+        return array == null ? new double[length] : Arrays.copyOf(array, length);
+    }
+
+    /**
+     * Removes all balls so that the engine can be reused for a new batch.
+     */
+    public void clear() {
+        ballCount = 0;
+        active = 0;
+    }
+
+    /**
+     * Adds a ball to the batch.
+     *
+     * @param x the initial x-coordinate
+     * @param y the initial y-coordinate
+     * @param vx the initial velocity along the x-axis
+     * @param vy the initial velocity along the y-axis
+     * @return the id of the ball, used to query its results
+     */
+    public int addBall(double x, double y, double vx, double vy) {
+        if (ballCount == ids.length) {
+            allocate(2 * ids.length);
+        }
+        int id = ballCount++;
+        this.x[active] = x;
+        this.y[active] = y;
+        this.vx[active] = vx;
+        this.vy[active] = vy;
+        ids[active] = id;
+        steps[active] = 0;
+        active++;
+        storeState(finalStates, id, x, y, vx, vy);
+        storeState(statesBeforeEvent, id, x, y, vx, vy);
+        events[id] = -1;
+        stepCounts[id] = 0;
+        return id;
+    }
+
+    /**
+     * Moves all balls until one of the given events occurs for each of them, or until static friction holds
+     * a resting ball, exactly like {@link PhysicsEngine#updateUntilEvent} does for a single ball.
+     *
+     * @param eventFunctions the events that end the motion of a ball, e.g. from {@link BallEvents}
+     */
+    public void run(EventFunction... eventFunctions) {
+        double t = 0.0;
+        for (int i = 0; i < active; i++) {
+            loadBall(i, ball);
+            int event = eventLocator.firstActive(eventFunctions, t, ball);
+            if (event >= 0) {
+                finish(i, event, ball, ball);
+            }
+        }
+        compact();
+
+        while (active > 0) {
+            for (int i = 0; i < active; i++) {
+                if (Math.abs(vx[i]) < PhysicsEngine.REST_THRESHOLD && Math.abs(vy[i]) < PhysicsEngine.REST_THRESHOLD
+                        && !engine.canOvercomeStaticFriction(x[i], y[i])) {
+                    loadBall(i, ball);
+                    finish(i, -1, ball, ball);
+                }
+            }
+            compact();
+            if (active == 0) {
+                break;
+            }
+
+            System.arraycopy(x, 0, previousX, 0, active);
+            System.arraycopy(y, 0, previousY, 0, active);
+            System.arraycopy(vx, 0, previousVx, 0, active);
+            System.arraycopy(vy, 0, previousVy, 0, active);
+            step();
+
+            for (int i = 0; i < active; i++) {
+                steps[i]++;
+                loadBall(i, ball);
+                if (eventLocator.firstActive(eventFunctions, t + stepSize, ball) >= 0) {
+                    previousBall[0] = previousX[i];
+                    previousBall[1] = previousY[i];
+                    previousBall[2] = previousVx[i];
+                    previousBall[3] = previousVy[i];
+                    equationsOfMotion.compute(t, previousBall, startDerivative);
+                    equationsOfMotion.compute(t + stepSize, ball, endDerivative);
+                    int event = eventLocator.locate(eventFunctions, t, previousBall, startDerivative, t + stepSize, ball, endDerivative);
+                    finish(i, event, eventLocator.getEventState(), eventLocator.getStateBeforeEvent());
+                }
+            }
+            compact();
+            t += stepSize;
+        }
+    }
+
+    /**
+     * Advances all rolling balls by one classical Runge-Kutta step, with the same arithmetic as
+     * {@link RungeKutta} so that the results match the single ball engine.
+     */
+    private void step() {
+        int n = active;
+        double halfStep = stepSize * 0.5;
+
+        // k1
+        accelerations(n, x, y, vx, vy);
+        for (int i = 0; i < n; i++) {
+            sumX[i] = vx[i];
+            sumY[i] = vy[i];
+            sumVx[i] = accelerationX[i];
+            sumVy[i] = accelerationY[i];
+            stageX[i] = x[i] + halfStep * vx[i];
+            stageY[i] = y[i] + halfStep * vy[i];
+            stageVx[i] = vx[i] + halfStep * accelerationX[i];
+            stageVy[i] = vy[i] + halfStep * accelerationY[i];
+        }
+        // k2
+        accelerations(n, stageX, stageY, stageVx, stageVy);
+        for (int i = 0; i < n; i++) {
+            double kx = stageVx[i];
+            double ky = stageVy[i];
+            sumX[i] = sumX[i] + 2 * kx;
+            sumY[i] = sumY[i] + 2 * ky;
+            sumVx[i] = sumVx[i] + 2 * accelerationX[i];
+            sumVy[i] = sumVy[i] + 2 * accelerationY[i];
+            stageX[i] = x[i] + halfStep * kx;
+            stageY[i] = y[i] + halfStep * ky;
+            stageVx[i] = vx[i] + halfStep * accelerationX[i];
+            stageVy[i] = vy[i] + halfStep * accelerationY[i];
+        }
+        // k3
+        accelerations(n, stageX, stageY, stageVx, stageVy);
+        for (int i = 0; i < n; i++) {
+            double kx = stageVx[i];
+            double ky = stageVy[i];
+            sumX[i] = sumX[i] + 2 * kx;
+            sumY[i] = sumY[i] + 2 * ky;
+            sumVx[i] = sumVx[i] + 2 * accelerationX[i];
+            sumVy[i] = sumVy[i] + 2 * accelerationY[i];
+            stageX[i] = x[i] + stepSize * kx;
+            stageY[i] = y[i] + stepSize * ky;
+            stageVx[i] = vx[i] + stepSize * accelerationX[i];
+            stageVy[i] = vy[i] + stepSize * accelerationY[i];
+        }
+        // k4
+        accelerations(n, stageX, stageY, stageVx, stageVy);
+        double weight = stepSize / 6.0;
+        for (int i = 0; i < n; i++) {
+            x[i] += weight * (sumX[i] + stageVx[i]);
+            y[i] += weight * (sumY[i] + stageVy[i]);
+            vx[i] += weight * (sumVx[i] + accelerationX[i]);
+            vy[i] += weight * (sumVy[i] + accelerationY[i]);
+        }
+    }
+
+    /**
+     * Computes the accelerations of the first n balls of the given state arrays into
+     * {@link #accelerationX} and {@link #accelerationY}. See {@link BallDynamics} for the equations.
+     */
+    private void accelerations(int n, double[] px, double[] py, double[] pvx, double[] pvy) {
+        engine.slopes(px, py, slopeX, slopeY, n);
+        double g = engine.getGravity();
+        double frictionCoefficient = engine.getKineticFriction() * g;
+        for (int i = 0; i < n; i++) {
+            double dx = slopeX[i];
+            double dy = slopeY[i];
+            double ballVx = pvx[i];
+            double ballVy = pvy[i];
+            double slopeNormSquared = 1 + dx * dx + dy * dy;
+            double gravity = -g / slopeNormSquared;
+            double friction = frictionCoefficient / Math.sqrt(slopeNormSquared);
+            double verticalVelocity = dx * ballVx + dy * ballVy;
+            double speed = Math.sqrt(ballVx * ballVx + ballVy * ballVy + verticalVelocity * verticalVelocity);
+            // A ball at rest has no friction: its velocity is 0, so dividing by the smallest positive double gives 0
+            // without a branch, while a positive speed is never smaller than that and stays unchanged
+            double divisor = Math.max(speed, Double.MIN_VALUE);
+            accelerationX[i] = gravity * dx - friction * (ballVx / divisor);
+            accelerationY[i] = gravity * dy - friction * (ballVy / divisor);
+        }
+    }
+
+    private void loadBall(int slot, double[] target) {
+        target[0] = x[slot];
+        target[1] = y[slot];
+        target[2] = vx[slot];
+        target[3] = vy[slot];
+    }
+
+    /**
+     * Records the result of a ball and marks its slot for removal by {@link #compact()}.
+     */
+    private void finish(int slot, int event, double[] finalState, double[] stateBeforeEvent) {
+        int id = ids[slot];
+        storeState(finalStates, id, finalState[0], finalState[1], finalState[2], finalState[3]);
+        storeState(statesBeforeEvent, id, stateBeforeEvent[0], stateBeforeEvent[1], stateBeforeEvent[2], stateBeforeEvent[3]);
+        events[id] = event;
+        stepCounts[id] = steps[slot];
+        finished[slot] = true;
+    }
+
+    /**
+     * Moves the balls that are still rolling to the front of the state arrays, keeping their order.
+     */
+    private void compact() {
+        int kept = 0;
+        for (int i = 0; i < active; i++) {
+            if (finished[i]) {
+                finished[i] = false;
+                continue;
+            }
+            if (kept != i) {
+                x[kept] = x[i];
+                y[kept] = y[i];
+                vx[kept] = vx[i];
+                vy[kept] = vy[i];
+                ids[kept] = ids[i];
+                steps[kept] = steps[i];
+            }
+            kept++;
+        }
+        active = kept;
+    }
+
+    private static void storeState(double[] states, int id, double x, double y, double vx, double vy) {
+        int offset = id * STATE_DIMENSION;
+        states[offset] = x;
+        states[offset + 1] = y;
+        states[offset + 2] = vx;
+        states[offset + 3] = vy;
+    }
+
+    /**
+     * Returns the number of balls added since the last {@link #clear()}.
+     *
+     * @return the number of balls
+     */
+    public int getBallCount() {
+        return ballCount;
+    }
+
+    /**
+     * Returns the state of a ball at the end of the last run: at its event, or where static friction held it.
+     *
+     * @param id the id returned by {@link #addBall}
+     * @return a new ball state
+     */
+    public BallState getFinalState(int id) {
+        return loadState(finalStates, id);
+    }
+
+    /**
+     * Returns the state of a ball just before its event, in which the event was not yet active.
+     *
+     * @param id the id returned by {@link #addBall}
+     * @return a new ball state
+     */
+    public BallState getStateBeforeEvent(int id) {
+        return loadState(statesBeforeEvent, id);
+    }
+
+    /**
+     * Returns the index of the event that ended the motion of a ball.
+     *
+     * @param id the id returned by {@link #addBall}
+     * @return the index into the events passed to {@link #run}, or -1 if static friction stopped the ball
+     */
+    public int getEvent(int id) {
+        return events[id];
+    }
+
+    /**
+     * Returns the number of steps a ball was integrated for.
+     *
+     * @param id the id returned by {@link #addBall}
+     * @return the number of steps
+     */
+    public int getSteps(int id) {
+        return stepCounts[id];
+    }
+
+    private static BallState loadState(double[] states, int id) {
+        int offset = id * STATE_DIMENSION;
+        return new BallState(states[offset], states[offset + 1], states[offset + 2], states[offset + 3]);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.golfgame.physics.ODE;
+
+/**
+ * The AdaptiveODE interface is implemented by embedded Runge-Kutta pairs, which estimate the local
+ * error of every step and can therefore choose their own step size. {@link AdaptiveStepper} drives
+ * the step size control on top of {@link #attemptStep}.
+ */
+public interface AdaptiveODE extends VectorODE {
+
+    /**
+     * Attempts a single step without modifying the current state.
+     *
+     * @param equations the right-hand side of the system
+     * @param t the value of the independent variable at the start of the step
+     * @param y the state at the start of the step
+     * @param stepSize the size of the attempted step
+     * @param yNew the array receiving the state at {@code t + stepSize}
+     * @param scratch buffers obtained from {@link #createScratch(int)} for the same dimension; after the call,
+     *                {@code scratch[0]} and {@code scratch[1]} hold the derivatives at the start and at the end of the step
+     * @return the local error scaled by the tolerances; the step is acceptable if this is at most 1
+     */
+    double attemptStep(DerivativeFunction equations, double t, double[] y, double stepSize, double[] yNew, double[][] scratch);
+
+    /**
+     * Returns the order of the lower-order solution of the pair, which determines how the error
+     * scales with the step size.
+     *
+     * @return the order of the error estimate
+     */
+    int getErrorOrder();
+
+    /**
+     * Returns the smallest step size the step size control may choose.
+     *
+     * @return the minimum step size
+     */
+    double getMinStepSize();
+
+    /**
+     * Returns the largest step size the step size control may choose.
+     *
+     * @return the maximum step size
+     */
+    double getMaxStepSize();
+}
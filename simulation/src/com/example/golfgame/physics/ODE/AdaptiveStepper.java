@@ -0,0 +1,167 @@
+package com.example.golfgame.physics.ODE;
+
+/**
+ * Drives an {@link AdaptiveODE} with step size control. Each call to {@link #step} takes one accepted
+ * step, retrying with a smaller step while the error estimate exceeds the tolerances or is NaN (e.g. when a
+ * stage of a long step leaves the domain of the right-hand side), and proposes the size of the next step
+ * from the error of the accepted one.
+ *
+ * <p>A stepper owns the scratch buffers of the method and remembers the proposed step size between
+ * calls, so it should be used for one trajectory at a time and by one thread.</p>
+ */
+public class AdaptiveStepper {
+    private static final double SAFETY = 0.9;
+    private static final double MIN_SCALE = 0.2;
+    private static final double MAX_SCALE = 5.0;
+
+    private final AdaptiveODE method;
+    private final double[][] scratch;
+    private final double[] result;
+    private final double initialStepSize;
+    private double nextStepSize;
+    private int acceptedSteps;
+    private int rejectedSteps;
+
+    /**
+     * Constructs a stepper for a system of the given dimension.
+     *
+     * @param method the embedded Runge-Kutta pair to use
+     * @param dimension the number of entries in the state vector
+     * @param initialStepSize the first step size to try; clamped to the method's step size limits
+     */
+    public AdaptiveStepper(AdaptiveODE method, int dimension, double initialStepSize) {
+        this.method = method;
+        this.scratch = method.createScratch(dimension);
+        this.result = new double[dimension];
+        this.initialStepSize = clamp(initialStepSize);
+        reset();
+    }
+
+    /**
+     * Starts a new trajectory: restores the initial step size and clears the step counters.
+     */
+    public void reset() {
+        nextStepSize = initialStepSize;
+        acceptedSteps = 0;
+        rejectedSteps = 0;
+    }
+
+    /**
+     * Advances the state by one accepted step.
+     *
+     * @param equations the right-hand side of the system
+     * @param t the value of the independent variable at the start of the step
+     * @param y the state vector, overwritten with the state at the end of the step
+     * @return the size of the step taken
+     * @throws IllegalStateException if the error estimate is NaN even at the minimum step size
+     */
+    public double step(DerivativeFunction equations, double t, double[] y) {
+        return step(equations, t, y, method.getMaxStepSize());
+    }
+
+    /**
+     * Advances the state by one accepted step of at most the given size.
+     *
+     * @param equations the right-hand side of the system
+     * @param t the value of the independent variable at the start of the step
+     * @param y the state vector, overwritten with the state at the end of the step
+     * @param maxStepSize an upper bound for this step, e.g. the distance to a stopping point
+     * @return the size of the step taken
+     * @throws IllegalStateException if the error estimate is NaN even at the minimum step size
+     */
+    public double step(DerivativeFunction equations, double t, double[] y, double maxStepSize) {
+        double h = Math.min(nextStepSize, maxStepSize);
+        while (true) {
+            double error = method.attemptStep(equations, t, y, h, result, scratch);
+            boolean atMinimum = h <= method.getMinStepSize();
+            if (Double.isNaN(error) && atMinimum) {
+                // Правая часть не определена даже на минимальном шаге: NaN в состояние не принимаем
+                throw new IllegalStateException("Error estimate is NaN at t=" + t + " with the minimum step size h=" + h);
+            }
+            if (error <= 1 || atMinimum) {
+                System.arraycopy(result, 0, y, 0, y.length);
+                acceptedSteps++;
+                nextStepSize = clamp(h * scaleFactor(error));
+                return h;
+            }
+            rejectedSteps++;
+            h = clamp(h * scaleFactor(error));
+        }
+    }
+
+    /**
+     * Advances the state with as many accepted steps as needed to reach the stopping point exactly.
+     *
+     * @param equations the right-hand side of the system
+     * @param t the initial value of the independent variable
+     * @param y the state vector, overwritten with the state at the stopping point
+     * @param stoppingPoint the value of the independent variable at which to stop
+     * @return the value of the independent variable after the last step
+     */
+    public double solve(DerivativeFunction equations, double t, double[] y, double stoppingPoint) {
+        while (t < stoppingPoint) {
+            t += step(equations, t, y, stoppingPoint - t);
+        }
+        return t;
+    }
+
+    /**
+     * Returns the number of accepted steps since the last {@link #reset()}.
+     *
+     * @return the number of accepted steps
+     */
+    public int getAcceptedSteps() {
+        return acceptedSteps;
+    }
+
+    /**
+     * Returns the number of rejected step attempts since the last {@link #reset()}.
+     *
+     * @return the number of rejected steps
+     */
+    public int getRejectedSteps() {
+        return rejectedSteps;
+    }
+
+    /**
+     * Returns the step size that will be tried next.
+     *
+     * @return the proposed step size
+     */
+    public double getNextStepSize() {
+        return nextStepSize;
+    }
+
+    /**
+     * Returns the derivative at the start of the last accepted step. The array is overwritten by the next step.
+     *
+     * @return the derivative at the start of the last step
+     */
+    public double[] getStartDerivative() {
+        return scratch[0];
+    }
+
+    /**
+     * Returns the derivative at the end of the last accepted step. The array is overwritten by the next step.
+     *
+     * @return the derivative at the end of the last step
+     */
+    public double[] getEndDerivative() {
+        return scratch[1];
+    }
+
+    private double scaleFactor(double error) {
+        if (error == 0) {
+            return MAX_SCALE;
+        }
+        if (Double.isNaN(error)) {
+            return MIN_SCALE;
+        }
+        double factor = SAFETY * Math.pow(error, -1.0 / (method.getErrorOrder() + 1));
+        return Math.max(MIN_SCALE, Math.min(MAX_SCALE, factor));
+    }
+
+    private double clamp(double stepSize) {
+        return Math.max(method.getMinStepSize(), Math.min(method.getMaxStepSize(), stepSize));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.golfgame.physics.ODE;
+
+/**
+ * The right-hand side of a system of first-order ordinary differential equations dy/dt = f(t, y),
+ * written into a caller-provided array so that evaluating it does not allocate.
+ */
+public interface DerivativeFunction {
+
+    /**
+     * Evaluates the derivatives of all state variables.
+     *
+     * @param t the current value of the independent variable
+     * @param y the current state vector; must not be modified
+     * @param dydt the array receiving the derivative of each entry of {@code y}
+     */
+    void compute(double t, double[] y, double[] dydt);
+}
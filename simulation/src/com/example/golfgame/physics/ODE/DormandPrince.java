@@ -0,0 +1,205 @@
+package com.example.golfgame.physics.ODE;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.example.golfgame.utils.Function;
+
+/**
+ * This class implements the Dormand-Prince 5(4) method, an embedded Runge-Kutta pair. Each step computes
+ * a fifth-order solution together with a fourth-order one; their difference estimates the local error,
+ * which lets {@link AdaptiveStepper} take long steps where the solution is smooth and short ones where it
+ * is not, while keeping the error within the configured tolerances.
+ *
+ * <p>Through {@link ODE} and {@link VectorODE#solve} the method runs with fixed steps as a fifth-order
+ * Runge-Kutta method; the step size control is only available through {@link AdaptiveODE}.</p>
+ */
+public class DormandPrince implements ODE, AdaptiveODE {
+    private static final double C2 = 1.0 / 5, C3 = 3.0 / 10, C4 = 4.0 / 5, C5 = 8.0 / 9;
+
+    private static final double A21 = 1.0 / 5;
+    private static final double A31 = 3.0 / 40, A32 = 9.0 / 40;
+    private static final double A41 = 44.0 / 45, A42 = -56.0 / 15, A43 = 32.0 / 9;
+    private static final double A51 = 19372.0 / 6561, A52 = -25360.0 / 2187, A53 = 64448.0 / 6561, A54 = -212.0 / 729;
+    private static final double A61 = 9017.0 / 3168, A62 = -355.0 / 33, A63 = 46732.0 / 5247, A64 = 49.0 / 176, A65 = -5103.0 / 18656;
+    private static final double A71 = 35.0 / 384, A73 = 500.0 / 1113, A74 = 125.0 / 192, A75 = -2187.0 / 6784, A76 = 11.0 / 84;
+
+    // Difference between the fifth- and fourth-order weights
+    private static final double E1 = 71.0 / 57600, E3 = -71.0 / 16695, E4 = 71.0 / 1920, E5 = -17253.0 / 339200, E6 = 22.0 / 525, E7 = -1.0 / 40;
+
+    private static final int K1 = 0, K7 = 1, K2 = 2, K3 = 3, K4 = 4, K5 = 5, K6 = 6, STAGE_STATE = 7, STEP_RESULT = 8;
+
+    private final double absoluteTolerance;
+    private final double relativeTolerance;
+    private final double minStepSize;
+    private final double maxStepSize;
+
+    /**
+     * Constructs a Dormand-Prince solver with tolerances suited to the ball simulation:
+     * 1e-6 absolute and relative error, steps between 1e-6 and 0.05.
+     */
+    public DormandPrince() {
+        this(1e-6, 1e-6, 1e-6, 0.05);
+    }
+
+    /**
+     * Constructs a Dormand-Prince solver with the given tolerances and step size limits.
+     *
+     * @param absoluteTolerance the allowed absolute error per step
+     * @param relativeTolerance the allowed error per step relative to the magnitude of the state
+     * @param minStepSize the smallest step size; steps of this size are accepted even if they exceed the tolerances
+     * @param maxStepSize the largest step size
+     * @throws IllegalArgumentException if a tolerance is negative, both are zero, or the step size limits are invalid
+     */
+    public DormandPrince(double absoluteTolerance, double relativeTolerance, double minStepSize, double maxStepSize) {
+        if (absoluteTolerance < 0 || relativeTolerance < 0 || absoluteTolerance + relativeTolerance == 0) {
+            throw new IllegalArgumentException("Tolerances must be non-negative and not both zero.");
+        }
+        if (minStepSize <= 0 || maxStepSize < minStepSize) {
+            throw new IllegalArgumentException("Step size limits must satisfy 0 < minStepSize <= maxStepSize.");
+        }
+        this.absoluteTolerance = absoluteTolerance;
+        this.relativeTolerance = relativeTolerance;
+        this.minStepSize = minStepSize;
+        this.maxStepSize = maxStepSize;
+    }
+
+    /**
+     * Creates the buffers for a Dormand-Prince step: the seven slopes, the stage state and the step result.
+     */
+    @Override
+    public double[][] createScratch(int dimension) {
+        return new double[9][dimension];
+    }
+
+    @Override
+    public void step(DerivativeFunction equations, double t, double[] y, double stepSize, double[][] scratch) {
+        double[] result = scratch[STEP_RESULT];
+        attemptStep(equations, t, y, stepSize, result, scratch);
+        System.arraycopy(result, 0, y, 0, y.length);
+    }
+
+    @Override
+    public double attemptStep(DerivativeFunction equations, double t, double[] y, double stepSize, double[] yNew, double[][] scratch) {
+        double[] k1 = scratch[K1], k2 = scratch[K2], k3 = scratch[K3], k4 = scratch[K4];
+        double[] k5 = scratch[K5], k6 = scratch[K6], k7 = scratch[K7];
+        double[] stage = scratch[STAGE_STATE];
+        double h = stepSize;
+        int n = y.length;
+
+        equations.compute(t, y, k1);
+        for (int i = 0; i < n; i++) {
+            stage[i] = y[i] + h * A21 * k1[i];
+        }
+        equations.compute(t + C2 * h, stage, k2);
+        for (int i = 0; i < n; i++) {
+            stage[i] = y[i] + h * (A31 * k1[i] + A32 * k2[i]);
+        }
+        equations.compute(t + C3 * h, stage, k3);
+        for (int i = 0; i < n; i++) {
+            stage[i] = y[i] + h * (A41 * k1[i] + A42 * k2[i] + A43 * k3[i]);
+        }
+        equations.compute(t + C4 * h, stage, k4);
+        for (int i = 0; i < n; i++) {
+            stage[i] = y[i] + h * (A51 * k1[i] + A52 * k2[i] + A53 * k3[i] + A54 * k4[i]);
+        }
+        equations.compute(t + C5 * h, stage, k5);
+        for (int i = 0; i < n; i++) {
+            stage[i] = y[i] + h * (A61 * k1[i] + A62 * k2[i] + A63 * k3[i] + A64 * k4[i] + A65 * k5[i]);
+        }
+        equations.compute(t + h, stage, k6);
+        for (int i = 0; i < n; i++) {
+            yNew[i] = y[i] + h * (A71 * k1[i] + A73 * k3[i] + A74 * k4[i] + A75 * k5[i] + A76 * k6[i]);
+        }
+        equations.compute(t + h, yNew, k7);
+
+        // Root mean square of the error relative to the tolerances
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            double error = h * (E1 * k1[i] + E3 * k3[i] + E4 * k4[i] + E5 * k5[i] + E6 * k6[i] + E7 * k7[i]);
+            double scale = absoluteTolerance + relativeTolerance * Math.max(Math.abs(y[i]), Math.abs(yNew[i]));
+            sum += (error / scale) * (error / scale);
+        }
+        return Math.sqrt(sum / n);
+    }
+
+    @Override
+    public int getErrorOrder() {
+        return 4;
+    }
+
+    @Override
+    public double getMinStepSize() {
+        return minStepSize;
+    }
+
+    @Override
+    public double getMaxStepSize() {
+        return maxStepSize;
+    }
+
+    /**
+     * Solves the differential equations with fixed steps of the fifth-order Dormand-Prince solution.
+     *
+     * @param differentials A map of functions representing the differential equations for each dependent variable.
+     * @param initial_state Initial values for all variables including the independent variable.
+     * @param step_size The change in the independent variable for each step; should be a positive number.
+     * @param stopping_point The value of the independent variable at which to stop the calculations.
+     * @param independent_variable The variable considered as independent, commonly time.
+     * @return A list of maps, each representing the state of the system at successive time steps.
+     *
+     * @throws IllegalArgumentException if step_size is zero or negative, or if the initial state does not contain the
+     *                                  independent variable.
+     */
+    @Override
+    public List<Map<String, Double>> solve(Map<String, Function> differentials, Map<String, Double> initial_state, double step_size, double stopping_point, String independent_variable) {
+        if (step_size <= 0) {
+            throw new IllegalArgumentException("Step size must be positive.");
+        }
+        if (!initial_state.containsKey(independent_variable)) {
+            throw new IllegalArgumentException("Initial state must include the independent variable.");
+        }
+
+        // Map the named variables onto a state vector and reuse the primitive implementation
+        List<String> dependent_variables = new ArrayList<>();
+        for (String var : differentials.keySet()) {
+            if (!var.equals(independent_variable)) {
+                dependent_variables.add(var);
+            }
+        }
+        int n = dependent_variables.size();
+        double[] state = new double[n];
+        for (int i = 0; i < n; i++) {
+            state[i] = initial_state.get(dependent_variables.get(i));
+        }
+        Map<String, Double> evaluationState = new HashMap<>(initial_state);
+        DerivativeFunction equations = (t, y, dydt) -> {
+            for (int i = 0; i < n; i++) {
+                evaluationState.put(dependent_variables.get(i), y[i]);
+            }
+            evaluationState.put(independent_variable, t);
+            for (int i = 0; i < n; i++) {
+                dydt[i] = differentials.get(dependent_variables.get(i)).evaluate(evaluationState);
+            }
+        };
+
+        int steps = (int) ((stopping_point - initial_state.get(independent_variable)) / step_size);
+        List<Map<String, Double>> values = new ArrayList<>();
+        double[][] scratch = createScratch(n);
+        double current_time = initial_state.get(independent_variable);
+
+        for (int i = 0; i < steps; i++) {
+            step(equations, current_time, state, step_size, scratch);
+            current_time += step_size;
+            Map<String, Double> newState = new HashMap<>();
+            for (int j = 0; j < n; j++) {
+                newState.put(dependent_variables.get(j), state[j]);
+            }
+            newState.put(independent_variable, current_time);
+            values.add(newState);
+        }
+        return values;
+    }
+}
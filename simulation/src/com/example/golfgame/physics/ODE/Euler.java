@@ -14,7 +14,7 @@ import com.example.golfgame.utils.Function;
  *
  * @see com.example.golfgame.physics.ODE.ODE
  */
-public class Euler implements ODE {
+public class Euler implements ODE, VectorODE {
 
     /**
      * Solves differential equations using the Euler method, given the differential equations,
@@ -64,4 +64,21 @@ public class Euler implements ODE {
         }
         return values;
     }
+
+    /**
+     * Creates the buffer for the primitive Euler step: the slope at the start of the step.
+     */
+    @Override
+    public double[][] createScratch(int dimension) {
+        return new double[1][dimension];
+    }
+
+    @Override
+    public void step(DerivativeFunction equations, double t, double[] y, double stepSize, double[][] scratch) {
+        double[] k1 = scratch[0];
+        equations.compute(t, y, k1);
+        for (int i = 0; i < y.length; i++) {
+            y[i] += stepSize * k1[i];
+        }
+    }
 }
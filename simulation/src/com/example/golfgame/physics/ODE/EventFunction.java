@@ -0,0 +1,19 @@
+package com.example.golfgame.physics.ODE;
+
+/**
+ * A scalar function of the state that marks an event, such as a ball coming to rest. The event is
+ * active wherever the function is negative, and occurs at the first time the function drops below
+ * zero. {@link EventLocator} finds that time inside an integration step. A function that is exactly zero
+ * on the boundary of its condition, e.g. a height of 0 for water below 0, therefore leaves the boundary inactive.
+ */
+public interface EventFunction {
+
+    /**
+     * Evaluates the event function.
+     *
+     * @param t the current value of the independent variable
+     * @param y the current state vector; must not be modified
+     * @return zero or a positive value while the event has not occurred, a negative value once it has
+     */
+    double evaluate(double t, double[] y);
+}
@@ -0,0 +1,202 @@
+package com.example.golfgame.physics.ODE;
+
+/**
+ * Locates events inside an integration step. The trajectory over the step is approximated by the cubic
+ * Hermite interpolant through the states and derivatives at both ends of the step, and the first time an
+ * event function drops below zero is found by bisection on that interpolant. {@link #locate} checks only the
+ * end of a step for active events; {@link #locateInStep} also checks evenly spaced points inside it, so that
+ * an event that starts and ends within a single long step is still seen.
+ *
+ * <p>A locator owns its interpolation buffers, so it should be used by one thread at a time.</p>
+ */
+public class EventLocator {
+    private static final int MAX_ITERATIONS = 64;
+
+    private final double timeTolerance;
+    private final double[] interpolated;
+    private final double[] eventState;
+    private final double[] stateBeforeEvent;
+    private double eventTime;
+
+    /**
+     * Constructs a locator for a system of the given dimension.
+     *
+     * @param dimension the number of entries in the state vector
+     * @param timeTolerance the width of the time interval the event is bracketed to
+     */
+    public EventLocator(int dimension, double timeTolerance) {
+        if (timeTolerance <= 0) {
+            throw new IllegalArgumentException("Time tolerance must be positive.");
+        }
+        this.timeTolerance = timeTolerance;
+        this.interpolated = new double[dimension];
+        this.eventState = new double[dimension];
+        this.stateBeforeEvent = new double[dimension];
+    }
+
+    /**
+     * Finds the first event that is active in the given state.
+     *
+     * @param events the event functions to check
+     * @param t the value of the independent variable
+     * @param y the state vector
+     * @return the index of the first active event, or -1 if none is active
+     */
+    public int firstActive(EventFunction[] events, double t, double[] y) {
+        for (int i = 0; i < events.length; i++) {
+            if (events[i].evaluate(t, y) < 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the earliest event inside a step. No event may be active at the start of the step and at least
+     * one must be active at its end. Afterwards {@link #getEventTime()}, {@link #getEventState()} and
+     * {@link #getStateBeforeEvent()} describe the located event.
+     *
+     * @param events the event functions to check
+     * @param t0 the value of the independent variable at the start of the step
+     * @param y0 the state at the start of the step
+     * @param f0 the derivative at the start of the step
+     * @param t1 the value of the independent variable at the end of the step
+     * @param y1 the state at the end of the step
+     * @param f1 the derivative at the end of the step
+     * @return the index of the event that occurs first
+     */
+    public int locate(EventFunction[] events, double t0, double[] y0, double[] f0, double t1, double[] y1, double[] f1) {
+        int first = bisect(events, t0, y0, f0, t1, y1, f1, t0, t1);
+        if (first < 0) {
+            throw new IllegalArgumentException("No event is active at the end of the step.");
+        }
+        return first;
+    }
+
+    /**
+     * Finds the earliest event inside a step, checking the interpolant of the step at the given number of
+     * evenly spaced points, the last of which is the end of the step. No event may be active at the start of
+     * the step. If an event is found, {@link #getEventTime()}, {@link #getEventState()} and
+     * {@link #getStateBeforeEvent()} describe it as after {@link #locate}.
+     *
+     * @param events the event functions to check
+     * @param t0 the value of the independent variable at the start of the step
+     * @param y0 the state at the start of the step
+     * @param f0 the derivative at the start of the step
+     * @param t1 the value of the independent variable at the end of the step
+     * @param y1 the state at the end of the step
+     * @param f1 the derivative at the end of the step
+     * @param samples the number of points of the step to check, at least 1
+     * @return the index of the event that occurs first, or -1 if no event is active at any checked point
+     */
+    public int locateInStep(EventFunction[] events, double t0, double[] y0, double[] f0,
+                            double t1, double[] y1, double[] f1, int samples) {
+        if (samples < 1) {
+            throw new IllegalArgumentException("Number of samples must be at least 1, got " + samples);
+        }
+        double before = t0;
+        for (int k = 1; k <= samples; k++) {
+            double after = k == samples ? t1 : t0 + (t1 - t0) * k / samples;
+            double[] y = y1;
+            if (k < samples) {
+                interpolate(t0, y0, f0, t1, y1, f1, after, interpolated);
+                y = interpolated;
+            }
+            if (firstActive(events, after, y) >= 0) {
+                // Ни одно событие не активно в предыдущей точке, так что корень лежит между ними
+                return bisect(events, t0, y0, f0, t1, y1, f1, before, after);
+            }
+            before = after;
+        }
+        return -1;
+    }
+
+    /**
+     * Bisects every event that is active at time 'to' within [from, to] on the interpolant of the step
+     * [t0, t1] and records the earliest one. No event may be active at 'from'.
+     */
+    private int bisect(EventFunction[] events, double t0, double[] y0, double[] f0, double t1, double[] y1, double[] f1,
+                       double from, double to) {
+        int first = -1;
+        double earliest = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < events.length; i++) {
+            double[] y = y1;
+            if (to != t1) {
+                interpolate(t0, y0, f0, t1, y1, f1, to, interpolated);
+                y = interpolated;
+            }
+            if (events[i].evaluate(to, y) >= 0) {
+                continue;
+            }
+            // Bracket the root: the event is inactive at 'before' and active at 'after'
+            double before = from;
+            double after = to;
+            int iterations = 0;
+            while (after - before > timeTolerance && iterations < MAX_ITERATIONS) {
+                double middle = 0.5 * (before + after);
+                interpolate(t0, y0, f0, t1, y1, f1, middle, interpolated);
+                if (events[i].evaluate(middle, interpolated) < 0) {
+                    after = middle;
+                } else {
+                    before = middle;
+                }
+                iterations++;
+            }
+            if (after < earliest) {
+                earliest = after;
+                first = i;
+                eventTime = after;
+                interpolate(t0, y0, f0, t1, y1, f1, after, eventState);
+                interpolate(t0, y0, f0, t1, y1, f1, before, stateBeforeEvent);
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Returns the time of the last located event.
+     *
+     * @return the earliest time found at which the event is active
+     */
+    public double getEventTime() {
+        return eventTime;
+    }
+
+    /**
+     * Returns the state at the time of the last located event, in which the event is active.
+     * The array is reused by the next call to {@link #locate} or {@link #locateInStep}.
+     *
+     * @return the state at the event
+     */
+    public double[] getEventState() {
+        return eventState;
+    }
+
+    /**
+     * Returns the state just before the last located event, at most the time tolerance earlier,
+     * in which the event is not yet active. The array is reused by the next call to {@link #locate} or {@link #locateInStep}.
+     *
+     * @return the state before the event
+     */
+    public double[] getStateBeforeEvent() {
+        return stateBeforeEvent;
+    }
+
+    /**
+     * Evaluates the cubic Hermite interpolant of a step at time t.
+     */
+    private static void interpolate(double t0, double[] y0, double[] f0, double t1, double[] y1, double[] f1,
+                                    double t, double[] out) {
+        double h = t1 - t0;
+        double s = (t - t0) / h;
+        double s2 = s * s;
+        double s3 = s2 * s;
+        double h00 = 2 * s3 - 3 * s2 + 1;
+        double h10 = s3 - 2 * s2 + s;
+        double h01 = -2 * s3 + 3 * s2;
+        double h11 = s3 - s2;
+        for (int i = 0; i < out.length; i++) {
+            out[i] = h00 * y0[i] + h10 * h * f0[i] + h01 * y1[i] + h11 * h * f1[i];
+        }
+    }
+}
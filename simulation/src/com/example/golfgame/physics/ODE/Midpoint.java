@@ -13,7 +13,7 @@ import com.example.golfgame.utils.Function;
  * and computational efficiency, improving upon the Euler method by using an intermediate step to calculate
  * the slope.
  */
-public class Midpoint implements ODE {
+public class Midpoint implements ODE, VectorODE {
 
     /**
      * Solves the system of differential equations using the Midpoint method given the set of differentials,
@@ -76,4 +76,29 @@ public class Midpoint implements ODE {
 
         return values;
     }
+
+    /**
+     * Creates the buffers for the primitive Midpoint step: the two slopes and the midpoint state.
+     */
+    @Override
+    public double[][] createScratch(int dimension) {
+        return new double[3][dimension];
+    }
+
+    @Override
+    public void step(DerivativeFunction equations, double t, double[] y, double stepSize, double[][] scratch) {
+        double[] k1 = scratch[0];
+        double[] k2 = scratch[1];
+        double[] midPointState = scratch[2];
+        int n = y.length;
+
+        equations.compute(t, y, k1);
+        for (int i = 0; i < n; i++) {
+            midPointState[i] = y[i] + 0.5 * stepSize * k1[i];
+        }
+        equations.compute(t + 0.5 * stepSize, midPointState, k2);
+        for (int i = 0; i < n; i++) {
+            y[i] += stepSize * k2[i];
+        }
+    }
 }
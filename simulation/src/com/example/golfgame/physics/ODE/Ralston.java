@@ -13,7 +13,7 @@ import com.example.golfgame.utils.Function;
  * (k1 and k2) to achieve a second-order accurate numerical solution. It is particularly known for its
  * accuracy and stability in solving stiff differential equations.
  */
-public class Ralston implements ODE {
+public class Ralston implements ODE, VectorODE {
 
     /**
      * Solves the differential equations using the Ralston method, calculating the state of the system
@@ -90,4 +90,29 @@ public class Ralston implements ODE {
 
         return values;
     }
+
+    /**
+     * Creates the buffers for the primitive Ralston step: the two slopes and the intermediate state.
+     */
+    @Override
+    public double[][] createScratch(int dimension) {
+        return new double[3][dimension];
+    }
+
+    @Override
+    public void step(DerivativeFunction equations, double t, double[] y, double stepSize, double[][] scratch) {
+        double[] k1 = scratch[0];
+        double[] k2 = scratch[1];
+        double[] midState = scratch[2];
+        int n = y.length;
+
+        equations.compute(t, y, k1);
+        for (int i = 0; i < n; i++) {
+            midState[i] = y[i] + 0.75 * stepSize * k1[i];
+        }
+        equations.compute(t + 0.75 * stepSize, midState, k2);
+        for (int i = 0; i < n; i++) {
+            y[i] += stepSize * ((1.0 / 3.0) * k1[i] + (2.0 / 3.0) * k2[i]);
+        }
+    }
 }
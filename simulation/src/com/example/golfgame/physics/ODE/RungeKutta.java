@@ -12,7 +12,7 @@ import com.example.golfgame.utils.Function;
  * The Runge-Kutta method is a fourth-order method that provides high accuracy for numerical solutions of ODEs
  * by computing four intermediate slopes (k1, k2, k3, k4) to estimate the next value of the dependent variable.
  */
-public class RungeKutta implements ODE {
+public class RungeKutta implements ODE, VectorODE {
 
     /**
      * Solves the differential equations using the fourth-order Runge-Kutta method. This method iteratively calculates
@@ -103,4 +103,40 @@ public class RungeKutta implements ODE {
         differentials.forEach((var, func) -> slope.put(var, func.evaluate(state)));
         return slope;
     }
+
+    /**
+     * Creates the buffers for the primitive Runge-Kutta step: the four slopes and the intermediate state.
+     */
+    @Override
+    public double[][] createScratch(int dimension) {
+        return new double[5][dimension];
+    }
+
+    @Override
+    public void step(DerivativeFunction equations, double t, double[] y, double stepSize, double[][] scratch) {
+        double[] k1 = scratch[0];
+        double[] k2 = scratch[1];
+        double[] k3 = scratch[2];
+        double[] k4 = scratch[3];
+        double[] intermediateState = scratch[4];
+        int n = y.length;
+        double halfStep = stepSize * 0.5;
+
+        equations.compute(t, y, k1);
+        for (int i = 0; i < n; i++) {
+            intermediateState[i] = y[i] + halfStep * k1[i];
+        }
+        equations.compute(t + halfStep, intermediateState, k2);
+        for (int i = 0; i < n; i++) {
+            intermediateState[i] = y[i] + halfStep * k2[i];
+        }
+        equations.compute(t + halfStep, intermediateState, k3);
+        for (int i = 0; i < n; i++) {
+            intermediateState[i] = y[i] + stepSize * k3[i];
+        }
+        equations.compute(t + stepSize, intermediateState, k4);
+        for (int i = 0; i < n; i++) {
+            y[i] += (stepSize / 6.0) * (k1[i] + 2 * k2[i] + 2 * k3[i] + k4[i]);
+        }
+    }
 }
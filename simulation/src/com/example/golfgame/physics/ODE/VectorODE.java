@@ -0,0 +1,61 @@
+package com.example.golfgame.physics.ODE;
+
+/**
+ * The VectorODE interface is the primitive counterpart of {@link ODE}. The state is a {@code double[]}
+ * that is advanced in place, the equations are a single {@link DerivativeFunction}, and every
+ * intermediate buffer is owned by the caller, so integrating a step does not allocate.
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * VectorODE solver = new RungeKutta();
+ * double[][] scratch = solver.createScratch(state.length); // once, reused for every step
+ * solver.step(equations, t, state, stepSize, scratch);
+ * }</pre>
+ */
+public interface VectorODE {
+
+    /**
+     * Allocates the scratch buffers this method needs for a system of the given dimension.
+     * The result can be reused for any number of steps, but not by two threads at once.
+     *
+     * @param dimension the number of entries in the state vector
+     * @return the scratch buffers to pass to {@link #step} and {@link #solve}
+     */
+    double[][] createScratch(int dimension);
+
+    /**
+     * Advances the state by a single step.
+     *
+     * @param equations the right-hand side of the system
+     * @param t the value of the independent variable at the start of the step
+     * @param y the state vector, overwritten with the state at {@code t + stepSize}
+     * @param stepSize the increment of the independent variable
+     * @param scratch buffers obtained from {@link #createScratch(int)} for the same dimension
+     */
+    void step(DerivativeFunction equations, double t, double[] y, double stepSize, double[][] scratch);
+
+    /**
+     * Advances the state with fixed steps from {@code t} up to the stopping point. As in
+     * {@link ODE#solve}, the number of steps is the whole number of step sizes that fit into the range.
+     *
+     * @param equations the right-hand side of the system
+     * @param t the initial value of the independent variable
+     * @param y the initial state vector, overwritten with the final state
+     * @param stepSize the increment of the independent variable; must be positive
+     * @param stoppingPoint the value of the independent variable at which to stop
+     * @param scratch buffers obtained from {@link #createScratch(int)} for the same dimension
+     * @return the value of the independent variable after the last step
+     * @throws IllegalArgumentException if the step size is non-positive
+     */
+    default double solve(DerivativeFunction equations, double t, double[] y, double stepSize, double stoppingPoint, double[][] scratch) {
+        if (stepSize <= 0) {
+            throw new IllegalArgumentException("Step size must be positive.");
+        }
+        int steps = (int) ((stoppingPoint - t) / stepSize);
+        for (int i = 0; i < steps; i++) {
+            step(equations, t, y, stepSize, scratch);
+            t += stepSize;
+        }
+        return t;
+    }
+}
@@ -0,0 +1,670 @@
+package com.example.golfgame.physics;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.golfgame.physics.ODE.*;
+import com.example.golfgame.utils.BallState;
+import com.example.golfgame.utils.Function;
+import com.example.golfgame.utils.HeightField;
+import com.example.golfgame.utils.SurfaceFunction;
+
+/**
+ * The PhysicsEngine class simulates the motion of a ball on a surface using
+ * differential equations to model the physics involved, including gravity
+ * and kinetic friction.
+ */
+public class PhysicsEngine {
+    private static final int STATE_DIMENSION = 4; // x, y, vx, vy
+    private static final double INITIAL_ADAPTIVE_STEP_SIZE = 0.001;
+    private static final double EVENT_TIME_TOLERANCE = 1e-9;
+    // Шаг проверки событий внутри адаптивного шага: точнее не нужно, чаще заметно дороже (вода вычисляет рельеф)
+    private static final double EVENT_SAMPLE_INTERVAL = 0.01;
+
+    /** Velocity along each axis below which the ball counts as resting. */
+    public static final double REST_THRESHOLD = 0.001;
+
+    private ODE solver;
+    private VectorODE vectorSolver; // The solver's primitive API, or null if it only implements ODE
+    private AdaptiveStepper adaptiveStepper; // Step size control, or null if the solver has no error estimate
+    private HeightField surfaceFunction;
+    private double g = 9.81; // Acceleration due to gravity, m/s^2
+    private double mu_k = 0.1; // Coefficient of kinetic friction
+    private double mu_s = 0.2; // Coefficient of static friction
+    private double deltaX = 0.01; // Increment for numerical derivative in x-direction
+    private double deltaY = 0.01; // Increment for numerical derivative in y-direction
+    private double deltaDirection = 0.01; // Increment for numerical derivative in given direction
+    private DerivativeMode derivativeMode = DerivativeMode.ANALYTIC;
+
+    // Reused by every primitive integration step
+    private final double[] state = new double[STATE_DIMENSION];
+    private double[][] scratch;
+    private final double[] previousState = new double[STATE_DIMENSION];
+    private final double[] stateBeforeEvent = new double[STATE_DIMENSION];
+    private final double[] startDerivative = new double[STATE_DIMENSION];
+    private final double[] endDerivative = new double[STATE_DIMENSION];
+    private final EventLocator eventLocator = new EventLocator(STATE_DIMENSION, EVENT_TIME_TOLERANCE);
+    private final BallState mapSolverState = new BallState(0, 0, 0, 0);
+    private int lastStepCount;
+    private final BallDynamics equationsOfMotion = new BallDynamics(new SurfaceGradient() {
+        @Override
+        public double slopeX(double x, double y) {
+            return derivativeX(x, y);
+        }
+
+        @Override
+        public double slopeY(double x, double y) {
+            return derivativeY(x, y);
+        }
+    }, g, mu_k);
+
+    /**
+     * Constructs a PhysicsEngine with a specific ODE solver and a surface function.
+     *
+     * @param solver the differential equation solver to use
+     * @param surfaceFunction the function representing the surface's height as a function of x and y
+     */
+    public PhysicsEngine(ODE solver, Function surfaceFunction) {
+        this(solver, new SurfaceFunction(surfaceFunction));
+    }
+
+    /**
+     * Constructs a PhysicsEngine with a specific ODE solver and a compiled or sampled surface.
+     *
+     * @param solver the differential equation solver to use
+     * @param surfaceFunction the surface's height as a function of x and y, e.g. a {@link SurfaceFunction}
+     *                        or a {@link com.example.golfgame.utils.SampledSurface}
+     */
+    public PhysicsEngine(ODE solver, HeightField surfaceFunction) {
+        setSolver(solver);
+        this.surfaceFunction = surfaceFunction;
+    }
+
+    /**
+     * Constructs a PhysicsEngine with a specific ODE solver, a surface function, and coefficients of friction.
+     *
+     * @param solver the differential equation solver to use
+     * @param surfaceFunction the function representing the surface's height as a function of x and y
+     * @param mu_k the coefficient of kinetic friction
+     * @param mu_s the coefficient of static friction
+     */
+    public PhysicsEngine(ODE solver, Function surfaceFunction, double mu_k, double mu_s) {
+        this(solver, new SurfaceFunction(surfaceFunction), mu_k, mu_s);
+    }
+
+    /**
+     * Constructs a PhysicsEngine with a specific ODE solver, a compiled or sampled surface, and coefficients of friction.
+     *
+     * @param solver the differential equation solver to use
+     * @param surfaceFunction the surface's height as a function of x and y
+     * @param mu_k the coefficient of kinetic friction
+     * @param mu_s the coefficient of static friction
+     */
+    public PhysicsEngine(ODE solver, HeightField surfaceFunction, double mu_k, double mu_s) {
+        setSolver(solver);
+        this.surfaceFunction = surfaceFunction;
+        setFriction(mu_k, mu_s);
+    }
+
+    /**
+     * Sets the solver and, if it supports the primitive API, allocates its scratch buffers.
+     */
+    private void setSolver(ODE solver) {
+        this.solver = solver;
+        if (solver instanceof VectorODE) {
+            this.vectorSolver = (VectorODE) solver;
+            this.scratch = vectorSolver.createScratch(STATE_DIMENSION);
+        } else {
+            this.vectorSolver = null;
+            this.scratch = null;
+        }
+        if (solver instanceof AdaptiveODE) {
+            this.adaptiveStepper = new AdaptiveStepper((AdaptiveODE) solver, STATE_DIMENSION, INITIAL_ADAPTIVE_STEP_SIZE);
+        } else {
+            this.adaptiveStepper = null;
+        }
+    }
+
+    /**
+     * Creates an engine with the same solver, surface, friction and derivative mode but its own integration
+     * buffers. An engine must not be used by several threads at once; give each thread its own copy instead.
+     *
+     * @return a new engine with the same configuration
+     */
+    public PhysicsEngine copy() {
+        return copy(solver);
+    }
+
+    /**
+     * Creates an engine with the same surface, friction and derivative mode but the given solver and its own
+     * integration buffers.
+     *
+     * @param solver the ODE solver of the new engine
+     * @return a new engine with the same configuration apart from the solver
+     */
+    public PhysicsEngine copy(ODE solver) {
+        PhysicsEngine copy = new PhysicsEngine(solver, surfaceFunction, mu_k, mu_s);
+        copy.setDerivativeMode(derivativeMode);
+        return copy;
+    }
+
+    /**
+     * Returns the ODE solver the engine integrates with.
+     *
+     * @return the solver
+     */
+    public ODE getSolver() {
+        return solver;
+    }
+
+    /**
+     * Returns the acceleration due to gravity.
+     *
+     * @return g in m/s^2
+     */
+    double getGravity() {
+        return g;
+    }
+
+    /**
+     * Returns the coefficient of kinetic friction.
+     *
+     * @return mu_k
+     */
+    double getKineticFriction() {
+        return mu_k;
+    }
+
+    /**
+     * Sets the coefficients of friction.
+     *
+     * @param mu_k the coefficient of kinetic friction
+     * @param mu_s the coefficient of static friction
+     */
+    public void setFriction(double mu_k, double mu_s) {
+        this.mu_k = mu_k;
+        this.mu_s = mu_s;
+        equationsOfMotion.setKineticFriction(mu_k);
+    }
+
+    /**
+     * Selects how slopes of the surface are calculated. Analytic derivatives are only used
+     * where the surface function could be differentiated symbolically; otherwise the engine
+     * falls back to finite differences.
+     *
+     * @param derivativeMode the derivative mode to use
+     */
+    public void setDerivativeMode(DerivativeMode derivativeMode) {
+        this.derivativeMode = derivativeMode;
+    }
+
+    /**
+     * Returns the selected derivative mode.
+     *
+     * @return the derivative mode
+     */
+    public DerivativeMode getDerivativeMode() {
+        return derivativeMode;
+    }
+
+    private boolean useAnalyticGradient() {
+        return derivativeMode == DerivativeMode.ANALYTIC && surfaceFunction.hasGradient();
+    }
+
+    private boolean useAnalyticHessian() {
+        return derivativeMode == DerivativeMode.ANALYTIC && surfaceFunction.hasHessian();
+    }
+
+    /**
+     * Calculates the derivative of the surface function along the x-axis at a given point.
+     *
+     * @param x the x-coordinate at which to calculate the derivative
+     * @param y the y-coordinate at which to calculate the derivative
+     * @return the derivative value along the x-axis
+     */
+    double derivativeX(double x, double y) {
+        if (useAnalyticGradient()) {
+            return surfaceFunction.derivativeX(x, y);
+        }
+        double h = deltaX;
+        return (-surfaceFunction.evaluate(x + 2 * h, y)
+                + 8 * surfaceFunction.evaluate(x + h, y)
+                - 8 * surfaceFunction.evaluate(x - h, y)
+                + surfaceFunction.evaluate(x - 2 * h, y))
+               / (12 * h);
+    }
+
+    /**
+     * Calculates the derivative of the surface function along the y-axis at a given point.
+     *
+     * @param x the x-coordinate at which to calculate the derivative
+     * @param y the y-coordinate at which to calculate the derivative
+     * @return the derivative value along the y-axis
+     */
+    double derivativeY(double x, double y) {
+        if (useAnalyticGradient()) {
+            return surfaceFunction.derivativeY(x, y);
+        }
+        double h = deltaY;
+        return (-surfaceFunction.evaluate(x, y + 2 * h)
+                + 8 * surfaceFunction.evaluate(x, y + h)
+                - 8 * surfaceFunction.evaluate(x, y - h)
+                + surfaceFunction.evaluate(x, y - 2 * h))
+               / (12 * h);
+    }
+
+    /**
+     * Calculates the slopes of the surface at many points at once.
+     *
+     * @param x the x-coordinates
+     * @param y the y-coordinates
+     * @param slopeX the array receiving the derivative along the x-axis at each point
+     * @param slopeY the array receiving the derivative along the y-axis at each point
+     * @param count the number of points, starting at index 0
+     */
+    void slopes(double[] x, double[] y, double[] slopeX, double[] slopeY, int count) {
+        if (useAnalyticGradient()) {
+            surfaceFunction.gradient(x, y, slopeX, slopeY, count);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            slopeX[i] = derivativeX(x[i], y[i]);
+            slopeY[i] = derivativeY(x[i], y[i]);
+        }
+    }
+
+    /**
+     * Calculates the derivative of the surface function along the direction vector at a given point.
+     * 
+     * @param x the x-coordinate at which to calculate the derivative
+     * @param y the y-coordinate at which to calculate the derivative
+     * @param xDirection x-component of the direction
+     * @param yDirection y-component of the direction
+     * @return the derivative along the direction axis
+     */
+    public double derivative(double x, double y, double xDirection, double yDirection){
+        if (useAnalyticGradient()) {
+            return surfaceFunction.derivativeX(x, y) * xDirection + surfaceFunction.derivativeY(x, y) * yDirection;
+        }
+        double h = deltaDirection;
+        return (-surfaceFunction.evaluate(x + xDirection * 2 * h, y + yDirection * 2 * h)
+                + 8 * surfaceFunction.evaluate(x + xDirection * h, y + yDirection * h)
+                - 8 * surfaceFunction.evaluate(x - xDirection * h, y - yDirection * h)
+                + surfaceFunction.evaluate(x - xDirection * 2 * h, y - yDirection * 2 * h))
+               / (12 * h);
+    }
+
+    /**
+     * Calculates the second derivative of the surface function along the direction vector at a given point.
+     * 
+     * @param x the x-coordinate at which to calculate the second derivative
+     * @param y the y-coordinate at which to calculate the second derivative
+     * @param xDirection x-component of the direction
+     * @param yDirection y-component of the direction
+     * @return the second derivative along the direction axis
+     */
+    public double secondDerivative(double x, double y, double xDirection, double yDirection){
+        if (useAnalyticHessian()) {
+            return surfaceFunction.derivativeXX(x, y) * xDirection * xDirection
+                    + 2 * surfaceFunction.derivativeXY(x, y) * xDirection * yDirection
+                    + surfaceFunction.derivativeYY(x, y) * yDirection * yDirection;
+        }
+        double h = deltaDirection;
+        return (-surfaceFunction.evaluate(x + xDirection * 2 * h, y + yDirection * 2 * h)
+                + 16 * surfaceFunction.evaluate(x + xDirection * h, y + yDirection * h)
+                - 30 * surfaceFunction.evaluate(x, y)
+                + 16 * surfaceFunction.evaluate(x - xDirection * h, y - yDirection * h)
+                - surfaceFunction.evaluate(x - xDirection * 2 * h, y - yDirection * 2 * h))
+               / (12 * h * h);
+    }
+
+    /**
+     * Generates a map of differential equations representing the dynamics of the ball based on its current state.
+     * The slopes are frozen at the ball's position. Only used for solvers that do not implement {@link VectorODE};
+     * the others integrate {@link BallDynamics} directly.
+     *
+     * @param ballState the current state of the ball including position and velocity
+     * @return a map of differential equations for each state variable
+     */
+    public Map<String, Function> getDifferentialEquations(BallState ballState) {
+        double dx = derivativeX(ballState.getX(), ballState.getY());
+        double dy = derivativeY(ballState.getX(), ballState.getY());
+
+        String expressionVx = ((-g * dx) / (1 + Math.pow(dx, 2) + Math.pow(dy, 2))) + "-"
+                + ((mu_k * g) / (Math.sqrt(1 + Math.pow(dx, 2) + Math.pow(dy, 2)))) + "*(vx/sqrt(vx^2 + vy^2 + (" + dx
+                + "*vx" + "+" + dy + "*vy)^2))";
+        String expressionVy = ((-g * dy) / (1 + Math.pow(dx, 2) + Math.pow(dy, 2)) + "-" + (mu_k * g)
+                / (Math.sqrt(1 + Math.pow(dx, 2) + Math.pow(dy, 2)))) + "*(vy/sqrt(vx^2 + vy^2 + (" + dx + "*vx" + "+"
+                + dy + "*vy)^2))";
+
+        Map<String, Function> differentials = new HashMap<>();
+        differentials.put("x", new Function("vx", "vx"));
+        differentials.put("y", new Function("vy", "vy"));
+        differentials.put("vx", new Function(expressionVx, "vx", "vy"));
+        differentials.put("vy", new Function(expressionVy, "vx", "vy"));
+
+        return differentials;
+    }
+
+    /**
+     * Updates the state of the ball over a given duration using the specified step size.
+     *
+     * @param ballState the initial state of the ball
+     * @param stepSize the time step size for the simulation
+     * @return the final state of the ball after simulation
+     */
+    public BallState update(BallState ballState, double stepSize) {
+        if (isAtRest(ballState)) {
+            if (canOvercomeStaticFriction(ballState)) {
+                return updateWithKineticFriction(ballState, stepSize);
+            }
+            return ballState;
+        } else {
+            return updateWithKineticFriction(ballState, stepSize);
+        }
+    }
+
+    /**
+     * Updates the state of the ball to a certain time using the specified step size.
+     *
+     * @param ballState the initial state of the ball
+     * @param stepSize the time step size for the simulation
+     * @param time the total time duration for the simulation
+     * @return the final state of the ball after simulation
+     */
+    public BallState updateToCertaintTime(BallState ballState, double stepSize, double time) {
+        if (isAtRest(ballState)) {
+            if (canOvercomeStaticFriction(ballState)) {
+                return updateWithKineticFriction(ballState, stepSize, time);
+            }
+            return ballState;
+        } else {
+            return updateWithKineticFriction(ballState, stepSize, time);
+        }
+    }
+
+    /**
+     * Checks if the solver controls its own step size, so that {@link #updateAdaptive(BallState)} takes
+     * steps of varying length.
+     *
+     * @return true if the solver implements {@link AdaptiveODE}
+     */
+    public boolean isAdaptive() {
+        return adaptiveStepper != null;
+    }
+
+    /**
+     * Advances the ball by one step whose size is chosen by the solver's error control. With a solver
+     * that is not adaptive, this is a single step of the given fallback size.
+     *
+     * @param ballState the state of the ball, updated in place
+     * @param fallbackStepSize the step size used if the solver is not adaptive
+     * @return the time the ball was advanced by
+     */
+    public double updateAdaptive(BallState ballState, double fallbackStepSize) {
+        if (adaptiveStepper == null) {
+            update(ballState, fallbackStepSize);
+            return fallbackStepSize;
+        }
+        if (isAtRest(ballState) && !canOvercomeStaticFriction(ballState)) {
+            return 0;
+        }
+        state[0] = ballState.getX();
+        state[1] = ballState.getY();
+        state[2] = ballState.getVx();
+        state[3] = ballState.getVy();
+
+        double stepSize = adaptiveStepper.step(equationsOfMotion, 0.0, state);
+
+        ballState.setAllComponents(state[0], state[1], state[2], state[3]);
+        return stepSize;
+    }
+
+    /**
+     * Starts a new trajectory for the adaptive step size control, restoring the initial step size.
+     * Call this before integrating a new shot.
+     */
+    public void resetStepControl() {
+        if (adaptiveStepper != null) {
+            adaptiveStepper.reset();
+        }
+    }
+
+    /**
+     * Returns the number of step attempts the adaptive solver rejected since the last
+     * {@link #resetStepControl()}.
+     *
+     * @return the number of rejected steps, or 0 if the solver is not adaptive
+     */
+    public int getRejectedSteps() {
+        return adaptiveStepper == null ? 0 : adaptiveStepper.getRejectedSteps();
+    }
+
+    /**
+     * Moves the ball until one of the given events occurs. Events are checked at the end of each step and,
+     * inside adaptive steps, every 0.01 s on the Hermite interpolant of the trajectory, so that an event lasting
+     * less than a long adaptive step, such as the ball rolling slowly across a corner of the goal area, is not
+     * missed. Once an event is active, the time at which it first occurred is located on the interpolant, so the
+     * ball stops exactly at the event rather than at the end of the step. If no event is active yet but the ball
+     * rests and static friction holds it, the ball stays where it is.
+     *
+     * @param ballState the state of the ball, updated in place to the state at the event
+     * @param fallbackStepSize the step size used if the solver is not adaptive
+     * @param events the events that end the motion, e.g. from {@link BallEvents}
+     * @return the index of the event that occurred, or -1 if the ball stopped because of static friction
+     */
+    public int updateUntilEvent(BallState ballState, double fallbackStepSize, EventFunction... events) {
+        state[0] = ballState.getX();
+        state[1] = ballState.getY();
+        state[2] = ballState.getVx();
+        state[3] = ballState.getVy();
+        System.arraycopy(state, 0, stateBeforeEvent, 0, STATE_DIMENSION);
+        lastStepCount = 0;
+        resetStepControl();
+
+        double t = 0.0;
+        int event = eventLocator.firstActive(events, t, state);
+        while (event < 0) {
+            if (isAtRest(state[2], state[3]) && !canOvercomeStaticFriction(state[0], state[1])) {
+                break;
+            }
+            System.arraycopy(state, 0, previousState, 0, STATE_DIMENSION);
+            double stepSize = advance(t, fallbackStepSize);
+            lastStepCount++;
+
+            if (adaptiveStepper != null) {
+                // Длинный адаптивный шаг проверяем внутри по интерполянту, иначе короткое событие (лунка) теряется
+                int samples = (int) Math.ceil(stepSize / EVENT_SAMPLE_INTERVAL);
+                event = eventLocator.locateInStep(events, t, previousState, adaptiveStepper.getStartDerivative(),
+                                                  t + stepSize, state, adaptiveStepper.getEndDerivative(), Math.max(1, samples));
+            } else if (eventLocator.firstActive(events, t + stepSize, state) >= 0) {
+                equationsOfMotion.compute(t, previousState, startDerivative);
+                equationsOfMotion.compute(t + stepSize, state, endDerivative);
+                event = eventLocator.locate(events, t, previousState, startDerivative, t + stepSize, state, endDerivative);
+            }
+            if (event >= 0) {
+                System.arraycopy(eventLocator.getEventState(), 0, state, 0, STATE_DIMENSION);
+                System.arraycopy(eventLocator.getStateBeforeEvent(), 0, stateBeforeEvent, 0, STATE_DIMENSION);
+            }
+            t += stepSize;
+        }
+
+        ballState.setAllComponents(state[0], state[1], state[2], state[3]);
+        return event;
+    }
+
+    /**
+     * Advances {@link #state} by one step of whichever kind the solver supports.
+     */
+    private double advance(double t, double fallbackStepSize) {
+        if (adaptiveStepper != null) {
+            return adaptiveStepper.step(equationsOfMotion, t, state);
+        }
+        if (vectorSolver != null) {
+            vectorSolver.step(equationsOfMotion, t, state, fallbackStepSize, scratch);
+        } else {
+            mapSolverState.setAllComponents(state[0], state[1], state[2], state[3]);
+            updateWithMapSolver(mapSolverState, fallbackStepSize, fallbackStepSize);
+            state[0] = mapSolverState.getX();
+            state[1] = mapSolverState.getY();
+            state[2] = mapSolverState.getVx();
+            state[3] = mapSolverState.getVy();
+        }
+        return fallbackStepSize;
+    }
+
+    /**
+     * Returns the number of steps the last call to {@link #updateUntilEvent} took.
+     *
+     * @return the number of steps
+     */
+    public int getLastStepCount() {
+        return lastStepCount;
+    }
+
+    /**
+     * Returns the state (x, y, vx, vy) just before the event located by the last call to
+     * {@link #updateUntilEvent}, in which that event was not yet active. Useful to put the ball back
+     * on dry land after it rolled into water. If the event was already active at the start, this is
+     * the initial state.
+     *
+     * @return a new ball state just before the last event
+     */
+    public BallState getStateBeforeEvent() {
+        return new BallState(stateBeforeEvent[0], stateBeforeEvent[1], stateBeforeEvent[2], stateBeforeEvent[3]);
+    }
+
+    /**
+     * Checks if the ball is at rest based on its velocity.
+     *
+     * @param ballState the current state of the ball
+     * @return true if the ball is at rest, false otherwise
+     */
+    public boolean isAtRest(BallState ballState) {
+        return isAtRest(ballState.getVx(), ballState.getVy());
+    }
+
+    private boolean isAtRest(double vx, double vy) {
+        return Math.abs(vx) < REST_THRESHOLD && Math.abs(vy) < REST_THRESHOLD;
+    }
+
+    /**
+     * Checks if the ball can overcome static friction to start moving.
+     *
+     * @param ballState the current state of the ball
+     * @return true if the ball can overcome static friction, false otherwise
+     */
+    private boolean canOvercomeStaticFriction(BallState ballState) {
+        return canOvercomeStaticFriction(ballState.getX(), ballState.getY());
+    }
+
+    boolean canOvercomeStaticFriction(double x, double y) {
+        double dx = derivativeX(x, y);
+        double dy = derivativeY(x, y);
+        double normalForce = g * (1 + Math.pow(dx, 2) + Math.pow(dy, 2));
+        double staticFrictionForce = mu_s * normalForce;
+        double gravitationalComponent = g * Math.sqrt(dx * dx + dy * dy);
+
+        return gravitationalComponent > staticFrictionForce;
+    }
+
+    /**
+     * Updates the state of the ball with kinetic friction over a given duration using the specified step size.
+     *
+     * @param ballState the initial state of the ball
+     * @param stepSize the time step size for the simulation
+     * @return the final state of the ball after simulation
+     */
+    private BallState updateWithKineticFriction(BallState ballState, double stepSize) {
+        return updateWithKineticFriction(ballState, stepSize, stepSize);
+    }
+
+    /**
+     * Updates the state of the ball with kinetic friction to a certain time using the specified step size.
+     * Solvers implementing {@link VectorODE} integrate {@link BallDynamics} in place on reusable buffers,
+     * re-sampling the slopes at every stage; other solvers go through the map-based {@link ODE} interface.
+     *
+     * @param ballState the initial state of the ball
+     * @param stepSize the time step size for the simulation
+     * @param time the total time duration for the simulation
+     * @return the final state of the ball after simulation
+     */
+    private BallState updateWithKineticFriction(BallState ballState, double stepSize, double time) {
+        if (vectorSolver == null) {
+            return updateWithMapSolver(ballState, stepSize, time);
+        }
+        state[0] = ballState.getX();
+        state[1] = ballState.getY();
+        state[2] = ballState.getVx();
+        state[3] = ballState.getVy();
+
+        vectorSolver.solve(equationsOfMotion, 0.0, state, stepSize, time, scratch);
+
+        ballState.setAllComponents(state[0], state[1], state[2], state[3]);
+        return ballState;
+    }
+
+    /**
+     * Updates the state of the ball through the map-based {@link ODE} interface.
+     *
+     * @param ballState the initial state of the ball
+     * @param stepSize the time step size for the simulation
+     * @param time the total time duration for the simulation
+     * @return the final state of the ball after simulation
+     */
+    private BallState updateWithMapSolver(BallState ballState, double stepSize, double time) {
+        Map<String, Function> differentials = getDifferentialEquations(ballState);
+        Map<String, Double> initialState = new HashMap<>();
+        initialState.put("x", ballState.getX());
+        initialState.put("y", ballState.getY());
+        initialState.put("vx", ballState.getVx());
+        initialState.put("vy", ballState.getVy());
+        initialState.put("t", 0.0);
+
+        List<Map<String, Double>> results = solver.solve(differentials, initialState, stepSize, time, "t");
+
+        if (results.isEmpty()) {
+            System.err.println("No states were returned by the ODE solver.");
+            return ballState;
+        }
+
+        Map<String, Double> finalState = results.get(results.size() - 1);
+        ballState.setX(finalState.get("x"));
+        ballState.setY(finalState.get("y"));
+        ballState.setVx(finalState.get("vx"));
+        ballState.setVy(finalState.get("vy"));
+        return ballState;
+    }
+
+    /**
+     * Returns the slope of the surface along the x-axis at a given point.
+     *
+     * @param x the x-coordinate at which to calculate the slope
+     * @param y the y-coordinate at which to calculate the slope
+     * @return the slope along the x-axis
+     */
+    public float getSlopeX(float x, float y) {
+        return (float) derivativeX(x, y);
+    }
+
+    /**
+     * Returns the slope of the surface along the y-axis at a given point.
+     *
+     * @param x the x-coordinate at which to calculate the slope
+     * @param y the y-coordinate at which to calculate the slope
+     * @return the slope along the y-axis
+     */
+    public float getSlopeY(float x, float y) {
+        return (float) derivativeY(x, y);
+    }
+
+    /**
+     * Returns the surface function.
+     *
+     * @return the surface function
+     */
+    public HeightField getSurfaceFunction() {
+        return surfaceFunction;
+    }
+}
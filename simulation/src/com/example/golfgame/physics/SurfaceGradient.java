@@ -0,0 +1,25 @@
+package com.example.golfgame.physics;
+
+/**
+ * Provides the slopes of a height surface h(x, y), i.e. its partial derivatives.
+ */
+public interface SurfaceGradient {
+
+    /**
+     * Returns the slope of the surface along the x-axis.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return dh/dx at (x, y)
+     */
+    double slopeX(double x, double y);
+
+    /**
+     * Returns the slope of the surface along the y-axis.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return dh/dy at (x, y)
+     */
+    double slopeY(double x, double y);
+}
@@ -0,0 +1,218 @@
+package com.example.golfgame.simulator;
+
+import com.example.golfgame.bot.agents.PPOAgent;
+import com.example.golfgame.utils.ppoUtils.RolloutBuffer;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipelined alternative to {@link PhysicsSimulator#runSimulation}: actor threads keep collecting rollouts
+ * while the learner trains on the previous one, so simulation and training overlap.
+ *
+ * <p>Each actor acts with its own copy of the agent and environments. Before every rollout it copies the
+ * latest published policy, which the learner republishes after each training call under an increasing
+ * version number. Finished rollouts go through a bounded queue, so actors wait instead of running ahead
+ * when the learner falls behind. A rollout's staleness is the number of policy updates between the
+ * version that collected it and the one it is trained on. The staleness of every batch is logged and
+ * kept, see {@link #getStalenessHistory()}.</p>
+ */
+public class ActorLearnerPipeline {
+    private static final long POLL_INTERVAL_MS = 500; // How often the learner checks on the actors while waiting
+
+    private final String heightFunction;
+    private final PPOAgent learner;
+    private final int actorCount;
+    private final int environmentsPerActor;
+    private final int queueCapacity;
+    private final long seed;
+    private final List<Integer> stalenessHistory = new ArrayList<>();
+    private volatile PolicyVersion latestPolicy;
+    private int observationResolution = 0; // 0: карта Terrain по умолчанию
+    private float observationCellSize;
+    private boolean observationEgoCentred;
+
+    /**
+     * A rollout and the version of the policy that collected it.
+     */
+    private static final class Rollout {
+        private final RolloutBuffer steps;
+        private final long policyVersion;
+
+        private Rollout(RolloutBuffer steps, long policyVersion) {
+            this.steps = steps;
+            this.policyVersion = policyVersion;
+        }
+    }
+
+    /**
+     * A snapshot of the learner's networks, published for the actors. It is never changed after publication.
+     */
+    private static final class PolicyVersion {
+        private final PPOAgent agent;
+        private final long version;
+
+        private PolicyVersion(PPOAgent agent, long version) {
+            this.agent = agent;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Constructs an ActorLearnerPipeline.
+     *
+     * @param heightFunction the function defining the terrain height.
+     * @param learner the agent to train; only the learner thread touches it.
+     * @param actorCount the number of actor threads.
+     * @param environmentsPerActor the number of parallel environments each actor steps, see {@link VectorizedSimulator}.
+     * @param queueCapacity the number of finished rollouts that may wait for the learner.
+     * @param seed the seed from which the random number generators of the actors are derived.
+     * @throws IllegalArgumentException if a count or the capacity is less than 1
+     */
+    public ActorLearnerPipeline(String heightFunction, PPOAgent learner, int actorCount, int environmentsPerActor,
+                                int queueCapacity, long seed) {
+        if (actorCount < 1 || environmentsPerActor < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Actors, environments per actor and queue capacity must be at least 1, got "
+                                               + actorCount + ", " + environmentsPerActor + " and " + queueCapacity);
+        }
+        this.heightFunction = heightFunction;
+        this.learner = learner;
+        this.actorCount = actorCount;
+        this.environmentsPerActor = environmentsPerActor;
+        this.queueCapacity = queueCapacity;
+        this.seed = seed;
+    }
+
+    /**
+     * Makes the actors observe a multi-channel crop, see {@link PhysicsSimulator#setObservation}. Takes
+     * effect for the actors started by the next {@link #run}.
+     *
+     * @param resolution the number of cells along each side of the crop
+     * @param cellSize the side of a cell in world units
+     * @param egoCentred whether the crop follows the ball
+     * @throws IllegalArgumentException if the resolution or cell size is not positive
+     */
+    public void setObservation(int resolution, float cellSize, boolean egoCentred) {
+        if (resolution < 1 || !(cellSize > 0)) {
+            throw new IllegalArgumentException("Resolution and cell size must be positive, got " + resolution + " and " + cellSize);
+        }
+        this.observationResolution = resolution;
+        this.observationCellSize = cellSize;
+        this.observationEgoCentred = egoCentred;
+    }
+
+    /**
+     * Trains the learner on rollouts from the actors until {@code total_timesteps} transitions have been
+     * trained on. Blocks until then; the actors are stopped before it returns.
+     *
+     * @param total_timesteps the number of transitions to train on
+     * @param n_steps_per_batch the number of transitions per rollout
+     * @param epochs_per_batch the number of epochs per rollout
+     * @param mini_batch_size the mini-batch size of training
+     * @throws IllegalStateException if an actor fails or the learner thread is interrupted
+     */
+    public void run(int total_timesteps, int n_steps_per_batch, int epochs_per_batch, int mini_batch_size) {
+        Random seeds = new Random(seed);
+        latestPolicy = new PolicyVersion(learner.snapshot(seeds.nextLong()), 0);
+        BlockingQueue<Rollout> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService actors = Executors.newFixedThreadPool(actorCount, runnable -> {
+            Thread thread = new Thread(runnable, "ppo-actor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<Void>> actorFutures = new ArrayList<>(actorCount);
+        for (int i = 0; i < actorCount; i++) {
+            final long actorSeed = seeds.nextLong();
+            actorFutures.add(actors.submit(() -> {
+                runActor(actorSeed, n_steps_per_batch, queue);
+                return null;
+            }));
+        }
+
+        int current_total_steps = 0;
+        long version = 0;
+        try {
+            while (current_total_steps < total_timesteps) {
+                Rollout rollout = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (rollout == null) {
+                    checkActors(actorFutures);
+                    continue;
+                }
+                RolloutBuffer batchData = rollout.steps;
+                int staleness = (int) (version - rollout.policyVersion);
+                stalenessHistory.add(staleness);
+
+                double totalRewardInBatch = batchData.getTotalReward();
+                System.out.println("--------------------");
+                System.out.printf("Batch %d (policy version %d, staleness %d). Steps: %d, Total Reward: %.4f, Average Reward: %.6f%n",
+                                  version + 1, rollout.policyVersion, staleness, batchData.size(),
+                                  totalRewardInBatch, totalRewardInBatch / Math.max(1, batchData.size()));
+
+                learner.train(batchData, epochs_per_batch, mini_batch_size, 0.0001, 0.0003);
+                version++;
+                latestPolicy = new PolicyVersion(learner.snapshot(seeds.nextLong()), version);
+                current_total_steps += batchData.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for rollouts", e);
+        } finally {
+            actors.shutdownNow();
+        }
+        System.out.println("--------------------");
+        System.out.println("Pipelined training finished after " + current_total_steps + " timesteps and " + version + " policy updates.");
+    }
+
+    /**
+     * Returns the staleness of every batch trained on so far, in training order: the number of policy
+     * updates between the policy that collected the batch and the one it was trained on.
+     *
+     * @return the staleness of each batch
+     */
+    public List<Integer> getStalenessHistory() {
+        return Collections.unmodifiableList(stalenessHistory);
+    }
+
+    // Цикл актора: обновить копию политики, собрать rollout, положить в очередь (ждет, если очередь полна)
+    private void runActor(long actorSeed, int n_steps, BlockingQueue<Rollout> queue) throws InterruptedException {
+        PolicyVersion policy = latestPolicy;
+        PPOAgent actorAgent = policy.agent.snapshot(actorSeed);
+        long actorVersion = policy.version;
+        VectorizedSimulator environments = new VectorizedSimulator(heightFunction, actorAgent, environmentsPerActor, actorSeed);
+        if (observationResolution > 0) {
+            environments.setObservation(observationResolution, observationCellSize, observationEgoCentred);
+        }
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                policy = latestPolicy;
+                if (policy.version != actorVersion) {
+                    actorAgent.copyNetworksFrom(policy.agent);
+                    actorVersion = policy.version;
+                }
+                queue.put(new Rollout(environments.collectRollout(n_steps), actorVersion));
+            }
+        } catch (IllegalStateException e) {
+            if (!Thread.currentThread().isInterrupted()) {
+                throw e;
+            }
+        }
+    }
+
+    private static void checkActors(List<Future<Void>> actorFutures) throws InterruptedException {
+        for (Future<Void> future : actorFutures) {
+            if (future.isDone()) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Actor failed", e.getCause());
+                }
+                throw new IllegalStateException("Actor stopped unexpectedly");
+            }
+        }
+    }
+}
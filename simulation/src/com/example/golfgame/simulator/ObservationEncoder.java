@@ -0,0 +1,226 @@
+package com.example.golfgame.simulator;
+
+import com.example.golfgame.utils.HeightField;
+import com.example.golfgame.utils.gameUtils.Terrain;
+import java.util.Arrays;
+
+/**
+ * Encodes what the agent sees as a square crop of the course with several channels, instead of one height map
+ * with the ball, goal and sand written over the heights:
+ * <ul>
+ *   <li>{@link #HEIGHT}: the terrain height, normalised to [-1, 1] over the course area;</li>
+ *   <li>{@link #SLOPE}: the steepness |grad h|, normalised to [0, 1] by the steepest point of the course area;</li>
+ *   <li>{@link #SAND}: 1 on sand, else 0;</li>
+ *   <li>{@link #WATER}: 1 on water, else 0;</li>
+ *   <li>{@link #TARGETS}: 1 at the ball, -1 at the goal, which wins if both share a cell. A goal outside the
+ *       crop is marked on the nearest border cell, so its direction stays visible.</li>
+ * </ul>
+ *
+ * <p>The crop is {@code resolution x resolution} cells of {@code cellSize} world units, centred on the ball
+ * (ego-centred) or on the centre of the course area. The four terrain channels are sampled once for the whole
+ * course area when the encoder is built, so an observation only copies rows of them and marks two cells. Cells
+ * outside the area are sampled directly from the terrain.</p>
+ *
+ * <p>The observation is a flat buffer of {@link #CHANNELS} planes: cell {@code (i, j)} of channel {@code c},
+ * {@code i} along x and {@code j} along y, is at {@code (c * resolution + i) * resolution + j}. After
+ * construction an encoder is immutable and can be shared between threads.</p>
+ */
+public class ObservationEncoder {
+    public static final int HEIGHT = 0, SLOPE = 1, SAND = 2, WATER = 3, TARGETS = 4;
+    public static final int CHANNELS = 5;
+    private static final int TERRAIN_CHANNELS = 4; // Каналы, которые не зависят от мяча и лунки
+
+    private final Terrain terrain;
+    private final int resolution;
+    private final float cellSize;
+    private final boolean egoCentred;
+    private final float minX, minY;
+    private final int columns, rows;         // Клетки области трассы по x и по y
+    private final double[][] courseChannels; // [канал][столбец * rows + строка] для всей области трассы
+    private final double minHeight, maxHeight, maxSlope; // Границы нормализации по области трассы
+
+    /**
+     * Constructs an ObservationEncoder and samples the terrain channels over the course area.
+     *
+     * @param terrain the terrain to observe
+     * @param minX the smallest x-coordinate of the course area
+     * @param minY the smallest y-coordinate of the course area
+     * @param maxX the largest x-coordinate of the course area
+     * @param maxY the largest y-coordinate of the course area
+     * @param resolution the number of cells along each side of the crop
+     * @param cellSize the side of a cell in world units
+     * @param egoCentred whether the crop follows the ball; otherwise it is centred on the course area
+     * @throws IllegalArgumentException if the resolution or cell size is not positive or the area is empty
+     */
+    public ObservationEncoder(Terrain terrain, float minX, float minY, float maxX, float maxY,
+                              int resolution, float cellSize, boolean egoCentred) {
+        if (resolution < 1 || !(cellSize > 0)) {
+            throw new IllegalArgumentException("Resolution and cell size must be positive, got " + resolution + " and " + cellSize);
+        }
+        if (!(maxX > minX) || !(maxY > minY)) {
+            throw new IllegalArgumentException("The course area must have a positive area.");
+        }
+        this.terrain = terrain;
+        this.resolution = resolution;
+        this.cellSize = cellSize;
+        this.egoCentred = egoCentred;
+        this.minX = minX;
+        this.minY = minY;
+        this.columns = (int) Math.ceil((maxX - minX) / cellSize) + 1;
+        this.rows = (int) Math.ceil((maxY - minY) / cellSize) + 1;
+
+        // Сначала сырые значения, затем нормализация по всей области
+        double[] cell = new double[TERRAIN_CHANNELS];
+        courseChannels = new double[TERRAIN_CHANNELS][columns * rows];
+        double lowest = Double.POSITIVE_INFINITY;
+        double highest = Double.NEGATIVE_INFINITY;
+        double steepest = 0;
+        for (int i = 0; i < columns; i++) {
+            for (int j = 0; j < rows; j++) {
+                sampleRaw(minX + i * cellSize, minY + j * cellSize, cell);
+                lowest = Math.min(lowest, cell[HEIGHT]);
+                highest = Math.max(highest, cell[HEIGHT]);
+                steepest = Math.max(steepest, cell[SLOPE]);
+                for (int c = 0; c < TERRAIN_CHANNELS; c++) {
+                    courseChannels[c][i * rows + j] = cell[c];
+                }
+            }
+        }
+        this.minHeight = lowest;
+        this.maxHeight = highest;
+        this.maxSlope = steepest;
+        for (int n = 0; n < columns * rows; n++) {
+            courseChannels[HEIGHT][n] = normalizeHeight(courseChannels[HEIGHT][n]);
+            courseChannels[SLOPE][n] = normalizeSlope(courseChannels[SLOPE][n]);
+        }
+    }
+
+    /**
+     * Returns the length of an observation, {@link #CHANNELS} * resolution * resolution.
+     *
+     * @return the number of values in an observation
+     */
+    public int getObservationSize() {
+        return CHANNELS * resolution * resolution;
+    }
+
+    /**
+     * Returns the number of cells along each side of the crop.
+     *
+     * @return the resolution of the crop
+     */
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Returns the side of a cell in world units.
+     *
+     * @return the cell size
+     */
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Returns whether the crop follows the ball.
+     *
+     * @return true if the crop is centred on the ball, false if on the course area
+     */
+    public boolean isEgoCentred() {
+        return egoCentred;
+    }
+
+    /**
+     * Writes the observation for the given ball and goal positions into a buffer.
+     *
+     * @param ballX the x-coordinate of the ball
+     * @param ballY the y-coordinate of the ball
+     * @param goalX the x-coordinate of the goal
+     * @param goalY the y-coordinate of the goal
+     * @param target the buffer to fill, of length {@link #getObservationSize()}
+     * @return the target buffer
+     * @throws IllegalArgumentException if the buffer has the wrong length
+     */
+    public double[] encode(float ballX, float ballY, float goalX, float goalY, double[] target) {
+        if (target.length != getObservationSize()) {
+            throw new IllegalArgumentException("Expected an observation buffer of length " + getObservationSize() + ", got " + target.length);
+        }
+        // Клетка области трассы, на которую приходится первая клетка crop'а (может лежать вне области)
+        int firstColumn, firstRow;
+        if (egoCentred) {
+            firstColumn = Math.round((ballX - minX) / cellSize) - resolution / 2;
+            firstRow = Math.round((ballY - minY) / cellSize) - resolution / 2;
+        } else {
+            firstColumn = (columns - resolution) / 2;
+            firstRow = (rows - resolution) / 2;
+        }
+
+        double[] cell = new double[TERRAIN_CHANNELS]; // Клетка вне области
+        int plane = resolution * resolution;
+        for (int i = 0; i < resolution; i++) {
+            int column = firstColumn + i;
+            // Клетки [firstInside, lastInside) столбца лежат в области и копируются целиком, остальные считаются напрямую
+            int firstInside = 0, lastInside = 0;
+            if (column >= 0 && column < columns) {
+                firstInside = Math.max(0, Math.min(resolution, -firstRow));
+                lastInside = Math.max(firstInside, Math.min(resolution, rows - firstRow));
+            }
+            if (lastInside > firstInside) {
+                for (int c = 0; c < TERRAIN_CHANNELS; c++) {
+                    System.arraycopy(courseChannels[c], column * rows + firstRow + firstInside,
+                                     target, c * plane + i * resolution + firstInside, lastInside - firstInside);
+                }
+            }
+            for (int j = 0; j < resolution; j++) {
+                if (j >= firstInside && j < lastInside) {
+                    continue;
+                }
+                sampleRaw(minX + column * cellSize, minY + (firstRow + j) * cellSize, cell);
+                cell[HEIGHT] = Math.max(-1, Math.min(1, normalizeHeight(cell[HEIGHT])));
+                cell[SLOPE] = Math.min(1, normalizeSlope(cell[SLOPE]));
+                for (int c = 0; c < TERRAIN_CHANNELS; c++) {
+                    target[c * plane + i * resolution + j] = cell[c];
+                }
+            }
+        }
+
+        int targets = TARGETS * plane;
+        Arrays.fill(target, targets, targets + plane, 0.0);
+        target[targets + cropIndex(ballX, minX, firstColumn) * resolution + cropIndex(ballY, minY, firstRow)] = 1;
+        target[targets + cropIndex(goalX, minX, firstColumn) * resolution + cropIndex(goalY, minY, firstRow)] = -1;
+        return target;
+    }
+
+    // Индекс клетки crop'а вдоль одной оси, прижатый к краю, если точка вне crop'а
+    private int cropIndex(float coordinate, float min, int first) {
+        int index = Math.round((coordinate - min) / cellSize) - first;
+        return Math.max(0, Math.min(resolution - 1, index));
+    }
+
+    // Высота, |grad h|, песок и вода в точке, без нормализации
+    private void sampleRaw(float x, float y, double[] cell) {
+        HeightField heightField = terrain.getHeightFunction();
+        double slopeX, slopeY;
+        if (heightField.hasGradient()) {
+            slopeX = heightField.derivativeX(x, y);
+            slopeY = heightField.derivativeY(x, y);
+        } else {
+            double step = cellSize * 0.5;
+            slopeX = (heightField.evaluate(x + step, y) - heightField.evaluate(x - step, y)) / (2 * step);
+            slopeY = (heightField.evaluate(x, y + step) - heightField.evaluate(x, y - step)) / (2 * step);
+        }
+        cell[HEIGHT] = heightField.evaluate(x, y);
+        cell[SLOPE] = Math.sqrt(slopeX * slopeX + slopeY * slopeY);
+        cell[SAND] = terrain.isBallOnSand(x, y) ? 1 : 0;
+        cell[WATER] = terrain.isWater(x, y) ? 1 : 0;
+    }
+
+    private double normalizeHeight(double height) {
+        return maxHeight > minHeight ? 2 * (height - minHeight) / (maxHeight - minHeight) - 1 : 0;
+    }
+
+    private double normalizeSlope(double slope) {
+        return maxSlope > 0 ? slope / maxSlope : 0;
+    }
+}
@@ -0,0 +1,683 @@
+package com.example.golfgame.simulator;
+
+import com.example.golfgame.bot.agents.CheckpointManager;
+import com.example.golfgame.bot.agents.PPOAgent;
+import com.example.golfgame.utils.*;
+import com.example.golfgame.utils.gameUtils.GolfRules;
+import com.example.golfgame.utils.gameUtils.Terrain;
+import com.example.golfgame.utils.ppoUtils.Action;
+import com.example.golfgame.utils.ppoUtils.State;
+import com.example.golfgame.utils.ppoUtils.RolloutBuffer;
+import com.example.golfgame.physics.BallEvents;
+import com.example.golfgame.physics.MultiBallEngine;
+import com.example.golfgame.physics.PhysicsEngine;
+import com.example.golfgame.physics.ODE.EventFunction;
+import com.example.golfgame.physics.ODE.ODE;
+import com.example.golfgame.physics.ODE.RungeKutta;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class PhysicsSimulator {
+    private PhysicsEngine engine;
+    private BallState ball;
+    private BallState goal;
+    private static final Random SHARED_RANDOM = new Random(2024);
+    private Random random = SHARED_RANDOM; // Общий для всех симуляторов, пока не задан setSeed
+    private PPOAgent agent;
+    private boolean inWater = false;
+    private Terrain terrain;
+    private List<SurfaceFunction> functions = new ArrayList<>();
+    private int lastShotSteps = 0;
+    private ExecutorService executor = ForkJoinPool.commonPool();
+    private VectorizedSimulator environments; // Если задан, runSimulation собирает данные через него
+    private ObservationEncoder observationEncoder; // Если задан, getState возвращает многоканальное наблюдение
+
+    private static final double GOAL_RADIUS = 1.5; // Radius for goal reward
+    private static final double PENALTY_WATER = -3; // Penalty for hitting water
+    private static final double PENALTY_SAND = -1; // Penalty for being on sand
+    private static final double REWARD_GOAL = 5; // Reward for reaching the goal
+
+    private static final int EVENT_WATER = 0, EVENT_GOAL = 1;
+    private static final float SPAWN_RADIUS = 10; // Distance from the goal at which episodes start
+    private static final int CHUNKS_PER_PROCESSOR = 4; // Tasks per core for evaluateShots, to balance uneven shot lengths
+
+    private static final float engineStepSize = 0.001f;
+
+    /**
+     * Constructs a PhysicsSimulator with specified height function and agent.
+     *
+     * @param heightFunction the function defining the terrain height.
+     * @param agent the PPOAgent used for the simulation.
+     */
+    public PhysicsSimulator(String heightFunction, PPOAgent agent) {
+        addFunction(heightFunction);
+        SurfaceFunction fheightFunction = new SurfaceFunction(heightFunction);
+        this.engine = new PhysicsEngine(new RungeKutta(), fheightFunction);
+        this.ball = new BallState(0, 0, 0, 0);
+        // Карта 10x10 (stateDim=100) по умолчанию; другое разрешение и каналы задает setObservation
+        this.terrain = new Terrain(fheightFunction, 10, 10, 1, 1);
+        this.agent = agent;
+        this.goal = new BallState(-7, 7, 0, 0); // Пример цели
+    }
+    
+    /**
+     * Constructs a PhysicsSimulator with specified height function and goal state.
+     *
+     * @param heightFunction the function defining the terrain height.
+     * @param goal the target goal state.
+     */
+    public PhysicsSimulator(Function heightFunction, BallState goal) {
+        SurfaceFunction surfaceFunction = new SurfaceFunction(heightFunction);
+        this.engine = new PhysicsEngine(new RungeKutta(), surfaceFunction);
+        this.ball = new BallState(0, 0, 0, 0);
+        this.terrain = new Terrain(surfaceFunction);
+        this.goal = goal;
+    }
+
+    /**
+     * Constructs a PhysicsSimulator with specified height function, goal state, and solver.
+     *
+     * @param heightFunction the function defining the terrain height.
+     * @param goal the target goal state.
+     * @param solver the ODE solver used for the simulation.
+     */
+    public PhysicsSimulator(Function heightFunction, BallState goal, ODE solver){
+        SurfaceFunction surfaceFunction = new SurfaceFunction(heightFunction);
+        this.engine = new PhysicsEngine(solver, surfaceFunction);
+        this.ball = new BallState(0, 0, 0.001, 0.001);
+        this.terrain = new Terrain(surfaceFunction);
+        this.goal = goal;
+    }
+
+    /**
+     * Changes the height function used in the simulation.
+     *
+     * @param heightFunction the new function defining the terrain height.
+     */
+    public void changeHeightFunction(Function heightFunction){
+        SurfaceFunction surfaceFunction = new SurfaceFunction(heightFunction);
+        this.engine = new PhysicsEngine(new RungeKutta(), surfaceFunction);
+        this.terrain = new Terrain(surfaceFunction);
+        if (observationEncoder != null) {
+            setObservation(observationEncoder.getResolution(), observationEncoder.getCellSize(), observationEncoder.isEgoCentred());
+        }
+    }
+
+    /**
+     * Changes the ODE solver used for the simulation, keeping the current height function, friction and
+     * derivative mode.
+     * Passing an {@link com.example.golfgame.physics.ODE.AdaptiveODE} such as
+     * {@link com.example.golfgame.physics.ODE.DormandPrince} makes {@link #hit(float, float)}
+     * choose its step sizes adaptively.
+     *
+     * @param solver the ODE solver to use
+     */
+    public void setSolver(ODE solver) {
+        this.engine = engine.copy(solver);
+    }
+
+    /**
+     * Returns the number of integration steps the last call to {@link #hit(float, float)} took.
+     *
+     * @return the number of steps of the last shot
+     */
+    public int getLastShotSteps() {
+        return lastShotSteps;
+    }
+
+    /**
+     * Performs a hit simulation.
+     *
+     * @param velocityMagnitude the magnitude of the velocity
+     * @param angle the angle of the hit
+     * @return the new ball state
+     */
+    public BallState hit(float velocityMagnitude, float angle) {
+        // System.out.printf("Hitting with force: %.2f and angle: %.2f\n", velocityMagnitude, angle);
+        ShotResult result = simulateShot(engine, ball, velocityMagnitude, angle);
+        BallState ballCopy = result.getFinalState();
+        inWater = result.isInWater();
+        lastShotSteps = result.getSteps();
+
+        if (result.isInWater()) {
+            System.out.println("Ball in water!");
+            return ballCopy;
+        }
+        if (result.isGoalReached()) {
+            System.out.println("Goal reached in simulator!");
+            return ballCopy;
+        }
+
+        // Check if the ball is on sand
+        if (terrain.isBallOnSand((float) ballCopy.getX(), (float) ballCopy.getY())) {
+            System.out.println("Ball on sand!");
+        }
+
+        // System.out.printf("New ball position: (%.2f, %.2f) after %d steps\n", ballCopy.getX(), ballCopy.getY(), lastShotSteps);
+        return ballCopy;
+    }
+
+    /**
+     * Simulates a shot without touching the state of this simulator.
+     *
+     * @param engine the engine to integrate with; used by the calling thread only
+     * @param start the position the ball is hit from
+     * @param velocityMagnitude the magnitude of the velocity
+     * @param angle the angle of the hit
+     * @return the outcome of the shot
+     */
+    private ShotResult simulateShot(PhysicsEngine engine, BallState start, double velocityMagnitude, double angle) {
+        BallState ballCopy = new BallState(start.getX(), start.getY(), 0, 0);
+        ballCopy.setVx(-velocityMagnitude * Math.cos(angle));
+        ballCopy.setVy(-velocityMagnitude * Math.sin(angle));
+
+        int event = engine.updateUntilEvent(ballCopy, engineStepSize, shotEvents(engine));
+
+        if (event == EVENT_WATER) {
+            BallState lastDryState = engine.getStateBeforeEvent();
+            ballCopy.setX(lastDryState.getX());
+            ballCopy.setY(lastDryState.getY());
+        }
+        return new ShotResult(ballCopy, event == EVENT_WATER, event == EVENT_GOAL, engine.getLastStepCount());
+    }
+
+    /**
+     * Simulates shots on the multi-ball engine, which advances all of them together.
+     *
+     * @param engine the engine providing the surface and friction; only read
+     * @param start the position the ball is hit from
+     * @param speeds the magnitude of the velocity of each shot
+     * @param angles the angle of each shot
+     * @param first the index of the first shot to simulate
+     * @param last the index after the last shot to simulate
+     * @param results the array receiving the outcome of each shot
+     */
+    private void simulateShots(PhysicsEngine engine, BallState start, double[] speeds, double[] angles,
+                               int first, int last, ShotResult[] results) {
+        MultiBallEngine balls = new MultiBallEngine(engine, engineStepSize, last - first);
+        for (int i = first; i < last; i++) {
+            balls.addBall(start.getX(), start.getY(), -speeds[i] * Math.cos(angles[i]), -speeds[i] * Math.sin(angles[i]));
+        }
+        balls.run(shotEvents(engine));
+        for (int i = first; i < last; i++) {
+            int id = i - first;
+            int event = balls.getEvent(id);
+            BallState finalState = balls.getFinalState(id);
+            if (event == EVENT_WATER) {
+                BallState lastDryState = balls.getStateBeforeEvent(id);
+                finalState.setX(lastDryState.getX());
+                finalState.setY(lastDryState.getY());
+            }
+            results[i] = new ShotResult(finalState, event == EVENT_WATER, event == EVENT_GOAL, balls.getSteps(id));
+        }
+    }
+
+    /**
+     * The events that end a shot: the ball rolls into water, drops into the hole or comes to rest.
+     * The engine locates each of these exactly within the step in which it happens.
+     */
+    private EventFunction[] shotEvents(PhysicsEngine engine) {
+        return new EventFunction[] {
+            BallEvents.water(engine.getSurfaceFunction()),
+            BallEvents.goal(goal.getX(), goal.getY(), GolfRules.getSimulatorGoalRadius(), GolfRules.GOAL_MAX_SPEED),
+            BallEvents.rest(PhysicsEngine.REST_THRESHOLD)
+        };
+    }
+
+    /**
+     * Simulates a batch of shots from the same position in parallel on the executor of this simulator
+     * (see {@link #setExecutor(ExecutorService)}). Unlike {@link #hit(float, float)} this neither reads
+     * nor changes the ball of the simulator and prints nothing, so it may be called from several threads.
+     * With the default {@link RungeKutta} solver each task advances its shots together on a
+     * {@link MultiBallEngine}; other solvers integrate the shots one by one on a copy of the engine.
+     *
+     * @param start the position the ball is hit from; its velocity is ignored
+     * @param speeds the magnitude of the velocity of each shot
+     * @param angles the angle of each shot
+     * @return the outcome of each shot, in the order of the arguments
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public ShotResult[] evaluateShots(BallState start, double[] speeds, double[] angles) {
+        if (speeds.length != angles.length) {
+            throw new IllegalArgumentException("Expected one angle per speed, got " + speeds.length + " speeds and " + angles.length + " angles.");
+        }
+        final BallState from = start.deepCopy();
+        final PhysicsEngine prototype = engine;
+        final ShotResult[] results = new ShotResult[speeds.length];
+        int chunkCount = Math.min(speeds.length, Runtime.getRuntime().availableProcessors() * CHUNKS_PER_PROCESSOR);
+        List<Callable<Void>> tasks = new ArrayList<>(chunkCount);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            final int first = (int) ((long) speeds.length * chunk / chunkCount);
+            final int last = (int) ((long) speeds.length * (chunk + 1) / chunkCount);
+            tasks.add(() -> {
+                if (prototype.getSolver() instanceof RungeKutta) {
+                    simulateShots(prototype, from, speeds, angles, first, last, results);
+                    return null;
+                }
+                PhysicsEngine taskEngine = prototype.copy();
+                for (int i = first; i < last; i++) {
+                    results[i] = simulateShot(taskEngine, from, speeds[i], angles[i]);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating shots", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to evaluate shots", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Sets the executor {@link #evaluateShots} runs on. Defaults to the common fork-join pool.
+     *
+     * @param executor the executor to use
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Gives this simulator its own random number generator for episode resets and random hits, instead of
+     * the one shared by all simulators.
+     *
+     * @param seed the seed of the new generator
+     */
+    public void setSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Makes {@link #runSimulation} collect its transitions from the given parallel environments instead of
+     * stepping this simulator.
+     *
+     * @param environments the environments to collect from, or null to step this simulator
+     */
+    public void setEnvironments(VectorizedSimulator environments) {
+        this.environments = environments;
+    }
+
+    /**
+     * Performs a hit simulation and returns the path.
+     *
+     * @param velocityMagnitude the magnitude of the velocity
+     * @param angle the angle of the hit
+     * @return a Pair containing the final BallState and the path of the ball as a list of ball states
+     */
+    public Pair<BallState, List<BallState>> hitWithPath(float velocityMagnitude, float angle) {
+        inWater = false;
+        BallState lastPosition = ball.deepCopy();
+        BallState ballCopy = ball.deepCopy();
+        // System.out.printf("Hitting with force: %.2f and angle: %.2f\n", velocityMagnitude, angle);
+        ballCopy.setVx(-velocityMagnitude * Math.cos(angle));
+        ballCopy.setVy(-velocityMagnitude * Math.sin(angle));
+        List<BallState> path = new ArrayList<>();
+        path.add(ballCopy.deepCopy());
+
+        BallState lastBallState = null;
+        do {
+            if (terrain.isWater((float) ballCopy.getX(), (float) ballCopy.getY())) { // Water
+                System.out.println("Ball in water!");
+                inWater = true;
+                ballCopy.setX(lastPosition.getX());
+                ballCopy.setY(lastPosition.getY());
+                return new Pair<>(ballCopy, path);
+            }
+            lastBallState = new BallState(ballCopy.getX(), ballCopy.getY(), ballCopy.getVx(), ballCopy.getVy());
+            engine.update(ballCopy, engineStepSize);
+            path.add(ballCopy.deepCopy());
+        } while (!ballCopy.epsilonEquals(lastBallState, 0));
+
+        if (terrain.isBallOnSand((float) ballCopy.getX(), (float) ballCopy.getY())) { // Sand
+            System.out.println("Ball on sand!");
+        }
+
+        // System.out.printf("New ball position: (%.2f, %.2f)\n", ballCopy.getX(), ballCopy.getY());
+        return new Pair<>(ballCopy, path);
+    }
+
+    /**
+     * Performs a single hit simulation at a specified position.
+     *
+     * @param velocityMagnitude the magnitude of the velocity
+     * @param angle the angle of the hit
+     * @param ballPosition the position of the ball
+     * @return the new ball state
+     */
+    public BallState singleHit(float velocityMagnitude, float angle, BallState ballPosition){
+        resetBallPosition(ballPosition);
+        return hit(velocityMagnitude, angle);
+    }
+
+    /**
+     * Computes the reward based on the ball state.
+     *
+     * @param currentBall the current ball state
+     * @param lastPosition the last position of the ball
+     * @param win whether the goal is reached
+     * @param isBallInWater whether the ball is in water
+     * @return the computed reward
+     */
+    public double getReward(BallState currentBall, BallState lastPosition, boolean win, boolean isBallInWater) {
+        double distanceToGoal = currentBall.distanceTo(goal);
+        double lastDistanceToGoal = lastPosition.distanceTo(goal);
+
+        // Reward calculation
+        double reward = lastDistanceToGoal - distanceToGoal;
+
+        if (distanceToGoal < GOAL_RADIUS) {
+            System.out.println("");
+            System.out.println("Goal Reached");
+            System.out.println("");
+            return REWARD_GOAL;
+        }
+        if (isBallInWater) {
+            return reward + PENALTY_WATER;
+        }
+        if (terrain.isBallOnSand((float) currentBall.getX(), (float) currentBall.getY())) {
+            return reward + PENALTY_SAND;
+        }
+        if (reward < 0) {
+            double penaltyFactor = Math.exp(Math.abs(reward) / 10.0); // Exponential function
+            reward -= penaltyFactor * 10; // Increase the penalty
+        }
+        return reward;
+    }
+
+    /**
+     * Performs multiple hit simulations.
+     *
+     * @param velocityMagnitudes array of velocity magnitudes
+     * @param angles array of angles
+     * @return array of resulting ball states
+     */
+    public BallState[] hit(float[] velocityMagnitudes, float[] angles) {
+        BallState[] res = new BallState[velocityMagnitudes.length];
+        for (int i = 0; i < velocityMagnitudes.length; i++) {
+            res[i] = hit(velocityMagnitudes[i], angles[i]);
+            resetBallPosition();
+        }
+        return res;
+    }
+
+    /**
+     * Resets the ball position to the initial state.
+     */
+    private void resetBallPosition() {
+        ball.setX(0);
+        ball.setY(0);
+    }
+
+    /**
+     * Resets the ball position to a specified state.
+     *
+     * @param ballPosition the position to reset the ball to
+     */
+    private void resetBallPosition(BallState ballPosition){
+        ball.setX(ballPosition.getX());
+        ball.setY(ballPosition.getY());
+    }
+    
+    /**
+     * Performs random hit simulations within a certain radius of the goal.
+     *
+     * @param n number of simulations
+     * @param goal target goal state
+     * @param radius radius around the goal
+     * @return array of resulting ball states
+     */
+    public BallState[] randomHits(int n, BallState goal, float radius) {
+        BallState[] res = new BallState[n];
+        for (int i = 0; i < n; i++) {
+            float ballX = random.nextFloat() * (2 * radius) - radius;
+            float ballY = random.nextBoolean() ? (float) Math.sqrt(radius * radius - ballX * ballX) : -(float) Math.sqrt(radius * radius - ballX * ballX);
+            ballX += goal.getX();
+            ballY += goal.getY();
+            ball.setX(ballX);
+            ball.setY(ballY);
+            float velocityMagnitude = random.nextFloat() * (5 - 1) + 1;
+            float angle = random.nextFloat() * (2 * (float) Math.PI);
+            res[i] = hit(velocityMagnitude, angle);
+        }
+        return res;
+    }
+
+    /**
+     * Sets the ball position.
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     */
+    public void setPosition(float x, float y) {
+        ball.setX(x);
+        ball.setY(y);
+    }
+
+    /**
+     * Switches the observation from the 10x10 height map of the {@link Terrain} to a multi-channel
+     * crop built by an {@link ObservationEncoder}. The encoder samples the terrain once over the area where
+     * episodes are played: the spawn circle around the goal plus half a crop on each side.
+     *
+     * @param resolution the number of cells along each side of the crop
+     * @param cellSize the side of a cell in world units
+     * @param egoCentred whether the crop follows the ball; otherwise it is centred on the goal
+     * @throws IllegalArgumentException if the resolution or cell size is not positive
+     */
+    public void setObservation(int resolution, float cellSize, boolean egoCentred) {
+        float reach = SPAWN_RADIUS + resolution * cellSize / 2 + cellSize;
+        float goalX = (float) goal.getX(), goalY = (float) goal.getY();
+        this.observationEncoder = new ObservationEncoder(terrain, goalX - reach, goalY - reach, goalX + reach, goalY + reach,
+                                                         resolution, cellSize, egoCentred);
+    }
+
+    /**
+     * Returns the length of the observations returned by {@link #getState()}.
+     *
+     * @return the number of values in an observation
+     */
+    public int getObservationSize() {
+        return observationEncoder != null
+            ? observationEncoder.getObservationSize()
+            : terrain.getTerrainWidth() * terrain.getTerrainHeight();
+    }
+
+    /**
+     * Returns the current state of the terrain.
+     *
+     * @return a flattened array representing the normalized height map with marked ball, goal, and sand positions,
+     *         or the channels of the {@link ObservationEncoder} if one was set with {@link #setObservation}
+     */
+    public double[] getState() {
+        return getState(new double[getObservationSize()]);
+    }
+
+    /**
+     * Writes the current state of the terrain into a buffer, e.g. one reused for every step of a rollout.
+     * Only the ball and goal cells are computed per call; the terrain layer is cached by the
+     * {@link Terrain} or the {@link ObservationEncoder}.
+     *
+     * @param target the buffer to fill, of length {@link #getObservationSize()}
+     * @return the target buffer
+     * @throws IllegalArgumentException if the buffer has the wrong length
+     */
+    public double[] getState(double[] target) {
+        float ballX = (float) ball.getX(), ballY = (float) ball.getY();
+        float goalX = (float) goal.getX(), goalY = (float) goal.getY();
+        if (observationEncoder != null) {
+            return observationEncoder.encode(ballX, ballY, goalX, goalY, target);
+        }
+        return terrain.getState(ballX, ballY, goalX, goalY, target);
+    }
+
+    /**
+     * Saves the height map as an image.
+     */
+    public void image(){
+        Terrain.saveHeightMapAsImage(terrain.getNormalizedMarkedHeightMap((float) ball.getX(), (float) ball.getY(), (float) goal.getX(), (float) goal.getY()), "height_map", "png");
+    }
+
+    /**
+     * Adds a function to the list of functions.
+     *
+     * @param function the function to add
+     */
+    public void addFunction(String function){
+        functions.add(new SurfaceFunction(function));
+    }
+    /**
+     * Resets the episode and plays {@code n_steps} shots chosen by the agent, resetting whenever an episode
+     * ends.
+     *
+     * @param n_steps the number of steps to collect
+     * @return the steps in the order they were played
+     */
+    public RolloutBuffer collectRollout(int n_steps) {
+        // Сбрасываем состояние симулятора (позиция мяча и т.д.)
+        resetSimulationState();
+        double[] stateArray = getState(); // Один буфер наблюдения на весь rollout
+        RolloutBuffer rollout = new RolloutBuffer(n_steps, stateArray.length);
+    
+        for (int current_step = 0; current_step < n_steps; current_step++) {
+            // 1. Получить текущее состояние (state)
+            // 2. Выбрать действие (action) с помощью agent.selectAction(state)
+            // 3. Выполнить действие в симуляторе (step)
+            if (current_step > 0) {
+                getState(stateArray);
+            }
+            // Заодно сохраняем V(s) и лог-вероятность действия для обучения
+            Action action = agent.selectAction(new State(stateArray), rollout, current_step); // Или selectRandomAction в начале
+            step(rollout, current_step, stateArray, action);
+        }
+        // Последний шаг обрывает траекторию: сохраняем оценку наблюдения после него
+        if (n_steps > 0 && !rollout.isDone(n_steps - 1)) {
+            rollout.setNextValue(n_steps - 1, agent.estimateValue(new State(getState(stateArray))));
+        }
+        return rollout;
+    }
+
+    /**
+     * Plays one shot of an episode from the current ball position and moves the ball to where it stopped,
+     * or resets the episode if the shot ended it (goal or water). {@link #getState()} then returns the
+     * observation for the next step.
+     *
+     * @param rollout the rollout to record the step in
+     * @param index the index of the step in the rollout
+     * @param state the state observed before the shot, i.e. {@link #getState()} at the current position
+     * @param action the shot to play
+     */
+    void step(RolloutBuffer rollout, int index, double[] state, Action action) {
+        BallState lastBallStateBeforeHit = ball.deepCopy(); // Сохраняем состояние ДО удара
+        BallState newBallStateAfterHit = hit((float) action.getForce(), (float) action.getAngle());
+
+        boolean win = GolfRules.isSimulatorGoal(newBallStateAfterHit, goal);
+        // `inWater` устанавливается внутри `hit`
+        double reward = getReward(newBallStateAfterHit, lastBallStateBeforeHit, win, inWater);
+        boolean done = win || inWater /* || isOutOfBounds(...) */;
+        rollout.set(index, state, action, reward, done);
+
+        // Если эпизод закончился (победа, вода, и т.д.), сбросить состояние симулятора
+        if (done) {
+            resetSimulationState();
+        } else {
+            // Обновляем текущее состояние мяча для следующего шага
+            ball.set(newBallStateAfterHit.getX(), newBallStateAfterHit.getY(),
+                     newBallStateAfterHit.getVx(), newBallStateAfterHit.getVy());
+        }
+    }
+
+    void resetSimulationState() {
+        // Например, случайная позиция в радиусе или всегда из (0,0)
+         float radius = SPAWN_RADIUS;
+         float ballX = random.nextFloat() * (2 * radius) - radius;
+         float ballY = random.nextBoolean() ? (float) Math.sqrt(radius * radius - ballX * ballX) : -(float) Math.sqrt(radius * radius - ballX * ballX);
+         ballX += goal.getX();
+         ballY += goal.getY();
+         ball.set(ballX, ballY, 0, 0); // Сброс скорости
+         inWater = false;
+         // Другие необходимые сбросы
+    }
+    
+    public void runSimulation(int total_timesteps, int n_steps_per_batch, int epochs_per_batch, int mini_batch_size) {
+        runSimulation(total_timesteps, n_steps_per_batch, epochs_per_batch, mini_batch_size, null);
+    }
+
+    /**
+     * Runs the training loop like {@link #runSimulation(int, int, int, int)}, saving checkpoints of the agent
+     * whenever {@code checkpoints} says one is due and once more at the end. The batch and timestep counters
+     * continue from the checkpoint the manager resumed from, if any, so a resumed run stops at the same
+     * {@code total_timesteps} as an uninterrupted one.
+     *
+     * @param total_timesteps the number of timesteps to train for
+     * @param n_steps_per_batch the number of steps collected per batch
+     * @param epochs_per_batch the number of epochs per batch
+     * @param mini_batch_size the mini-batch size of training
+     * @param checkpoints the checkpoint manager, or null to save no checkpoints
+     */
+    public void runSimulation(int total_timesteps, int n_steps_per_batch, int epochs_per_batch, int mini_batch_size,
+                              CheckpointManager checkpoints) {
+        int current_total_steps = checkpoints != null ? checkpoints.getResumedTimesteps() : 0;
+        int batch_num = checkpoints != null ? checkpoints.getResumedBatch() : 0;
+
+        // --- НАЧАЛО ЦИКЛА WHILE ---
+        while(current_total_steps < total_timesteps) { // Условие проверяется здесь
+            batch_num++;
+            System.out.println("--------------------");
+            System.out.println("Starting Batch " + batch_num);
+            // --- ВЫВОД СООБЩЕНИЯ ---
+            // Вот это сообщение выводится ПЕРЕД сбором данных для ТЕКУЩЕГО батча
+            System.out.println("Collecting data... Timestep " + current_total_steps + "/" + total_timesteps);
+
+            RolloutBuffer batchData = environments != null
+                ? environments.collectRollout(n_steps_per_batch)
+                : collectRollout(n_steps_per_batch);
+
+            // --- Логирование Наград (без изменений) ---
+            if (batchData != null && batchData.size() > 0) {
+                double totalRewardInBatch = batchData.getTotalReward();
+                double averageReward = totalRewardInBatch / batchData.size();
+                System.out.printf("Batch %d finished collecting. Steps: %d, Total Reward: %.4f, Average Reward: %.6f%n",
+                                batch_num, batchData.size(), totalRewardInBatch, averageReward);
+            } else {
+                System.out.println("Batch " + batch_num + " finished collecting. No data collected.");
+                if (n_steps_per_batch > 0) {
+                    System.err.println("Warning: No data collected, potentially stuck. Check simulator logic.");
+                    break;
+                }
+            }
+
+            // --- Обучение (без изменений) ---
+            if (batchData != null && batchData.size() > 0) {
+                System.out.println("Training on collected data (" + batchData.size() + " transitions)...");
+                agent.train(batchData, epochs_per_batch, mini_batch_size, 0.0001, 0.0003);
+            }
+
+            // --- Обновление счетчика ---
+            // Счетчик обновляется ПОСЛЕ обучения на батче
+            current_total_steps += (batchData != null ? batchData.size() : 0);
+
+            // Снимок параметров берется здесь, запись на диск идет в фоне, пока собирается следующий батч
+            if (checkpoints != null && checkpoints.isDue(batch_num)) {
+                checkpoints.save(agent, batch_num, current_total_steps);
+            }
+
+        } // --- КОНЕЦ ЦИКЛА WHILE ---
+        if (checkpoints != null) {
+            checkpoints.save(agent, batch_num, current_total_steps); // Ничего не делает, если этот батч уже сохранен
+        }
+        // Условие current_total_steps < total_timesteps проверяется снова
+
+        System.out.println("--------------------");
+        // Этот вывод происходит ПОСЛЕ выхода из цикла while
+        System.out.println("Simulation finished after " + current_total_steps + " timesteps.");
+    }
+}
\ No newline at end of file
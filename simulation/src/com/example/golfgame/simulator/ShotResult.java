@@ -0,0 +1,75 @@
+package com.example.golfgame.simulator;
+
+import com.example.golfgame.utils.BallState;
+
+/**
+ * The outcome of one simulated shot: where the ball ended up, whether it went into water or the hole,
+ * and how many integration steps the shot took.
+ */
+public class ShotResult {
+    private final BallState finalState;
+    private final boolean inWater;
+    private final boolean goalReached;
+    private final int steps;
+
+    /**
+     * Constructs a shot result.
+     *
+     * @param finalState the state of the ball at the end of the shot; for a shot into water, the last dry position
+     * @param inWater whether the ball rolled into water
+     * @param goalReached whether the ball dropped into the hole
+     * @param steps the number of integration steps the shot took
+     */
+    public ShotResult(BallState finalState, boolean inWater, boolean goalReached, int steps) {
+        this.finalState = finalState;
+        this.inWater = inWater;
+        this.goalReached = goalReached;
+        this.steps = steps;
+    }
+
+    /**
+     * Returns the state of the ball at the end of the shot.
+     *
+     * @return the final ball state
+     */
+    public BallState getFinalState() {
+        return finalState;
+    }
+
+    /**
+     * Checks whether the ball rolled into water.
+     *
+     * @return true if the shot ended in water
+     */
+    public boolean isInWater() {
+        return inWater;
+    }
+
+    /**
+     * Checks whether the ball dropped into the hole.
+     *
+     * @return true if the shot reached the goal
+     */
+    public boolean isGoalReached() {
+        return goalReached;
+    }
+
+    /**
+     * Returns the number of integration steps the shot took.
+     *
+     * @return the number of steps
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    @Override
+    public String toString() {
+        return "ShotResult{" +
+                "finalState=" + finalState +
+                ", inWater=" + inWater +
+                ", goalReached=" + goalReached +
+                ", steps=" + steps +
+                '}';
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.golfgame.simulator;
+
+import com.example.golfgame.bot.agents.PPOAgent;
+import com.example.golfgame.utils.ppoUtils.Action;
+import com.example.golfgame.utils.ppoUtils.State;
+import com.example.golfgame.utils.ppoUtils.RolloutBuffer;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Collects PPO transitions from several independent {@link PhysicsSimulator} environments at once. Each
+ * environment has its own ball, goal and random number generator. Every step the observations of all
+ * environments go through the policy network in one batched forward pass, and the environments then play
+ * their shots in parallel on the executor (see {@link #setExecutor(ExecutorService)}).
+ *
+ * <p>{@link #collectRollout(int)} returns the trajectory of each environment as one contiguous run,
+ * environment after environment, so the backward GAE recursion of {@link PPOAgent#train} follows each
+ * trajectory in order.</p>
+ */
+public class VectorizedSimulator {
+    private final PhysicsSimulator[] environments;
+    private final PPOAgent agent;
+    private ExecutorService executor = ForkJoinPool.commonPool();
+
+    /**
+     * Constructs a VectorizedSimulator with the given number of environments on the same terrain.
+     *
+     * @param heightFunction the function defining the terrain height.
+     * @param agent the PPOAgent that selects the actions.
+     * @param environmentCount the number of environments.
+     * @param seed the seed from which the random number generator of each environment is derived.
+     * @throws IllegalArgumentException if environmentCount is less than 1
+     */
+    public VectorizedSimulator(String heightFunction, PPOAgent agent, int environmentCount, long seed) {
+        if (environmentCount < 1) {
+            throw new IllegalArgumentException("Number of environments must be at least 1, got " + environmentCount);
+        }
+        this.agent = agent;
+        this.environments = new PhysicsSimulator[environmentCount];
+        Random seeds = new Random(seed);
+        for (int i = 0; i < environmentCount; i++) {
+            environments[i] = new PhysicsSimulator(heightFunction, agent);
+            environments[i].setSeed(seeds.nextLong());
+        }
+    }
+
+    /**
+     * Returns the number of environments.
+     *
+     * @return the number of environments
+     */
+    public int getEnvironmentCount() {
+        return environments.length;
+    }
+
+    /**
+     * Switches every environment to a multi-channel observation, see {@link PhysicsSimulator#setObservation}.
+     *
+     * @param resolution the number of cells along each side of the crop
+     * @param cellSize the side of a cell in world units
+     * @param egoCentred whether the crop follows the ball
+     */
+    public void setObservation(int resolution, float cellSize, boolean egoCentred) {
+        for (PhysicsSimulator environment : environments) {
+            environment.setObservation(resolution, cellSize, egoCentred);
+        }
+    }
+
+    /**
+     * Sets the executor the environments play their shots on. Defaults to the common fork-join pool.
+     *
+     * @param executor the executor to use
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Resets every environment and collects {@code n_steps} steps, split as evenly as possible between
+     * the environments. The steps of environment 0 come first, in the order they happened, then those
+     * of environment 1, and so on. Each step carries the value estimate and log-probability recorded when
+     * its action was selected, and the last step of each environment the value estimate of the observation
+     * after it, unless it ended an episode.
+     *
+     * @param n_steps the number of steps to collect
+     * @return the collected steps, grouped by environment
+     */
+    public RolloutBuffer collectRollout(int n_steps) {
+        final int count = environments.length;
+        final double[][] states = new double[count][];
+        final int[] offsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            // Лишние шаги достаются первым средам, поэтому активные среды всегда образуют префикс
+            offsets[i + 1] = offsets[i] + n_steps / count + (i < n_steps % count ? 1 : 0);
+            environments[i].resetSimulationState();
+            states[i] = environments[i].getState();
+        }
+        final RolloutBuffer rollout = new RolloutBuffer(n_steps, states[0].length);
+        final State[] observations = new State[count];
+        final int[] indices = new int[count];
+        final Action[] actions = new Action[count];
+
+        int maxSteps = offsets[1] - offsets[0];
+        for (int step = 0; step < maxSteps; step++) {
+            int active = 0;
+            while (active < count && offsets[active + 1] - offsets[active] > step) {
+                active++;
+            }
+            // Один батчевый проход политики на все активные среды
+            for (int i = 0; i < active; i++) {
+                observations[i] = new State(states[i]);
+                indices[i] = offsets[i] + step;
+            }
+            Action[] selected = active == count
+                ? agent.selectActions(observations, rollout, indices)
+                : agent.selectActions(Arrays.copyOf(observations, active), rollout, Arrays.copyOf(indices, active));
+            System.arraycopy(selected, 0, actions, 0, active);
+
+            List<Callable<Void>> tasks = new ArrayList<>(active);
+            for (int i = 0; i < active; i++) {
+                final int env = i;
+                final int index = offsets[env] + step;
+                tasks.add(() -> {
+                    environments[env].step(rollout, index, states[env], actions[env]);
+                    environments[env].getState(states[env]); // Буфер наблюдения среды переиспользуется
+                    return null;
+                });
+            }
+            runAll(tasks);
+        }
+
+        // Траектории обрываются посреди эпизода: одним проходом оцениваем наблюдения после последних шагов
+        int cut = 0;
+        for (int i = 0; i < count; i++) {
+            if (offsets[i + 1] > offsets[i] && !rollout.isDone(offsets[i + 1] - 1)) {
+                observations[cut] = new State(states[i]);
+                indices[cut++] = offsets[i + 1] - 1;
+            }
+        }
+        if (cut > 0) {
+            double[] values = agent.estimateValues(Arrays.copyOf(observations, cut));
+            for (int i = 0; i < cut; i++) {
+                rollout.setNextValue(indices[i], values[i]);
+            }
+        }
+        return rollout;
+    }
+
+    private void runAll(List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while stepping environments", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to step environments", e.getCause());
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.golfgame.utils;
 
-import com.badlogic.gdx.math.Vector2;
-import com.example.golfgame.screens.GolfGameScreen;
+import com.example.golfgame.utils.gameUtils.GolfRules;
 
 /**
  * Represents the state of a golf ball, including its position and velocity components.
@@ -200,9 +199,11 @@ public class BallState {
      * Normalizes the position vector of this BallState.
      */
     public void positionNor() {
-        Vector2 pos = new Vector2((float) x, (float) y).nor();
-        x = pos.x;
-        y = pos.y;
+        double length = Math.sqrt(x * x + y * y);
+        if (length != 0) {
+            x /= length;
+            y /= length;
+        }
     }
 
     /**
@@ -215,26 +216,6 @@ public class BallState {
         return Math.sqrt(Math.pow(this.x - other.x, 2) + Math.pow(this.y - other.y, 2));
     }
 
-    /**
-     * Checks if the ball is in water using the game screen.
-     *
-     * @param gameScreen the game screen to check the water status.
-     * @return true if the ball is in water, false otherwise.
-     */
-    public boolean isInWater(GolfGameScreen gameScreen) {
-        return gameScreen.isBallInWater(this);
-    }
-
-    /**
-     * Checks if the ball is out of bounds using the game screen.
-     *
-     * @param gameScreen the game screen to check the out-of-bounds status.
-     * @return true if the ball is out of bounds, false otherwise.
-     */
-    public boolean isOutOfBounds(GolfGameScreen gameScreen) {
-        return gameScreen.isBallOutOfBounds(this);
-    }
-
     /**
      * Checks if the ball is in the goal.
      *
@@ -242,7 +223,7 @@ public class BallState {
      * @return true if the ball is in the goal, false otherwise.
      */
     public boolean isInGoal(BallState goalState) {
-        return epsilonPositionEquals(goalState, GolfGameScreen.getGoalTolerance());
+        return epsilonPositionEquals(goalState, GolfRules.getGoalTolerance());
     }
 
     /**
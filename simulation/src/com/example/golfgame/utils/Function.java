@@ -11,6 +11,7 @@ import java.util.Map;
  */
 public class Function {
     private Expression expression;
+    private String expressionString;
     private String[] variables;
 
     /**
@@ -30,6 +31,7 @@ public class Function {
      * }</pre>
      */
     public Function(String expressionString, String... variables) {
+        this.expressionString = expressionString;
         this.variables = variables;
         this.expression = new ExpressionBuilder(expressionString)
                 .variables(variables)  // Declare all variables used in the expression
@@ -56,4 +58,13 @@ public class Function {
         }
         return expression.evaluate();
     }
+
+    /**
+     * Returns the expression this function was built from.
+     *
+     * @return the expression string
+     */
+    public String getExpressionString() {
+        return expressionString;
+    }
 }
@@ -0,0 +1,103 @@
+package com.example.golfgame.utils;
+
+/**
+ * A terrain height h(x, y) together with its partial derivatives. Implemented by the compiled
+ * {@link SurfaceFunction} and by the precomputed {@link SampledSurface}, so that the physics engine
+ * and the terrain manager can run against either one.
+ *
+ * <p>Implementations must be safe to query from several threads at once.</p>
+ */
+public interface HeightField {
+
+    /**
+     * Evaluates the height at the given coordinates.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the height of the surface at (x, y)
+     */
+    double evaluate(double x, double y);
+
+    /**
+     * Checks whether first derivatives are available from {@link #derivativeX} and {@link #derivativeY}.
+     *
+     * @return true if the gradient can be queried
+     */
+    boolean hasGradient();
+
+    /**
+     * Checks whether second derivatives are available from {@link #derivativeXX}, {@link #derivativeXY}
+     * and {@link #derivativeYY}.
+     *
+     * @return true if the Hessian can be queried
+     */
+    boolean hasHessian();
+
+    /**
+     * Evaluates the partial derivative dh/dx.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the slope of the surface along the x-axis
+     * @throws IllegalStateException if {@link #hasGradient()} is false
+     */
+    double derivativeX(double x, double y);
+
+    /**
+     * Evaluates the partial derivative dh/dy.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the slope of the surface along the y-axis
+     * @throws IllegalStateException if {@link #hasGradient()} is false
+     */
+    double derivativeY(double x, double y);
+
+    /**
+     * Evaluates the gradient at many points at once. Implementations can override this to share work
+     * between the two partial derivatives or to keep the loop free of calls.
+     *
+     * @param x the x-coordinates
+     * @param y the y-coordinates
+     * @param slopeX the array receiving dh/dx at each point
+     * @param slopeY the array receiving dh/dy at each point
+     * @param count the number of points, starting at index 0
+     * @throws IllegalStateException if {@link #hasGradient()} is false
+     */
+    default void gradient(double[] x, double[] y, double[] slopeX, double[] slopeY, int count) {
+        for (int i = 0; i < count; i++) {
+            slopeX[i] = derivativeX(x[i], y[i]);
+            slopeY[i] = derivativeY(x[i], y[i]);
+        }
+    }
+
+    /**
+     * Evaluates the second derivative d2h/dx2.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the xx entry of the Hessian
+     * @throws IllegalStateException if {@link #hasHessian()} is false
+     */
+    double derivativeXX(double x, double y);
+
+    /**
+     * Evaluates the mixed second derivative d2h/dxdy.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the xy entry of the Hessian
+     * @throws IllegalStateException if {@link #hasHessian()} is false
+     */
+    double derivativeXY(double x, double y);
+
+    /**
+     * Evaluates the second derivative d2h/dy2.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the yy entry of the Hessian
+     * @throws IllegalStateException if {@link #hasHessian()} is false
+     */
+    double derivativeYY(double x, double y);
+}
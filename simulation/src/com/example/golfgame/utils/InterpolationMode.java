@@ -0,0 +1,9 @@
+package com.example.golfgame.utils;
+
+/**
+ * Enum representing how a {@link SampledSurface} interpolates between its grid samples.
+ */
+public enum InterpolationMode {
+    BILINEAR, // Bilinear height; the gradient is the bilinear interpolation of the sampled gradient
+    BICUBIC // Bicubic Hermite patches from height, gradient and cross derivative; smooth across cells
+}
@@ -6,6 +6,10 @@ import java.util.Arrays;
  * Utility class for various matrix operations commonly used in neural network computations.
  */
 public class MatrixUtils {
+    // Number of matrix rows processed together by the flat kernels
+    private static final int ROW_TILE = 4;
+    // Length of the blocks the shared dimension of gemm is split into
+    private static final int DEPTH_BLOCK = 128;
 
     /**
      * Adds a bias vector to each element of a vector.
@@ -74,6 +78,222 @@ public class MatrixUtils {
         return result;
     }
 
+    /**
+     * Multiplies a row-major matrix by a vector: {@code result = matrix * vector}.
+     *
+     * <p>Rows are processed in tiles of four, so every element of the vector is loaded once per
+     * tile and the tile's running sums stay in registers. Each sum runs over the columns in order, so the
+     * result is exactly that of {@link #multiplyMatrixAndVector(double[][], double[])}.</p>
+     *
+     * @param matrix The matrix, stored row by row in a flat array of length {@code rows * cols}.
+     * @param rows   The number of rows of the matrix.
+     * @param cols   The number of columns of the matrix.
+     * @param vector The input vector of length {@code cols}.
+     * @param result The output vector of length {@code rows}; overwritten.
+     * @throws IllegalArgumentException if the array lengths do not match the dimensions.
+     */
+    public static void gemv(double[] matrix, int rows, int cols, double[] vector, double[] result) {
+        if (matrix.length < rows * cols || vector.length < cols || result.length < rows) {
+            throw new IllegalArgumentException("Matrix and vector dimensions do not match");
+        }
+        int row = 0;
+        for (; row + ROW_TILE <= rows; row += ROW_TILE) {
+            int offset0 = row * cols;
+            int offset1 = offset0 + cols;
+            int offset2 = offset1 + cols;
+            int offset3 = offset2 + cols;
+            double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+            for (int col = 0; col < cols; col++) {
+                double x = vector[col];
+                sum0 += matrix[offset0 + col] * x;
+                sum1 += matrix[offset1 + col] * x;
+                sum2 += matrix[offset2 + col] * x;
+                sum3 += matrix[offset3 + col] * x;
+            }
+            result[row] = sum0;
+            result[row + 1] = sum1;
+            result[row + 2] = sum2;
+            result[row + 3] = sum3;
+        }
+        for (; row < rows; row++) {
+            int offset = row * cols;
+            double sum = 0;
+            for (int col = 0; col < cols; col++) {
+                sum += matrix[offset + col] * vector[col];
+            }
+            result[row] = sum;
+        }
+    }
+
+    /**
+     * Multiplies two row-major matrices: {@code result = first * second}.
+     *
+     * <p>The shared dimension is split into blocks so the rows of the second matrix
+     * that a block touches stay in cache, and the rows of the result are updated in tiles of
+     * four, so every loaded element of the second matrix is used for four rows. The innermost
+     * loop runs along contiguous rows, which the JIT vectorises. Each element is summed over the shared
+     * dimension in order, so the result is exactly that of {@link #multiplyMatrices(double[][], double[][])}.</p>
+     *
+     * @param first  The first matrix, {@code rows x inner}, stored row by row.
+     * @param rows   The number of rows of the first matrix.
+     * @param inner  The number of columns of the first matrix and rows of the second.
+     * @param second The second matrix, {@code inner x cols}, stored row by row.
+     * @param cols   The number of columns of the second matrix.
+     * @param result The product, {@code rows x cols}, stored row by row; overwritten.
+     * @throws IllegalArgumentException if the array lengths do not match the dimensions.
+     */
+    public static void gemm(double[] first, int rows, int inner, double[] second, int cols, double[] result) {
+        if (first.length < rows * inner || second.length < inner * cols || result.length < rows * cols) {
+            throw new IllegalArgumentException("Matrix multiplication dimensions do not match: " +
+                                               rows + "," + inner + " and " + inner + "," + cols + " not compatible");
+        }
+        Arrays.fill(result, 0, rows * cols, 0.0);
+        for (int blockStart = 0; blockStart < inner; blockStart += DEPTH_BLOCK) {
+            int blockEnd = Math.min(blockStart + DEPTH_BLOCK, inner);
+            int row = 0;
+            for (; row + ROW_TILE <= rows; row += ROW_TILE) {
+                int out0 = row * cols;
+                int out1 = out0 + cols;
+                int out2 = out1 + cols;
+                int out3 = out2 + cols;
+                for (int k = blockStart; k < blockEnd; k++) {
+                    double a0 = first[row * inner + k];
+                    double a1 = first[(row + 1) * inner + k];
+                    double a2 = first[(row + 2) * inner + k];
+                    double a3 = first[(row + 3) * inner + k];
+                    int in = k * cols;
+                    for (int col = 0; col < cols; col++) {
+                        double b = second[in + col];
+                        result[out0 + col] += a0 * b;
+                        result[out1 + col] += a1 * b;
+                        result[out2 + col] += a2 * b;
+                        result[out3 + col] += a3 * b;
+                    }
+                }
+            }
+            for (; row < rows; row++) {
+                int out = row * cols;
+                for (int k = blockStart; k < blockEnd; k++) {
+                    double a = first[row * inner + k];
+                    int in = k * cols;
+                    for (int col = 0; col < cols; col++) {
+                        result[out + col] += a * second[in + col];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Multiplies a row-major matrix by the transpose of another: {@code result = first * second^T}.
+     *
+     * <p>Every element of the result is the dot product of a row of each operand, so both are read along
+     * contiguous rows. Rows of the first matrix are processed in tiles of four sharing each load from the
+     * second, with the running sums in registers. Each sum runs over the shared dimension in order.</p>
+     *
+     * @param first  The first matrix, {@code rows x inner}, stored row by row.
+     * @param rows   The number of rows of the first matrix.
+     * @param inner  The number of columns of both matrices.
+     * @param second The second matrix, {@code cols x inner}, stored row by row.
+     * @param cols   The number of rows of the second matrix.
+     * @param result The product, {@code rows x cols}, stored row by row; overwritten.
+     * @throws IllegalArgumentException if the array lengths do not match the dimensions.
+     */
+    public static void gemmTransposeSecond(double[] first, int rows, int inner, double[] second, int cols, double[] result) {
+        if (first.length < rows * inner || second.length < cols * inner || result.length < rows * cols) {
+            throw new IllegalArgumentException("Matrix multiplication dimensions do not match: " +
+                                               rows + "," + inner + " and " + inner + "," + cols + " not compatible");
+        }
+        int row = 0;
+        for (; row + ROW_TILE <= rows; row += ROW_TILE) {
+            int offset0 = row * inner;
+            int offset1 = offset0 + inner;
+            int offset2 = offset1 + inner;
+            int offset3 = offset2 + inner;
+            for (int col = 0; col < cols; col++) {
+                int in = col * inner;
+                double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+                for (int k = 0; k < inner; k++) {
+                    double b = second[in + k];
+                    sum0 += first[offset0 + k] * b;
+                    sum1 += first[offset1 + k] * b;
+                    sum2 += first[offset2 + k] * b;
+                    sum3 += first[offset3 + k] * b;
+                }
+                result[row * cols + col] = sum0;
+                result[(row + 1) * cols + col] = sum1;
+                result[(row + 2) * cols + col] = sum2;
+                result[(row + 3) * cols + col] = sum3;
+            }
+        }
+        for (; row < rows; row++) {
+            int offset = row * inner;
+            for (int col = 0; col < cols; col++) {
+                int in = col * inner;
+                double sum = 0;
+                for (int k = 0; k < inner; k++) {
+                    sum += first[offset + k] * second[in + k];
+                }
+                result[row * cols + col] = sum;
+            }
+        }
+    }
+
+    /**
+     * Multiplies the transpose of a row-major matrix by another: {@code result = first^T * second}, without
+     * materialising the transpose.
+     *
+     * <p>Row {@code k} of the first matrix is column {@code k} of its transpose, so the kernel walks the rows of
+     * both operands together and adds {@code first[k][i] * second[k]} to row {@code i} of the result, four
+     * result rows at a time so each loaded row of the second matrix is reused. All accesses run along
+     * contiguous rows. Each element is summed over the shared dimension in order, so the result is exactly
+     * that of {@link #gemm} on the explicit transpose.</p>
+     *
+     * @param first  The first matrix, {@code inner x rows}, stored row by row.
+     * @param inner  The number of rows of both matrices.
+     * @param rows   The number of columns of the first matrix, i.e. rows of the result.
+     * @param second The second matrix, {@code inner x cols}, stored row by row.
+     * @param cols   The number of columns of the second matrix.
+     * @param result The product, {@code rows x cols}, stored row by row; overwritten.
+     * @throws IllegalArgumentException if the array lengths do not match the dimensions.
+     */
+    public static void gemmTransposeFirst(double[] first, int inner, int rows, double[] second, int cols, double[] result) {
+        if (first.length < inner * rows || second.length < inner * cols || result.length < rows * cols) {
+            throw new IllegalArgumentException("Matrix multiplication dimensions do not match: " +
+                                               rows + "," + inner + " and " + inner + "," + cols + " not compatible");
+        }
+        Arrays.fill(result, 0, rows * cols, 0.0);
+        for (int k = 0; k < inner; k++) {
+            int weightsRow = k * rows;
+            int in = k * cols;
+            int row = 0;
+            for (; row + ROW_TILE <= rows; row += ROW_TILE) {
+                double a0 = first[weightsRow + row];
+                double a1 = first[weightsRow + row + 1];
+                double a2 = first[weightsRow + row + 2];
+                double a3 = first[weightsRow + row + 3];
+                int out0 = row * cols;
+                int out1 = out0 + cols;
+                int out2 = out1 + cols;
+                int out3 = out2 + cols;
+                for (int col = 0; col < cols; col++) {
+                    double b = second[in + col];
+                    result[out0 + col] += a0 * b;
+                    result[out1 + col] += a1 * b;
+                    result[out2 + col] += a2 * b;
+                    result[out3 + col] += a3 * b;
+                }
+            }
+            for (; row < rows; row++) {
+                double a = first[weightsRow + row];
+                int out = row * cols;
+                for (int col = 0; col < cols; col++) {
+                    result[out + col] += a * second[in + col];
+                }
+            }
+        }
+    }
+
     /**
      * Applies the softplus function to a single value.
      *
@@ -0,0 +1,339 @@
+package com.example.golfgame.utils;
+
+import java.util.stream.IntStream;
+
+/**
+ * A terrain height sampled once on a regular grid and interpolated afterwards, so that every lookup
+ * costs a handful of multiplications no matter how expensive the original expression is. The height,
+ * the gradient and the cross derivative d2h/dxdy are stored as floats, interleaved per sample; they are
+ * taken from the source's exact derivatives where it has them and from finite differences otherwise.
+ *
+ * <p>Queries outside the sampled rectangle are passed on to the source, so the sampled surface can
+ * stand in for the source everywhere. Sampling is done once, in parallel, when the surface is
+ * constructed; afterwards the surface is immutable and safe to share between threads.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * SurfaceFunction h = new SurfaceFunction("0.4 * (0.9 - e^(-(x^2 + y^2) / 8))");
+ * SampledSurface grid = new SampledSurface(h, -100, -100, 100, 100, 801, 801, InterpolationMode.BICUBIC);
+ * double height = grid.evaluate(1.0, 2.0);
+ * }</pre>
+ */
+public class SampledSurface implements HeightField {
+    private static final double DIFFERENCE_STEP = 1e-4; // Step for finite differences of sources without derivatives
+
+    private final HeightField source;
+    private final InterpolationMode mode;
+    private final double minX, minY, maxX, maxY;
+    private final double spacingX, spacingY;
+    private final double inverseSpacingX, inverseSpacingY;
+    private final int columns, rows;
+    // Height, dh/dx, dh/dy and d2h/dxdy of every sample, next to each other so that a lookup touches few cache lines
+    private static final int HEIGHT = 0, SLOPE_X = 1, SLOPE_Y = 2, CROSS_DERIVATIVE = 3, SAMPLE_SIZE = 4;
+    private final float[] samples;
+
+    /**
+     * Samples a height field on a grid covering the given rectangle.
+     *
+     * @param source the height field to sample
+     * @param minX the smallest sampled x-coordinate
+     * @param minY the smallest sampled y-coordinate
+     * @param maxX the largest sampled x-coordinate
+     * @param maxY the largest sampled y-coordinate
+     * @param columns the number of samples along the x-axis, at least 2
+     * @param rows the number of samples along the y-axis, at least 2
+     * @param mode the interpolation used between samples
+     * @throws IllegalArgumentException if the rectangle is empty or there are fewer than 2 samples along an axis
+     */
+    public SampledSurface(HeightField source, double minX, double minY, double maxX, double maxY,
+                          int columns, int rows, InterpolationMode mode) {
+        if (columns < 2 || rows < 2) {
+            throw new IllegalArgumentException("A sampled surface needs at least 2 samples along each axis.");
+        }
+        if (!(maxX > minX) || !(maxY > minY)) {
+            throw new IllegalArgumentException("The sampled rectangle must have a positive area.");
+        }
+        this.source = source;
+        this.mode = mode;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.columns = columns;
+        this.rows = rows;
+        this.spacingX = (maxX - minX) / (columns - 1);
+        this.spacingY = (maxY - minY) / (rows - 1);
+        this.inverseSpacingX = 1 / spacingX;
+        this.inverseSpacingY = 1 / spacingY;
+        this.samples = new float[columns * rows * SAMPLE_SIZE];
+
+        IntStream.range(0, rows).parallel().forEach(this::sampleRow);
+    }
+
+    /**
+     * Fills one row of the grids from the source.
+     */
+    private void sampleRow(int row) {
+        double y = minY + row * spacingY;
+        for (int column = 0; column < columns; column++) {
+            double x = minX + column * spacingX;
+            int offset = (row * columns + column) * SAMPLE_SIZE;
+            samples[offset + HEIGHT] = (float) source.evaluate(x, y);
+            samples[offset + SLOPE_X] = (float) sourceDerivativeX(x, y);
+            samples[offset + SLOPE_Y] = (float) sourceDerivativeY(x, y);
+            if (mode == InterpolationMode.BICUBIC) {
+                samples[offset + CROSS_DERIVATIVE] = (float) sourceDerivativeXY(x, y);
+            }
+        }
+    }
+
+    private double sourceDerivativeX(double x, double y) {
+        if (source.hasGradient()) {
+            return source.derivativeX(x, y);
+        }
+        double h = DIFFERENCE_STEP;
+        return (source.evaluate(x + h, y) - source.evaluate(x - h, y)) / (2 * h);
+    }
+
+    private double sourceDerivativeY(double x, double y) {
+        if (source.hasGradient()) {
+            return source.derivativeY(x, y);
+        }
+        double h = DIFFERENCE_STEP;
+        return (source.evaluate(x, y + h) - source.evaluate(x, y - h)) / (2 * h);
+    }
+
+    private double sourceDerivativeXY(double x, double y) {
+        if (source.hasHessian()) {
+            return source.derivativeXY(x, y);
+        }
+        double h = DIFFERENCE_STEP;
+        if (source.hasGradient()) {
+            return (source.derivativeX(x, y + h) - source.derivativeX(x, y - h)) / (2 * h);
+        }
+        return (source.evaluate(x + h, y + h) - source.evaluate(x + h, y - h)
+                - source.evaluate(x - h, y + h) + source.evaluate(x - h, y - h)) / (4 * h * h);
+    }
+
+    @Override
+    public double evaluate(double x, double y) {
+        if (!contains(x, y)) {
+            return source.evaluate(x, y);
+        }
+        return interpolate(x, y, 0, 0);
+    }
+
+    /**
+     * The gradient is always available: it is the derivative of the bicubic interpolant, or the
+     * bilinear interpolation of the sampled gradient.
+     */
+    @Override
+    public boolean hasGradient() {
+        return true;
+    }
+
+    /**
+     * Second derivatives are not sampled; callers fall back to finite differences of {@link #evaluate}.
+     */
+    @Override
+    public boolean hasHessian() {
+        return false;
+    }
+
+    @Override
+    public double derivativeX(double x, double y) {
+        if (!contains(x, y)) {
+            return sourceDerivativeX(x, y);
+        }
+        return interpolate(x, y, 1, 0);
+    }
+
+    @Override
+    public double derivativeY(double x, double y) {
+        if (!contains(x, y)) {
+            return sourceDerivativeY(x, y);
+        }
+        return interpolate(x, y, 0, 1);
+    }
+
+    /**
+     * Computes both partial derivatives from a single lookup of the cell and its Hermite weights.
+     */
+    @Override
+    public void gradient(double[] x, double[] y, double[] slopeX, double[] slopeY, int count) {
+        for (int i = 0; i < count; i++) {
+            double px = x[i];
+            double py = y[i];
+            if (mode == InterpolationMode.BILINEAR || !contains(px, py)) {
+                slopeX[i] = derivativeX(px, py);
+                slopeY[i] = derivativeY(px, py);
+                continue;
+            }
+            double gridX = (px - minX) * inverseSpacingX;
+            double gridY = (py - minY) * inverseSpacingY;
+            int column = Math.min((int) gridX, columns - 2);
+            int row = Math.min((int) gridY, rows - 2);
+            double s = gridX - column;
+            double t = gridY - row;
+            int i00 = row * columns + column;
+            int i10 = i00 + 1;
+            int i01 = i00 + columns;
+            int i11 = i01 + 1;
+
+            double value0X = hermiteValue(s);
+            double value1X = hermiteValue(1 - s);
+            double slope0X = hermiteSlope(s) * spacingX;
+            double slope1X = -hermiteSlope(1 - s) * spacingX;
+            double value0Y = hermiteValue(t);
+            double value1Y = hermiteValue(1 - t);
+            double slope0Y = hermiteSlope(t) * spacingY;
+            double slope1Y = -hermiteSlope(1 - t) * spacingY;
+            double derivativeValue0X = hermiteValueDerivative(s) * inverseSpacingX;
+            double derivativeValue1X = -hermiteValueDerivative(1 - s) * inverseSpacingX;
+            double derivativeSlope0X = hermiteSlopeDerivative(s);
+            double derivativeSlope1X = hermiteSlopeDerivative(1 - s);
+            double derivativeValue0Y = hermiteValueDerivative(t) * inverseSpacingY;
+            double derivativeValue1Y = -hermiteValueDerivative(1 - t) * inverseSpacingY;
+            double derivativeSlope0Y = hermiteSlopeDerivative(t);
+            double derivativeSlope1Y = hermiteSlopeDerivative(1 - t);
+
+            slopeX[i] = corner(i00, derivativeValue0X, derivativeSlope0X, value0Y, slope0Y)
+                    + corner(i10, derivativeValue1X, derivativeSlope1X, value0Y, slope0Y)
+                    + corner(i01, derivativeValue0X, derivativeSlope0X, value1Y, slope1Y)
+                    + corner(i11, derivativeValue1X, derivativeSlope1X, value1Y, slope1Y);
+            slopeY[i] = corner(i00, value0X, slope0X, derivativeValue0Y, derivativeSlope0Y)
+                    + corner(i10, value1X, slope1X, derivativeValue0Y, derivativeSlope0Y)
+                    + corner(i01, value0X, slope0X, derivativeValue1Y, derivativeSlope1Y)
+                    + corner(i11, value1X, slope1X, derivativeValue1Y, derivativeSlope1Y);
+        }
+    }
+
+    @Override
+    public double derivativeXX(double x, double y) {
+        throw new IllegalStateException("A sampled surface has no second derivatives.");
+    }
+
+    @Override
+    public double derivativeXY(double x, double y) {
+        throw new IllegalStateException("A sampled surface has no second derivatives.");
+    }
+
+    @Override
+    public double derivativeYY(double x, double y) {
+        throw new IllegalStateException("A sampled surface has no second derivatives.");
+    }
+
+    /**
+     * Returns the height field the samples were taken from.
+     *
+     * @return the source height field
+     */
+    public HeightField getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the interpolation used between samples.
+     *
+     * @return the interpolation mode
+     */
+    public InterpolationMode getInterpolationMode() {
+        return mode;
+    }
+
+    /**
+     * Checks whether a point lies inside the sampled rectangle.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return true if queries at (x, y) are answered from the samples
+     */
+    public boolean contains(double x, double y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    /**
+     * Interpolates the height (orders 0, 0) or one of its first partial derivatives (orders 1, 0 or 0, 1)
+     * inside the cell containing (x, y).
+     */
+    private double interpolate(double x, double y, int orderX, int orderY) {
+        double gridX = (x - minX) * inverseSpacingX;
+        double gridY = (y - minY) * inverseSpacingY;
+        int column = Math.min((int) gridX, columns - 2);
+        int row = Math.min((int) gridY, rows - 2);
+        double s = gridX - column;
+        double t = gridY - row;
+        int i00 = row * columns + column;
+        int i10 = i00 + 1;
+        int i01 = i00 + columns;
+        int i11 = i01 + 1;
+
+        if (mode == InterpolationMode.BILINEAR) {
+            int value = orderX == 1 ? SLOPE_X : orderY == 1 ? SLOPE_Y : HEIGHT;
+            return (1 - t) * ((1 - s) * samples[i00 * SAMPLE_SIZE + value] + s * samples[i10 * SAMPLE_SIZE + value])
+                    + t * ((1 - s) * samples[i01 * SAMPLE_SIZE + value] + s * samples[i11 * SAMPLE_SIZE + value]);
+        }
+
+        // Hermite basis along each axis: value weights for the two corners, then slope weights scaled to the cell size
+        double value0X, value1X, slope0X, slope1X;
+        if (orderX == 0) {
+            value0X = hermiteValue(s);
+            value1X = hermiteValue(1 - s);
+            slope0X = hermiteSlope(s) * spacingX;
+            slope1X = -hermiteSlope(1 - s) * spacingX;
+        } else {
+            value0X = hermiteValueDerivative(s) * inverseSpacingX;
+            value1X = -hermiteValueDerivative(1 - s) * inverseSpacingX;
+            slope0X = hermiteSlopeDerivative(s);
+            slope1X = hermiteSlopeDerivative(1 - s);
+        }
+        double value0Y, value1Y, slope0Y, slope1Y;
+        if (orderY == 0) {
+            value0Y = hermiteValue(t);
+            value1Y = hermiteValue(1 - t);
+            slope0Y = hermiteSlope(t) * spacingY;
+            slope1Y = -hermiteSlope(1 - t) * spacingY;
+        } else {
+            value0Y = hermiteValueDerivative(t) * inverseSpacingY;
+            value1Y = -hermiteValueDerivative(1 - t) * inverseSpacingY;
+            slope0Y = hermiteSlopeDerivative(t);
+            slope1Y = hermiteSlopeDerivative(1 - t);
+        }
+
+        return corner(i00, value0X, slope0X, value0Y, slope0Y)
+                + corner(i10, value1X, slope1X, value0Y, slope0Y)
+                + corner(i01, value0X, slope0X, value1Y, slope1Y)
+                + corner(i11, value1X, slope1X, value1Y, slope1Y);
+    }
+
+    /**
+     * The contribution of one grid sample to a bicubic Hermite patch.
+     */
+    private double corner(int index, double valueX, double slopeX, double valueY, double slopeY) {
+        int offset = index * SAMPLE_SIZE;
+        return samples[offset + HEIGHT] * valueX * valueY
+                + samples[offset + SLOPE_X] * slopeX * valueY
+                + samples[offset + SLOPE_Y] * valueX * slopeY
+                + samples[offset + CROSS_DERIVATIVE] * slopeX * slopeY;
+    }
+
+    /** Weight of the value at the near corner, at distance d in cell units: 2d^3 - 3d^2 + 1. */
+    private static double hermiteValue(double d) {
+        return (2 * d - 3) * d * d + 1;
+    }
+
+    /** Derivative of {@link #hermiteValue} with respect to d. */
+    private static double hermiteValueDerivative(double d) {
+        return 6 * d * (d - 1);
+    }
+
+    /** Weight of the slope at the near corner, at distance d in cell units: d^3 - 2d^2 + d. */
+    private static double hermiteSlope(double d) {
+        return d * (d - 1) * (d - 1);
+    }
+
+    /** Derivative of {@link #hermiteSlope} with respect to d. */
+    private static double hermiteSlopeDerivative(double d) {
+        return (3 * d - 4) * d + 1;
+    }
+}
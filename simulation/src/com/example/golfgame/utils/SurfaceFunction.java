@@ -0,0 +1,218 @@
+package com.example.golfgame.utils;
+
+import com.example.golfgame.utils.expressionUtils.ExpressionNode;
+import com.example.golfgame.utils.expressionUtils.ExpressionNode.Variable;
+import com.example.golfgame.utils.expressionUtils.ExpressionParser;
+
+import net.objecthunter.exp4j.Expression;
+import net.objecthunter.exp4j.ExpressionBuilder;
+
+/**
+ * Represents a terrain height function h(x, y) compiled for fast repeated evaluation.
+ * Unlike {@link Function}, evaluation takes the coordinates as primitives and does not
+ * allocate, box or touch shared mutable state, so it is safe to call from several threads.
+ *
+ * <p>The partial derivatives and the Hessian are derived symbolically at construction time,
+ * when the expression allows it. Expressions using non-differentiable operations (floor, ceil,
+ * signum, modulo) report {@code false} from {@link #hasGradient()} or {@link #hasHessian()}
+ * and callers are expected to fall back to finite differences.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * SurfaceFunction h = new SurfaceFunction("0.4 * (0.9 - e^(-(x^2 + y^2) / 8))");
+ * double height = h.evaluate(1.0, 2.0);
+ * }</pre>
+ */
+public class SurfaceFunction implements HeightField {
+    private final String expressionString;
+    private final ExpressionNode root;
+    private final ExpressionNode derivativeX, derivativeY;
+    private final ExpressionNode derivativeXX, derivativeXY, derivativeYY;
+
+    /**
+     * Compiles a height expression in the variables x and y.
+     *
+     * @param expressionString the string representation of the height expression
+     * @throws IllegalArgumentException if the expression is not valid
+     */
+    public SurfaceFunction(String expressionString) {
+        this.expressionString = expressionString;
+        this.root = compile(expressionString);
+        this.derivativeX = differentiate(root, Variable.X);
+        this.derivativeY = differentiate(root, Variable.Y);
+        this.derivativeXX = differentiate(derivativeX, Variable.X);
+        this.derivativeXY = differentiate(derivativeX, Variable.Y);
+        this.derivativeYY = differentiate(derivativeY, Variable.Y);
+    }
+
+    /**
+     * Compiles the expression of an existing two-variable {@link Function}.
+     *
+     * @param function a function of x and y
+     */
+    public SurfaceFunction(Function function) {
+        this(function.getExpressionString());
+    }
+
+    /**
+     * Evaluates the height at the given coordinates.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the height of the surface at (x, y)
+     */
+    public double evaluate(double x, double y) {
+        return root.evaluate(x, y);
+    }
+
+    /**
+     * Checks whether exact first derivatives are available.
+     *
+     * @return true if the expression could be differentiated symbolically
+     */
+    public boolean hasGradient() {
+        return derivativeX != null && derivativeY != null;
+    }
+
+    /**
+     * Checks whether exact second derivatives are available.
+     *
+     * @return true if the expression could be differentiated symbolically twice
+     */
+    public boolean hasHessian() {
+        return derivativeXX != null && derivativeXY != null && derivativeYY != null;
+    }
+
+    /**
+     * Evaluates the exact partial derivative dh/dx.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the slope of the surface along the x-axis
+     * @throws IllegalStateException if {@link #hasGradient()} is false
+     */
+    public double derivativeX(double x, double y) {
+        return require(derivativeX).evaluate(x, y);
+    }
+
+    /**
+     * Evaluates the exact partial derivative dh/dy.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the slope of the surface along the y-axis
+     * @throws IllegalStateException if {@link #hasGradient()} is false
+     */
+    public double derivativeY(double x, double y) {
+        return require(derivativeY).evaluate(x, y);
+    }
+
+    /**
+     * Evaluates the exact second derivative d2h/dx2.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the xx entry of the Hessian
+     * @throws IllegalStateException if {@link #hasHessian()} is false
+     */
+    public double derivativeXX(double x, double y) {
+        return require(derivativeXX).evaluate(x, y);
+    }
+
+    /**
+     * Evaluates the exact mixed second derivative d2h/dxdy.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the xy entry of the Hessian
+     * @throws IllegalStateException if {@link #hasHessian()} is false
+     */
+    public double derivativeXY(double x, double y) {
+        return require(derivativeXY).evaluate(x, y);
+    }
+
+    /**
+     * Evaluates the exact second derivative d2h/dy2.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the yy entry of the Hessian
+     * @throws IllegalStateException if {@link #hasHessian()} is false
+     */
+    public double derivativeYY(double x, double y) {
+        return require(derivativeYY).evaluate(x, y);
+    }
+
+    /**
+     * Returns the expression this function was compiled from.
+     *
+     * @return the expression string
+     */
+    public String getExpressionString() {
+        return expressionString;
+    }
+
+    /**
+     * Returns the root of the compiled expression tree.
+     *
+     * @return the compiled expression
+     */
+    public ExpressionNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Compiles the expression, falling back to exp4j for syntax the compiler does not know.
+     */
+    private static ExpressionNode compile(String expressionString) {
+        try {
+            return ExpressionParser.parse(expressionString);
+        } catch (IllegalArgumentException e) {
+            // Let exp4j decide whether the expression is invalid; throws the usual exception if it is
+            return new Exp4jFallback(new ExpressionBuilder(expressionString).variables("x", "y").build());
+        }
+    }
+
+    /**
+     * Differentiates a compiled expression, returning null if that is not possible.
+     */
+    private static ExpressionNode differentiate(ExpressionNode node, Variable variable) {
+        if (node == null) {
+            return null;
+        }
+        try {
+            return node.derivative(variable);
+        } catch (UnsupportedOperationException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private ExpressionNode require(ExpressionNode derivative) {
+        if (derivative == null) {
+            throw new IllegalStateException("No symbolic derivative available for: " + expressionString);
+        }
+        return derivative;
+    }
+
+    /**
+     * Evaluates an expression through exp4j. Slower than a compiled tree but keeps any
+     * expression accepted by {@link Function} usable.
+     */
+    private static final class Exp4jFallback extends ExpressionNode {
+        private final Expression expression;
+
+        Exp4jFallback(Expression expression) {
+            this.expression = expression;
+        }
+
+        @Override
+        public synchronized double evaluate(double x, double y) {
+            return expression.setVariable("x", x).setVariable("y", y).evaluate();
+        }
+
+        @Override
+        public ExpressionNode derivative(Variable variable) {
+            throw new UnsupportedOperationException("Expressions evaluated through exp4j can not be differentiated");
+        }
+    }
+}
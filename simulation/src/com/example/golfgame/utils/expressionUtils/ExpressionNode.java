@@ -0,0 +1,586 @@
+package com.example.golfgame.utils.expressionUtils;
+
+/**
+ * A node of a compiled height expression h(x, y).
+ * Nodes are immutable and hold no per-call state, so a single tree can be evaluated
+ * from several threads at once without allocating anything.
+ */
+public abstract class ExpressionNode {
+
+    /**
+     * Evaluates the subtree rooted at this node for the given coordinates.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the value of the subtree
+     */
+    public abstract double evaluate(double x, double y);
+
+    /**
+     * Checks whether this subtree does not depend on x or y.
+     *
+     * @return true if the subtree always evaluates to the same value
+     */
+    public boolean isConstant() {
+        return false;
+    }
+
+    /**
+     * Builds the symbolic partial derivative of this subtree.
+     *
+     * @param variable the variable to differentiate with respect to
+     * @return the derivative as a new, simplified expression tree
+     * @throws UnsupportedOperationException if the subtree contains a non-differentiable
+     *                                       operation such as floor, ceil, signum or modulo
+     */
+    public abstract ExpressionNode derivative(Variable variable);
+
+    /**
+     * The variables a height expression depends on.
+     */
+    public enum Variable {
+        X,
+        Y
+    }
+
+    /**
+     * A numeric literal or a named constant such as {@code pi} or {@code e}.
+     */
+    static final class Constant extends ExpressionNode {
+        final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double evaluate(double x, double y) {
+            return value;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+
+        @Override
+        public ExpressionNode derivative(Variable variable) {
+            return ZERO;
+        }
+    }
+
+    /**
+     * The x variable.
+     */
+    static final class VariableX extends ExpressionNode {
+        @Override
+        public double evaluate(double x, double y) {
+            return x;
+        }
+
+        @Override
+        public ExpressionNode derivative(Variable variable) {
+            return variable == Variable.X ? ONE : ZERO;
+        }
+    }
+
+    /**
+     * The y variable.
+     */
+    static final class VariableY extends ExpressionNode {
+        @Override
+        public double evaluate(double x, double y) {
+            return y;
+        }
+
+        @Override
+        public ExpressionNode derivative(Variable variable) {
+            return variable == Variable.Y ? ONE : ZERO;
+        }
+    }
+
+    /**
+     * Base class for nodes with two operands.
+     */
+    abstract static class Binary extends ExpressionNode {
+        final ExpressionNode left;
+        final ExpressionNode right;
+
+        Binary(ExpressionNode left, ExpressionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return left.isConstant() && right.isConstant();
+        }
+    }
+
+    static final class Add extends Binary {
+        Add(ExpressionNode left, ExpressionNode right) {
+            super(left, right);
+        }
+
+        @Override
+        public double evaluate(double x, double y) {
+            return left.evaluate(x, y) + right.evaluate(x, y);
+        }
+
+        @Override
+        public ExpressionNode derivative(Variable variable) {
+            return add(left.derivative(variable), right.derivative(variable));
+        }
+    }
+
+    static final class Subtract extends Binary {
+        Subtract(ExpressionNode left, ExpressionNode right) {
+            super(left, right);
+        }
+
+        @Override
+        public double evaluate(double x, double y) {
+            return left.evaluate(x, y) - right.evaluate(x, y);
+        }
+
+        @Override
+        public ExpressionNode derivative(Variable variable) {
+            return subtract(left.derivative(variable), right.derivative(variable));
+        }
+    }
+
+    static final class Multiply extends Binary {
+        Multiply(ExpressionNode left, ExpressionNode right) {
+            super(left, right);
+        }
+
+        @Override
+        public double evaluate(double x, double y) {
+            return left.evaluate(x, y) * right.evaluate(x, y);
+        }
+
+        @Override
+        public ExpressionNode derivative(Variable variable) {
+            // Product rule
+            return add(multiply(left.derivative(variable), right), multiply(left, right.derivative(variable)));
+        }
+    }
+
+    /**
+     * Division, throwing on a zero divisor the same way exp4j does.
+     */
+    static final class Divide extends Binary {
+        Divide(ExpressionNode left, ExpressionNode right) {
+            super(left, right);
+        }
+
+        @Override
+        public double evaluate(double x, double y) {
+            double divisor = right.evaluate(x, y);
+            if (divisor == 0d) {
+                throw new ArithmeticException("Division by zero!");
+            }
+            return left.evaluate(x, y) / divisor;
+        }
+
+        @Override
+        public ExpressionNode derivative(Variable variable) {
+            if (right.isConstant()) {
+                return divide(left.derivative(variable), right);
+            }
+            // Quotient rule
+            return divide(subtract(multiply(left.derivative(variable), right), multiply(left, right.derivative(variable))),
+                    integerPower(right, 2));
+        }
+    }
+
+    /**
+     * Modulo, throwing on a zero divisor the same way exp4j does.
+     */
+    static final class Modulo extends Binary {
+        Modulo(ExpressionNode left, ExpressionNode right) {
+            super(left, right);
+        }
+
+        @Override
+        public double evaluate(double x, double y) {
+            double divisor = right.evaluate(x, y);
+            if (divisor == 0d) {
+                throw new ArithmeticException("Division by zero!");
+            }
+            return left.evaluate(x, y) % divisor;
+        }
+
+        @Override
+        public ExpressionNode derivative(Variable variable) {
+            throw new UnsupportedOperationException("Modulo is not differentiable");
+        }
+    }
+
+    static final class Power extends Binary {
+        Power(ExpressionNode left, ExpressionNode right) {
+            super(left, right);
+        }
+
+        @Override
+        public double evaluate(double x, double y) {
+            return Math.pow(left.evaluate(x, y), right.evaluate(x, y));
+        }
+
+        @Override
+        public ExpressionNode derivative(Variable variable) {
+            if (right.isConstant()) {
+                // d(u^c) = c * u^(c-1) * du
+                double exponent = right.evaluate(0, 0);
+                return multiply(multiply(constant(exponent), power(left, constant(exponent - 1))), left.derivative(variable));
+            }
+            if (left.isConstant()) {
+                // d(a^v) = a^v * ln(a) * dv
+                return multiply(multiply(this, constant(Math.log(left.evaluate(0, 0)))), right.derivative(variable));
+            }
+            // d(u^v) = u^v * (dv * ln(u) + v * du / u)
+            return multiply(this, add(multiply(right.derivative(variable), function(BuiltinFunction.LOG, left)),
+                    divide(multiply(right, left.derivative(variable)), left)));
+        }
+    }
+
+    /**
+     * A power with a small constant integer exponent, evaluated by repeated multiplication
+     * instead of {@link Math#pow(double, double)}.
+     */
+    static final class IntegerPower extends ExpressionNode {
+        final ExpressionNode base;
+        final int exponent;
+
+        IntegerPower(ExpressionNode base, int exponent) {
+            this.base = base;
+            this.exponent = exponent;
+        }
+
+        @Override
+        public double evaluate(double x, double y) {
+            double b = base.evaluate(x, y);
+            int n = exponent < 0 ? -exponent : exponent;
+            double result = 1;
+            while (n > 0) {
+                if ((n & 1) == 1) {
+                    result *= b;
+                }
+                b *= b;
+                n >>= 1;
+            }
+            return exponent < 0 ? 1 / result : result;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return base.isConstant();
+        }
+
+        @Override
+        public ExpressionNode derivative(Variable variable) {
+            return multiply(multiply(constant(exponent), integerPower(base, exponent - 1)), base.derivative(variable));
+        }
+    }
+
+    static final class Negate extends ExpressionNode {
+        final ExpressionNode operand;
+
+        Negate(ExpressionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public double evaluate(double x, double y) {
+            return -operand.evaluate(x, y);
+        }
+
+        @Override
+        public boolean isConstant() {
+            return operand.isConstant();
+        }
+
+        @Override
+        public ExpressionNode derivative(Variable variable) {
+            return negate(operand.derivative(variable));
+        }
+    }
+
+    /**
+     * A call to one of the single-argument built-in functions of exp4j.
+     */
+    static final class UnaryFunction extends ExpressionNode {
+        final BuiltinFunction function;
+        final ExpressionNode argument;
+
+        UnaryFunction(BuiltinFunction function, ExpressionNode argument) {
+            this.function = function;
+            this.argument = argument;
+        }
+
+        @Override
+        public double evaluate(double x, double y) {
+            return function.apply(argument.evaluate(x, y));
+        }
+
+        @Override
+        public boolean isConstant() {
+            return argument.isConstant();
+        }
+
+        @Override
+        public ExpressionNode derivative(Variable variable) {
+            // Chain rule
+            return multiply(function.outerDerivative(argument), argument.derivative(variable));
+        }
+    }
+
+    static final ExpressionNode ZERO = new Constant(0);
+    static final ExpressionNode ONE = new Constant(1);
+
+    /*
+     * Node factories. They fold constant subtrees and drop neutral elements, which keeps
+     * the symbolic derivatives small enough to evaluate quickly.
+     */
+
+    static ExpressionNode constant(double value) {
+        return new Constant(value);
+    }
+
+    static ExpressionNode add(ExpressionNode left, ExpressionNode right) {
+        if (isValue(left, 0)) {
+            return right;
+        }
+        if (isValue(right, 0)) {
+            return left;
+        }
+        return fold(new Add(left, right));
+    }
+
+    static ExpressionNode subtract(ExpressionNode left, ExpressionNode right) {
+        if (isValue(right, 0)) {
+            return left;
+        }
+        if (isValue(left, 0)) {
+            return negate(right);
+        }
+        return fold(new Subtract(left, right));
+    }
+
+    static ExpressionNode multiply(ExpressionNode left, ExpressionNode right) {
+        if (isValue(left, 0) || isValue(right, 0)) {
+            return ZERO;
+        }
+        if (isValue(left, 1)) {
+            return right;
+        }
+        if (isValue(right, 1)) {
+            return left;
+        }
+        return fold(new Multiply(left, right));
+    }
+
+    static ExpressionNode divide(ExpressionNode left, ExpressionNode right) {
+        if (isValue(right, 1)) {
+            return left;
+        }
+        if (isValue(left, 0) && !isValue(right, 0)) {
+            return ZERO;
+        }
+        return fold(new Divide(left, right));
+    }
+
+    static ExpressionNode modulo(ExpressionNode left, ExpressionNode right) {
+        return fold(new Modulo(left, right));
+    }
+
+    static ExpressionNode negate(ExpressionNode operand) {
+        if (operand instanceof Negate) {
+            return ((Negate) operand).operand;
+        }
+        return fold(new Negate(operand));
+    }
+
+    /**
+     * Builds a power node, using repeated multiplication for small integer exponents.
+     */
+    static ExpressionNode power(ExpressionNode base, ExpressionNode exponent) {
+        if (exponent.isConstant()) {
+            double value = exponent.evaluate(0, 0);
+            if (value == Math.rint(value) && Math.abs(value) <= 16) {
+                return integerPower(base, (int) value);
+            }
+        }
+        return fold(new Power(base, exponent));
+    }
+
+    static ExpressionNode integerPower(ExpressionNode base, int exponent) {
+        if (exponent == 0) {
+            return ONE;
+        }
+        if (exponent == 1) {
+            return base;
+        }
+        return fold(new IntegerPower(base, exponent));
+    }
+
+    static ExpressionNode function(BuiltinFunction function, ExpressionNode argument) {
+        return fold(new UnaryFunction(function, argument));
+    }
+
+    /**
+     * Replaces a subtree that does not depend on x or y by its value.
+     */
+    private static ExpressionNode fold(ExpressionNode node) {
+        if (node.isConstant() && !(node instanceof Constant)) {
+            try {
+                return new Constant(node.evaluate(0, 0));
+            } catch (ArithmeticException e) {
+                // Keep the node so the error surfaces on evaluation, as it does in exp4j
+                return node;
+            }
+        }
+        return node;
+    }
+
+    private static boolean isValue(ExpressionNode node, double value) {
+        return node instanceof Constant && ((Constant) node).value == value;
+    }
+
+    /**
+     * The single-argument functions exp4j knows out of the box.
+     */
+    enum BuiltinFunction {
+        SIN("sin") {
+            double apply(double a) { return Math.sin(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return function(COS, u); }
+        },
+        COS("cos") {
+            double apply(double a) { return Math.cos(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return negate(function(SIN, u)); }
+        },
+        TAN("tan") {
+            double apply(double a) { return Math.tan(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return divide(ONE, integerPower(function(COS, u), 2)); }
+        },
+        COT("cot") {
+            double apply(double a) {
+                double tan = Math.tan(a);
+                if (tan == 0d) {
+                    throw new ArithmeticException("Division by zero in cotangent!");
+                }
+                return 1d / tan;
+            }
+            ExpressionNode outerDerivative(ExpressionNode u) { return negate(divide(ONE, integerPower(function(SIN, u), 2))); }
+        },
+        ASIN("asin") {
+            double apply(double a) { return Math.asin(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) {
+                return divide(ONE, function(SQRT, subtract(ONE, integerPower(u, 2))));
+            }
+        },
+        ACOS("acos") {
+            double apply(double a) { return Math.acos(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) {
+                return negate(divide(ONE, function(SQRT, subtract(ONE, integerPower(u, 2)))));
+            }
+        },
+        ATAN("atan") {
+            double apply(double a) { return Math.atan(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return divide(ONE, add(ONE, integerPower(u, 2))); }
+        },
+        SINH("sinh") {
+            double apply(double a) { return Math.sinh(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return function(COSH, u); }
+        },
+        COSH("cosh") {
+            double apply(double a) { return Math.cosh(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return function(SINH, u); }
+        },
+        TANH("tanh") {
+            double apply(double a) { return Math.tanh(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return subtract(ONE, integerPower(function(TANH, u), 2)); }
+        },
+        ABS("abs") {
+            double apply(double a) { return Math.abs(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return function(SIGNUM, u); }
+        },
+        LOG("log") {
+            double apply(double a) { return Math.log(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return divide(ONE, u); }
+        },
+        LOG10("log10") {
+            double apply(double a) { return Math.log10(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return divide(ONE, multiply(u, constant(Math.log(10d)))); }
+        },
+        LOG2("log2") {
+            double apply(double a) { return Math.log(a) / Math.log(2d); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return divide(ONE, multiply(u, constant(Math.log(2d)))); }
+        },
+        LOG1P("log1p") {
+            double apply(double a) { return Math.log1p(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return divide(ONE, add(ONE, u)); }
+        },
+        CEIL("ceil") {
+            double apply(double a) { return Math.ceil(a); }
+        },
+        FLOOR("floor") {
+            double apply(double a) { return Math.floor(a); }
+        },
+        SQRT("sqrt") {
+            double apply(double a) { return Math.sqrt(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return divide(constant(0.5), function(SQRT, u)); }
+        },
+        CBRT("cbrt") {
+            double apply(double a) { return Math.cbrt(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) {
+                return divide(ONE, multiply(constant(3), integerPower(function(CBRT, u), 2)));
+            }
+        },
+        EXP("exp") {
+            double apply(double a) { return Math.exp(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return function(EXP, u); }
+        },
+        EXPM1("expm1") {
+            double apply(double a) { return Math.expm1(a); }
+            ExpressionNode outerDerivative(ExpressionNode u) { return function(EXP, u); }
+        },
+        SIGNUM("signum") {
+            double apply(double a) { return Math.signum(a); }
+        };
+
+        final String name;
+
+        BuiltinFunction(String name) {
+            this.name = name;
+        }
+
+        abstract double apply(double a);
+
+        /**
+         * Builds f'(u) for this function f, to be multiplied by du in the chain rule.
+         *
+         * @param u the argument of the function
+         * @return the derivative of the function evaluated at u
+         * @throws UnsupportedOperationException if the function is not differentiable
+         */
+        ExpressionNode outerDerivative(ExpressionNode u) {
+            throw new UnsupportedOperationException(name + " is not differentiable");
+        }
+
+        /**
+         * Looks up a built-in function by its name in the expression string.
+         *
+         * @param name the function name
+         * @return the matching function, or null if there is none
+         */
+        static BuiltinFunction forName(String name) {
+            for (BuiltinFunction function : values()) {
+                if (function.name.equals(name)) {
+                    return function;
+                }
+            }
+            return null;
+        }
+    }
+}
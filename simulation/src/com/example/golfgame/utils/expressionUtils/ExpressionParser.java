@@ -0,0 +1,219 @@
+package com.example.golfgame.utils.expressionUtils;
+
+import com.example.golfgame.utils.expressionUtils.ExpressionNode.BuiltinFunction;
+
+/**
+ * Compiles a height expression in x and y into a tree of {@link ExpressionNode}s.
+ * The accepted syntax follows exp4j: the operators {@code + - * / % ^}, unary signs,
+ * implicit multiplication (e.g. {@code 2x}), the constants {@code pi} and {@code e},
+ * and exp4j's built-in functions including the two-argument {@code pow}.
+ * Sub-expressions that do not depend on x or y are folded into constants.
+ */
+public final class ExpressionParser {
+    private final String input;
+    private int position;
+
+    private ExpressionParser(String input) {
+        this.input = input;
+        this.position = 0;
+    }
+
+    /**
+     * Parses the given expression string.
+     *
+     * @param expressionString the expression in terms of x and y
+     * @return the root of the compiled expression tree
+     * @throws IllegalArgumentException if the expression cannot be parsed
+     */
+    public static ExpressionNode parse(String expressionString) {
+        if (expressionString == null || expressionString.trim().isEmpty()) {
+            throw new IllegalArgumentException("Expression can not be empty");
+        }
+        ExpressionParser parser = new ExpressionParser(expressionString);
+        ExpressionNode root = parser.parseExpression();
+        parser.skipWhitespace();
+        if (parser.position < parser.input.length()) {
+            throw parser.error("Unexpected character '" + parser.input.charAt(parser.position) + "'");
+        }
+        return root;
+    }
+
+    private ExpressionNode parseExpression() {
+        ExpressionNode node = parseTerm();
+        while (true) {
+            if (consume('+')) {
+                node = ExpressionNode.add(node, parseTerm());
+            } else if (consume('-')) {
+                node = ExpressionNode.subtract(node, parseTerm());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private ExpressionNode parseTerm() {
+        ExpressionNode node = parseUnary();
+        while (true) {
+            if (consume('*')) {
+                node = ExpressionNode.multiply(node, parseUnary());
+            } else if (consume('/')) {
+                node = ExpressionNode.divide(node, parseUnary());
+            } else if (consume('%')) {
+                node = ExpressionNode.modulo(node, parseUnary());
+            } else if (startsOperand()) {
+                // Implicit multiplication, e.g. "2x" or "(x+1)(y-1)"
+                node = ExpressionNode.multiply(node, parsePower());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private ExpressionNode parseUnary() {
+        if (consume('-')) {
+            return ExpressionNode.negate(parseUnary());
+        }
+        if (consume('+')) {
+            return parseUnary();
+        }
+        return parsePower();
+    }
+
+    private ExpressionNode parsePower() {
+        ExpressionNode base = parsePrimary();
+        if (consume('^')) {
+            // Right associative; the exponent may carry its own sign
+            return ExpressionNode.power(base, parseUnary());
+        }
+        return base;
+    }
+
+    private ExpressionNode parsePrimary() {
+        skipWhitespace();
+        if (position >= input.length()) {
+            throw error("Unexpected end of expression");
+        }
+        char c = input.charAt(position);
+        if (consume('(')) {
+            ExpressionNode inner = parseExpression();
+            expect(')');
+            return inner;
+        }
+        if (Character.isDigit(c) || c == '.') {
+            return ExpressionNode.constant(parseNumber());
+        }
+        if (Character.isLetter(c) || c == '_') {
+            String name = parseIdentifier();
+            skipWhitespace();
+            if (position < input.length() && input.charAt(position) == '(') {
+                return parseFunctionCall(name);
+            }
+            return parseVariable(name);
+        }
+        throw error("Unexpected character '" + c + "'");
+    }
+
+    private ExpressionNode parseFunctionCall(String name) {
+        expect('(');
+        if (name.equals("pow")) {
+            ExpressionNode base = parseExpression();
+            expect(',');
+            ExpressionNode exponent = parseExpression();
+            expect(')');
+            return ExpressionNode.power(base, exponent);
+        }
+        BuiltinFunction function = BuiltinFunction.forName(name);
+        if (function == null) {
+            throw error("Unknown function '" + name + "'");
+        }
+        ExpressionNode argument = parseExpression();
+        expect(')');
+        return ExpressionNode.function(function, argument);
+    }
+
+    private ExpressionNode parseVariable(String name) {
+        switch (name) {
+            case "x":
+                return new ExpressionNode.VariableX();
+            case "y":
+                return new ExpressionNode.VariableY();
+            case "pi":
+            case "π":
+                return ExpressionNode.constant(Math.PI);
+            case "e":
+                return ExpressionNode.constant(Math.E);
+            case "φ":
+                return ExpressionNode.constant(1.61803398874d);
+            default:
+                throw error("Unknown variable '" + name + "'");
+        }
+    }
+
+    private double parseNumber() {
+        int start = position;
+        while (position < input.length() && (Character.isDigit(input.charAt(position)) || input.charAt(position) == '.')) {
+            position++;
+        }
+        // Scientific notation, only if the exponent actually has digits (so "2e" stays 2 * e)
+        if (position < input.length() && (input.charAt(position) == 'e' || input.charAt(position) == 'E')) {
+            int exponentStart = position + 1;
+            if (exponentStart < input.length() && (input.charAt(exponentStart) == '+' || input.charAt(exponentStart) == '-')) {
+                exponentStart++;
+            }
+            if (exponentStart < input.length() && Character.isDigit(input.charAt(exponentStart))) {
+                position = exponentStart;
+                while (position < input.length() && Character.isDigit(input.charAt(position))) {
+                    position++;
+                }
+            }
+        }
+        try {
+            return Double.parseDouble(input.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + input.substring(start, position) + "'");
+        }
+    }
+
+    private String parseIdentifier() {
+        int start = position;
+        while (position < input.length()
+                && (Character.isLetterOrDigit(input.charAt(position)) || input.charAt(position) == '_')) {
+            position++;
+        }
+        return input.substring(start, position);
+    }
+
+    private boolean startsOperand() {
+        skipWhitespace();
+        if (position >= input.length()) {
+            return false;
+        }
+        char c = input.charAt(position);
+        return c == '(' || c == '.' || c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private boolean consume(char expected) {
+        skipWhitespace();
+        if (position < input.length() && input.charAt(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char expected) {
+        if (!consume(expected)) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position + " in expression: " + input);
+    }
+}
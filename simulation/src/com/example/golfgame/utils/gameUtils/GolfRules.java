@@ -0,0 +1,80 @@
+package com.example.golfgame.utils.gameUtils;
+
+import com.example.golfgame.utils.BallState;
+
+/**
+ * The rules of a golf course shared by the game and the headless simulator: when a ball counts as holed.
+ * Water and sand are properties of the {@link Terrain}, see {@link Terrain#isWater(float, float)} and
+ * {@link Terrain#isBallOnSand(float, float)}.
+ */
+public final class GolfRules {
+    /**
+     * The velocity along each axis above which the ball rolls over the hole.
+     */
+    public static final double GOAL_MAX_SPEED = 3.5;
+
+    /**
+     * How much closer to the hole the ball must stop in the simulator than in the game.
+     */
+    public static final double SIMULATOR_GOAL_MARGIN = 0.5;
+
+    private static volatile float goalTolerance = 1.5f;
+
+    private GolfRules() {
+    }
+
+    /**
+     * Returns the radius around the hole within which the ball counts as holed.
+     *
+     * @return the goal tolerance
+     */
+    public static float getGoalTolerance() {
+        return goalTolerance;
+    }
+
+    /**
+     * Sets the radius around the hole within which the ball counts as holed.
+     *
+     * @param tolerance the new goal tolerance
+     */
+    public static void setGoalTolerance(float tolerance) {
+        goalTolerance = tolerance;
+    }
+
+    /**
+     * Checks if the ball has reached the goal in the game.
+     *
+     * @param ball the current ball state
+     * @param goal the goal state
+     * @return true if the ball is within the goal tolerance and slow enough to drop
+     */
+    public static boolean isGoal(BallState ball, BallState goal) {
+        return isGoal(ball, goal, goalTolerance);
+    }
+
+    /**
+     * Checks if the ball has reached the goal in the simulator, which uses a radius smaller by
+     * {@link #SIMULATOR_GOAL_MARGIN} than the game.
+     *
+     * @param ball the current ball state
+     * @param goal the goal state
+     * @return true if the ball is within the simulator goal radius and slow enough to drop
+     */
+    public static boolean isSimulatorGoal(BallState ball, BallState goal) {
+        return isGoal(ball, goal, getSimulatorGoalRadius());
+    }
+
+    /**
+     * Returns the radius around the hole within which the ball counts as holed in the simulator.
+     *
+     * @return the simulator goal radius
+     */
+    public static double getSimulatorGoalRadius() {
+        return goalTolerance - SIMULATOR_GOAL_MARGIN;
+    }
+
+    private static boolean isGoal(BallState ball, BallState goal, double radius) {
+        return ball.epsilonPositionEquals(goal, radius)
+               && Math.abs(ball.getVx()) < GOAL_MAX_SPEED && Math.abs(ball.getVy()) < GOAL_MAX_SPEED;
+    }
+}
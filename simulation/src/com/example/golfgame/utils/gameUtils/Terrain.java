@@ -0,0 +1,379 @@
+package com.example.golfgame.utils.gameUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import com.example.golfgame.utils.Function;
+import com.example.golfgame.utils.HeightField;
+import com.example.golfgame.utils.InterpolationMode;
+import com.example.golfgame.utils.MatrixUtils;
+import com.example.golfgame.utils.SampledSurface;
+import com.example.golfgame.utils.SurfaceFunction;
+
+/**
+ * The terrain of a golf course without any rendering: the height function, the sand areas, the hole and the
+ * grid the observation of the agent is sampled on. Answers the terrain queries of the simulator (height,
+ * sand, water) and builds the normalized height map the agent observes. The {@code TerrainManager} of the
+ * game adds the libGDX models of the terrain on top of it.
+ */
+public class Terrain {
+    private HeightField heightFunction;
+    protected int gridWidth, gridHeight;
+    protected List<float[]> sandAreas;
+    protected float[] holeArea;
+    protected float scale;
+    protected int parts;
+    private double[] baseLayer;      // Нормализованная карта высот с песком без мяча и лунки, по строкам x; null - не построена
+    private int baseLayerSandAreas;  // Число участков песка, учтенных в baseLayer
+
+    /**
+     * Constructs a Terrain with specified parameters.
+     *
+     * @param heightFunction The function defining the terrain height.
+     * @param gridWidth      The width of the terrain grid.
+     * @param gridHeight     The height of the terrain grid.
+     * @param scale          The scale factor for the terrain.
+     * @param parts          The number of parts the terrain is divided into.
+     */
+    public Terrain(Function heightFunction, int gridWidth, int gridHeight, float scale, int parts) {
+        this(new SurfaceFunction(heightFunction), gridWidth, gridHeight, scale, parts);
+    }
+
+    /**
+     * Constructs a Terrain with a compiled or sampled height function.
+     *
+     * @param heightFunction The compiled or sampled function defining the terrain height.
+     * @param gridWidth      The width of the terrain grid.
+     * @param gridHeight     The height of the terrain grid.
+     * @param scale          The scale factor for the terrain.
+     * @param parts          The number of parts the terrain is divided into.
+     */
+    public Terrain(HeightField heightFunction, int gridWidth, int gridHeight, float scale, int parts) {
+        this.heightFunction = heightFunction;
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        this.scale = scale;
+        this.parts = parts;
+        this.sandAreas = new ArrayList<>();
+    }
+
+    /**
+     * Constructs a Terrain with only the height function.
+     *
+     * @param heightFunction The function defining the terrain height.
+     */
+    public Terrain(Function heightFunction) {
+        this(new SurfaceFunction(heightFunction));
+    }
+
+    /**
+     * Constructs a Terrain with only the compiled or sampled height function.
+     *
+     * @param heightFunction The compiled or sampled function defining the terrain height.
+     */
+    public Terrain(HeightField heightFunction) {
+        this(heightFunction, 200, 200, 1, 4);
+    }
+
+    /**
+     * Replaces the terrain height with a grid sampled from it around a center position, covering the
+     * same area as the terrain models of the game. All height lookups of this terrain,
+     * including mesh building, then interpolate the grid. Pass the returned surface to the
+     * {@link com.example.golfgame.physics.PhysicsEngine} to let the physics share the same lookup.
+     *
+     * @param centerX        The x-coordinate of the terrain center.
+     * @param centerZ        The z-coordinate of the terrain center.
+     * @param samplesPerUnit The number of samples per world unit along each axis.
+     * @param mode           The interpolation used between samples.
+     * @return The sampled surface now used by this terrain.
+     */
+    public SampledSurface useSampledTerrain(float centerX, float centerZ, int samplesPerUnit, InterpolationMode mode) {
+        HeightField source = heightFunction instanceof SampledSurface ? ((SampledSurface) heightFunction).getSource() : heightFunction;
+        float halfTotalWidth = gridWidth * scale * 0.5f;
+        float halfTotalHeight = gridHeight * scale * 0.5f;
+        int columns = Math.max(2, (int) Math.ceil(2 * halfTotalWidth * samplesPerUnit) + 1);
+        int rows = Math.max(2, (int) Math.ceil(2 * halfTotalHeight * samplesPerUnit) + 1);
+        SampledSurface sampled = new SampledSurface(source,
+            centerX - halfTotalWidth, centerZ - halfTotalHeight, centerX + halfTotalWidth, centerZ + halfTotalHeight,
+            columns, rows, mode);
+        this.heightFunction = sampled;
+        this.baseLayer = null; // Высоты теперь интерполируются по сетке
+        return sampled;
+    }
+
+    /**
+     * Returns the height function used for all terrain lookups.
+     *
+     * @return The compiled or sampled height function.
+     */
+    public HeightField getHeightFunction() {
+        return heightFunction;
+    }
+
+    /**
+     * Checks if a given position is on a sand area.
+     *
+     * @param x The x-coordinate of the position.
+     * @param y The y-coordinate of the position.
+     * @return True if the position is on sand, false otherwise.
+     */
+    public boolean isBallOnSand(float x, float y) {
+        boolean onSand = false;
+        for (float[] area : sandAreas) {
+            float minX = area[0];
+            float maxX = area[2];
+            float minY = area[1];
+            float maxY = area[3];
+
+            if (x >= minX && x <= maxX &&
+                y >= minY && y <= maxY) {
+                onSand = true;
+                break;
+            }
+        }
+        return onSand;
+    }
+
+    /**
+     * Determines if the given position is water.
+     *
+     * @param x The x-coordinate of the position.
+     * @param y The y-coordinate of the position.
+     * @return True if the position is water, false otherwise.
+     */
+    public boolean isWater(float x, float y) {
+        // Logic to determine if the position (x, y) is water
+        // This is a placeholder. Replace with actual implementation.
+        // Example: check if the height at (x, y) is below water level.
+        float height = getTerrainHeight(x, y);
+        return height < 0; // Assuming waterLevel is defined
+    }
+
+    /**
+     * Calculates the height of the terrain at the specified coordinates.
+     *
+     * @param x The x-coordinate.
+     * @param z The z-coordinate.
+     * @return The height of the terrain at the specified coordinates.
+     */
+    public float getTerrainHeight(float x, float z) {
+        return (float) heightFunction.evaluate(x, z);
+    }
+
+    /**
+     * Adds a sand area to the terrain.
+     *
+     * @param sandArea An array representing the boundaries of the sand area (minX, minY, maxX, maxY).
+     */
+    public void addSandArea(float[] sandArea) {
+        sandAreas.add(sandArea);
+        baseLayer = null;
+    }
+
+    /**
+     * Returns the list of sand areas.
+     *
+     * @return The list of sand areas.
+     */
+    public List<float[]> getSandAreasList() {
+        return sandAreas;
+    }
+
+    /**
+     * Sets the hole area on the terrain.
+     *
+     * @param newHoleArea An array representing the boundaries of the hole area.
+     */
+    public void setHoleArea(float[] newHoleArea) {
+        holeArea = newHoleArea;
+    }
+
+    /**
+     * Generates a normalized heightmap of the terrain and marks the positions of the ball, the goal, and sand areas.
+     *
+     * @param ballX The x-coordinate of the ball.
+     * @param ballY The y-coordinate of the ball.
+     * @param goalX The x-coordinate of the goal.
+     * @param goalY The y-coordinate of the goal.
+     * @return A 2D array representing the normalized heightmap with marked ball, goal, and sand positions.
+     */
+    public double[][] getNormalizedMarkedHeightMap(float ballX, float ballY, float goalX, float goalY) {
+        double[] state = getState(ballX, ballY, goalX, goalY);
+        double[][] heightMap = new double[gridWidth][gridHeight];
+        for (int x = 0; x < gridWidth; x++) {
+            System.arraycopy(state, x * gridHeight, heightMap[x], 0, gridHeight);
+        }
+        return heightMap;
+    }
+
+    /**
+     * Writes the normalized heightmap with marked ball, goal and sand positions into a buffer, flattened row by
+     * row (cell (x, y) at index {@code x * gridHeight + y}). The terrain part is computed once per course and cached,
+     * so each call only copies it and marks the ball and goal cells. The cache is rebuilt after
+     * {@link #addSandArea(float[])} or {@link #useSampledTerrain}.
+     *
+     * @param ballX The x-coordinate of the ball.
+     * @param ballY The y-coordinate of the ball.
+     * @param goalX The x-coordinate of the goal.
+     * @param goalY The y-coordinate of the goal.
+     * @param target The buffer to fill, of length gridWidth * gridHeight.
+     * @return The target buffer.
+     * @throws IllegalArgumentException if the buffer has the wrong length.
+     */
+    public double[] getState(float ballX, float ballY, float goalX, float goalY, double[] target) {
+        double[] base = getBaseLayer();
+        if (target.length != base.length) {
+            throw new IllegalArgumentException("Expected a state buffer of length " + base.length + ", got " + target.length);
+        }
+        System.arraycopy(base, 0, target, 0, base.length);
+
+        // Step 4: Mark the ball and goal positions
+        int ballPosX = (int) ((ballX / scale) + gridWidth / 2);
+        int ballPosY = (int) ((ballY / scale) + gridHeight / 2);
+        int goalPosX = (int) ((goalX / scale) + gridWidth / 2);
+        int goalPosY = (int) ((goalY / scale) + gridHeight / 2);
+
+        // Assuming 3 for ball and 5 for goal to mark on the map
+        if (ballPosX >= 0 && ballPosX < gridWidth && ballPosY >= 0 && ballPosY < gridHeight) {
+            target[ballPosX * gridHeight + ballPosY] = 3;
+        }
+
+        if (goalPosX >= 0 && goalPosX < gridWidth && goalPosY >= 0 && goalPosY < gridHeight) {
+            target[goalPosX * gridHeight + goalPosY] = 5;
+        }
+
+        return target;
+    }
+
+    // Шаги 1-3 (высоты, нормализация, песок) не зависят от мяча и лунки: строим один раз на трассу
+    private double[] getBaseLayer() {
+        if (baseLayer != null && baseLayerSandAreas == sandAreas.size()) {
+            return baseLayer;
+        }
+        double[][] heightMap = new double[gridWidth][gridHeight];
+
+        // Step 1: Calculate the height map and find min and max heights
+        float minHeight = Float.MAX_VALUE;
+        float maxHeight = Float.MIN_VALUE;
+
+        for (int x = 0; x < gridWidth; x++) {
+            for (int y = 0; y < gridHeight; y++) {
+                float worldX = (x - gridWidth / 2) * scale; 
+                float worldZ = (y - gridHeight / 2) * scale;
+                float height = getTerrainHeight(worldX, worldZ);
+                heightMap[x][y] = height;
+                if (height < minHeight) {
+                    minHeight = height;
+                }
+                if (height > maxHeight) {
+                    maxHeight = height;
+                }
+            }
+        }
+
+        // Step 2: Normalize the height map to the range [-1, 1] and set heights below 0 to -1
+        if (minHeight == maxHeight) {
+            for (int x = 0; x < gridWidth; x++) {
+                for (int y = 0; y < gridHeight; y++) {
+                    heightMap[x][y] = 0; // All points will be at the same height, normalized value 0
+                }
+            }
+        } else {
+            for (int x = 0; x < gridWidth; x++) {
+                for (int y = 0; y < gridHeight; y++) {
+                    if (heightMap[x][y] < 0) {
+                        heightMap[x][y] = -1;
+                    } else {
+                        heightMap[x][y] = 2 * ((heightMap[x][y] - minHeight) / (maxHeight - minHeight)) - 1;
+                    }
+                }
+            }
+        }
+
+        // Step 3: Mark the sand areas if sandAreas is not empty
+        if (!sandAreas.isEmpty()) {
+            for (float[] area : sandAreas) {
+                int startX = (int)((area[0] / scale) + gridWidth / 2);
+                int startY = (int)((area[1] / scale) + gridHeight / 2);
+                int endX = (int)((area[2] / scale) + gridWidth / 2);
+                int endY = (int)((area[3] / scale) + gridHeight / 2);
+
+                for (int x = startX; x <= endX; x++) {
+                    for (int y = startY; y <= endY; y++) {
+                        if (x >= 0 && x < gridWidth && y >= 0 && y < gridHeight) {
+                            heightMap[x][y] = 1; // Assuming 1 for sand areas to mark on the map
+                        }
+                    }
+                }
+            }
+        }
+
+        baseLayer = MatrixUtils.flattenArray(heightMap);
+        baseLayerSandAreas = sandAreas.size();
+        return baseLayer;
+    }
+
+    /**
+     * Converts the height map to an image and saves it as a PNG or JPEG file.
+     *
+     * @param heightMap The height map to be converted to an image.
+     * @param fileName  The name of the file to save the image.
+     * @param format    The format of the file (PNG or JPEG).
+     */
+    public static void saveHeightMapAsImage(double[][] heightMap, String fileName, String format) {
+        int width = heightMap.length;
+        int height = heightMap[0].length;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int value = (int) ((heightMap[x][y] + 1) * 127.5); // Normalize to [0, 255]
+                int color = (value << 16) | (value << 8) | value; // Grayscale
+                image.setRGB(x, y, color);
+            }
+        }
+
+        try {
+            File outputFile = new File(fileName + "." + format);
+            ImageIO.write(image, format, outputFile);
+            System.out.println("Image saved successfully: " + outputFile.getAbsolutePath());
+        } catch (Exception e) {
+            System.err.println("Error saving the image: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the current state of the terrain.
+     *
+     * @param ballX The x-coordinate of the ball.
+     * @param ballY The y-coordinate of the ball.
+     * @param goalX The x-coordinate of the goal.
+     * @param goalY The y-coordinate of the goal.
+     * @return A flattened array representing the normalized height map with marked ball, goal, and sand positions.
+     */
+    public double[] getState(float ballX, float ballY, float goalX, float goalY) {
+        return getState(ballX, ballY, goalX, goalY, new double[gridWidth * gridHeight]);
+    }
+
+    /**
+     * Gets the width of the terrain grid.
+     *
+     * @return The width of the terrain grid.
+     */
+    public int getTerrainWidth(){
+        return gridWidth;
+    }
+
+    /**
+     * Gets the height of the terrain grid.
+     *
+     * @return The height of the terrain grid.
+     */
+    public int getTerrainHeight(){
+        return gridHeight;
+    }
+}
@@ -1,14 +1,14 @@
 package com.example.golfgame.utils.ppoUtils;
 
 public class BackPropResult {
-    private double[][][] delta_nabla_w;
+    private double[][] delta_nabla_w;
     private double[][] delta_nabla_b;
-    public BackPropResult(double[][][] delta_nabla_w, double[][] delta_nabla_b) {
+    public BackPropResult(double[][] delta_nabla_w, double[][] delta_nabla_b) {
         this.delta_nabla_w = delta_nabla_w;
         this.delta_nabla_b = delta_nabla_b;
     }
 
-    public void setNablaW(double[][][] delta_nabla_w){
+    public void setNablaW(double[][] delta_nabla_w){
         this.delta_nabla_w = delta_nabla_w;
     }
 
@@ -16,7 +16,7 @@ public class BackPropResult {
         this.delta_nabla_b = delta_nabla_b;
     }
 
-    public double[][][] getNablaW(){
+    public double[][] getNablaW(){
         return delta_nabla_w;
     }
 
@@ -0,0 +1,208 @@
+package com.example.golfgame.utils.ppoUtils;
+
+/**
+ * A PPO rollout stored column by column: one contiguous observation matrix and a primitive array per
+ * per-step quantity (action, reward, done flag, value estimate, log-probability and advantage), all indexed
+ * by step.
+ *
+ * <p>The value estimate and log-probability of a step are recorded by the agent when it selects the action,
+ * so training needs no extra forward passes to compute advantages and value targets.</p>
+ *
+ * <p>Steps are stored in trajectory order, so the observation after step {@code i} is the observation of
+ * step {@code i + 1}. This is not the case in two situations:</p>
+ * <ul>
+ *   <li>Step {@code i} is done, i.e. its episode ended. Then the value after it is 0.</li>
+ *   <li>Step {@code i} ends a trajectory that was cut off mid-episode, e.g. the last step of one
+ *       environment's trajectory in a buffer collected from several environments. Then the value estimate
+ *       of the observation after it is stored separately with {@link #setNextValue(int, double)}.</li>
+ * </ul>
+ *
+ * <p>The size is fixed at construction and steps may be written in any order, so several threads can fill
+ * disjoint ranges at once.</p>
+ */
+public class RolloutBuffer {
+    private final int size;
+    private final int observationSize;
+    private final double[] observations; // size x observationSize, наблюдение шага i - строка i
+    private final double[] angles;
+    private final double[] forces;
+    private final double[] rewards;
+    private final boolean[] dones;
+    private final double[] values;
+    private final double[] logProbs;
+    private final double[] advantages;
+    private final boolean[] truncated; // Шаг обрывает траекторию посреди эпизода
+    private final double[] nextValues; // V(s') только для оборванных шагов
+
+    /**
+     * Constructs an empty RolloutBuffer.
+     *
+     * @param size the number of steps
+     * @param observationSize the length of an observation
+     * @throws IllegalArgumentException if a size is negative
+     */
+    public RolloutBuffer(int size, int observationSize) {
+        if (size < 0 || observationSize < 0) {
+            throw new IllegalArgumentException("Rollout and observation sizes must not be negative, got " + size + " and " + observationSize);
+        }
+        this.size = size;
+        this.observationSize = observationSize;
+        this.observations = new double[size * observationSize];
+        this.angles = new double[size];
+        this.forces = new double[size];
+        this.rewards = new double[size];
+        this.dones = new boolean[size];
+        this.values = new double[size];
+        this.logProbs = new double[size];
+        this.advantages = new double[size];
+        this.truncated = new boolean[size];
+        this.nextValues = new double[size];
+    }
+
+    /**
+     * Records a step.
+     *
+     * @param step the index of the step
+     * @param observation the observation the action was selected in
+     * @param action the action taken
+     * @param reward the reward received
+     * @param done whether the episode ended with this step
+     * @throws IllegalArgumentException if the observation has the wrong length
+     */
+    public void set(int step, double[] observation, Action action, double reward, boolean done) {
+        if (observation.length != observationSize) {
+            throw new IllegalArgumentException("Expected an observation of length " + observationSize + ", got " + observation.length);
+        }
+        System.arraycopy(observation, 0, observations, step * observationSize, observationSize);
+        angles[step] = action.getAngle();
+        forces[step] = action.getForce();
+        rewards[step] = reward;
+        dones[step] = done;
+        truncated[step] = false;
+    }
+
+    /**
+     * Stores the value estimate of the observation after a step that ends its trajectory without ending its
+     * episode, so advantages can bootstrap from it.
+     *
+     * @param step the index of the step
+     * @param value the value estimate of the observation after the step
+     */
+    public void setNextValue(int step, double value) {
+        truncated[step] = true;
+        nextValues[step] = value;
+    }
+
+    /**
+     * Returns whether the observation after a step is the observation of the following step.
+     *
+     * @param step the index of the step
+     * @return true unless the step is done or ends its trajectory
+     */
+    public boolean continuesToNextStep(int step) {
+        return !dones[step] && !truncated[step];
+    }
+
+    /**
+     * Returns the value estimate of the observation after a step: 0 if the step is done, the value stored
+     * with {@link #setNextValue(int, double)} if it ends its trajectory, and otherwise the value of the
+     * following step.
+     *
+     * @param step the index of the step
+     * @return the value estimate after the step
+     * @throws IllegalStateException if the last step is neither done nor has a next value
+     */
+    public double getNextValue(int step) {
+        if (dones[step]) {
+            return 0.0;
+        }
+        if (truncated[step]) {
+            return nextValues[step];
+        }
+        if (step + 1 >= size) {
+            throw new IllegalStateException("Step " + step + " ends the rollout mid-episode without a next value");
+        }
+        return values[step + 1];
+    }
+
+    /**
+     * Copies the observations of steps {@code steps[first..last)} into the columns of a
+     * {@code observationSize x (last - first)} matrix stored row by row, the layout of
+     * {@link com.example.golfgame.bot.neuralnetwork.NeuralNetwork#forward(double[], int)}.
+     *
+     * @param steps the step indices
+     * @param first the position in {@code steps} of the first step to copy
+     * @param last the position in {@code steps} after the last step to copy
+     * @param target the matrix to fill
+     */
+    public void gatherObservations(int[] steps, int first, int last, double[] target) {
+        int count = last - first;
+        for (int s = 0; s < count; s++) {
+            int offset = steps[first + s] * observationSize;
+            for (int k = 0; k < observationSize; k++) {
+                target[k * count + s] = observations[offset + k];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getObservationSize() {
+        return observationSize;
+    }
+
+    public double getAngle(int step) {
+        return angles[step];
+    }
+
+    public double getForce(int step) {
+        return forces[step];
+    }
+
+    public double getReward(int step) {
+        return rewards[step];
+    }
+
+    public boolean isDone(int step) {
+        return dones[step];
+    }
+
+    public double getValue(int step) {
+        return values[step];
+    }
+
+    public void setValue(int step, double value) {
+        values[step] = value;
+    }
+
+    public double getLogProb(int step) {
+        return logProbs[step];
+    }
+
+    public void setLogProb(int step, double logProb) {
+        logProbs[step] = logProb;
+    }
+
+    public double getAdvantage(int step) {
+        return advantages[step];
+    }
+
+    public void setAdvantage(int step, double advantage) {
+        advantages[step] = advantage;
+    }
+
+    /**
+     * Returns the sum of the rewards of all steps.
+     *
+     * @return the total reward
+     */
+    public double getTotalReward() {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += rewards[i];
+        }
+        return total;
+    }
+}
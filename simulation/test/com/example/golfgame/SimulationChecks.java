@@ -0,0 +1,61 @@
+package com.example.golfgame;
+
+import com.example.golfgame.physics.ShotEventChecks;
+import com.example.golfgame.physics.ODE.AdaptiveStepperChecks;
+
+/**
+ * Runs the assertion checks of the simulation module and exits with a non-zero status if any of them fails.
+ * The checks are plain methods that throw {@link AssertionError}, so they need no test framework; run them with
+ * {@code ./gradlew :simulation:check}.
+ */
+public class SimulationChecks {
+
+    /**
+     * A single named check.
+     */
+    public interface Check {
+        void run();
+    }
+
+    private static int failures;
+
+    /**
+     * Runs all checks.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        run("AdaptiveStepper rejects steps into an undefined region", AdaptiveStepperChecks::rejectsStepsIntoUndefinedRegion);
+        run("AdaptiveStepper throws if undefined at the minimum step", AdaptiveStepperChecks::throwsIfUndefinedAtMinimumStep);
+        run("DormandPrince shots end like RungeKutta shots", ShotEventChecks::adaptiveShotsMatchFixedSteps);
+        run("A height of exactly 0 is not water", ShotEventChecks::flatZeroCourseIsDry);
+
+        if (failures > 0) {
+            System.err.println(failures + " check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All checks passed");
+    }
+
+    /**
+     * Fails with an {@link AssertionError} carrying the message unless the condition holds.
+     *
+     * @param condition the condition that must hold
+     * @param message the description of the failure
+     */
+    public static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    private static void run(String name, Check check) {
+        try {
+            check.run();
+            System.out.println("PASS " + name);
+        } catch (AssertionError | RuntimeException e) {
+            failures++;
+            System.out.println("FAIL " + name + ": " + e);
+        }
+    }
+}
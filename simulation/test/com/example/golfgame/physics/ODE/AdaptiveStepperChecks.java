@@ -0,0 +1,39 @@
+package com.example.golfgame.physics.ODE;
+
+import static com.example.golfgame.SimulationChecks.check;
+
+/**
+ * Checks that {@link AdaptiveStepper} never accepts a step whose error estimate is NaN.
+ */
+public final class AdaptiveStepperChecks {
+
+    private AdaptiveStepperChecks() {
+    }
+
+    /**
+     * Solves {@code y' = -sqrt(y)}, {@code y(0) = 1}, up to just before the solution {@code y = (1 - t/2)^2}
+     * reaches 0 at {@code t = 2}. Long trial steps near the end probe {@code y < 0}, where the right-hand side
+     * is NaN; they must be rejected and the result must stay on the exact solution.
+     */
+    public static void rejectsStepsIntoUndefinedRegion() {
+        double end = 1.999;
+        AdaptiveStepper stepper = new AdaptiveStepper(new DormandPrince(), 1, 0.05);
+        double[] y = {1};
+        stepper.solve((t, state, dydt) -> dydt[0] = -Math.sqrt(state[0]), 0, y, end);
+        double exact = (1 - end / 2) * (1 - end / 2);
+        check(!Double.isNaN(y[0]) && Math.abs(y[0] - exact) <= 1e-6, "Expected y(" + end + ") = " + exact + ", got " + y[0]);
+    }
+
+    /**
+     * A right-hand side that is NaN even at the minimum step size makes the stepper throw.
+     */
+    public static void throwsIfUndefinedAtMinimumStep() {
+        AdaptiveStepper stepper = new AdaptiveStepper(new DormandPrince(), 1, 0.05);
+        try {
+            stepper.step((t, state, dydt) -> dydt[0] = Math.sqrt(-1 - state[0]), 0, new double[] {1});
+        } catch (IllegalStateException expected) {
+            return;
+        }
+        check(false, "A step with a NaN error estimate at the minimum step size was accepted");
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.golfgame.physics;
+
+import static com.example.golfgame.SimulationChecks.check;
+
+import java.util.Random;
+
+import com.example.golfgame.physics.ODE.DormandPrince;
+import com.example.golfgame.simulator.PhysicsSimulator;
+import com.example.golfgame.simulator.ShotResult;
+import com.example.golfgame.utils.BallState;
+import com.example.golfgame.utils.Function;
+
+/**
+ * Checks how shots end: the events located inside long adaptive steps must give the same outcomes as the fixed
+ * 0.001 s steps of {@link com.example.golfgame.physics.ODE.RungeKutta}, and each event must start exactly where
+ * the matching rule of the game does.
+ */
+public final class ShotEventChecks {
+    private static final String[] COURSES = {"0.4*sin(0.3*x)*cos(0.3*y)+1", "1", "0.05*x+0.03*y+1"};
+    private static final BallState GOAL = new BallState(4, 1, 0, 0);
+    private static final int SHOTS = 300;
+    private static final double MAX_REST_DISTANCE = 0.05; // Где останавливается мяч: допустимое расхождение методов
+
+    private ShotEventChecks() {
+    }
+
+    /**
+     * Plays random shots around the goal with both solvers and compares whether each one is holed or lands in
+     * water, and where it comes to rest otherwise.
+     */
+    public static void adaptiveShotsMatchFixedSteps() {
+        for (String course : COURSES) {
+            Random random = new Random(1);
+            PhysicsSimulator fixed = new PhysicsSimulator(new Function(course, "x", "y"), GOAL);
+            PhysicsSimulator adaptive = new PhysicsSimulator(new Function(course, "x", "y"), GOAL);
+            adaptive.setSolver(new DormandPrince());
+            for (int i = 0; i < SHOTS; i++) {
+                BallState start = new BallState(GOAL.getX() + random.nextDouble() * 8 - 4,
+                                                GOAL.getY() + random.nextDouble() * 8 - 4, 0, 0);
+                double[] speeds = {1 + random.nextDouble() * 4};
+                double[] angles = {random.nextDouble() * 2 * Math.PI};
+                ShotResult expected = fixed.evaluateShots(start, speeds, angles)[0];
+                ShotResult actual = adaptive.evaluateShots(start, speeds, angles)[0];
+
+                String shot = "shot " + i + " on " + course + " from " + start + " at speed " + speeds[0]
+                              + " and angle " + angles[0];
+                check(expected.isGoalReached() == actual.isGoalReached(),
+                      shot + ": goal " + actual.isGoalReached() + ", RungeKutta " + expected.isGoalReached());
+                check(expected.isInWater() == actual.isInWater(),
+                      shot + ": water " + actual.isInWater() + ", RungeKutta " + expected.isInWater());
+                if (!expected.isGoalReached() && !expected.isInWater()) {
+                    double distance = expected.getFinalState().distanceTo(actual.getFinalState());
+                    check(distance <= MAX_REST_DISTANCE, shot + ": rests " + distance + " from the RungeKutta position");
+                }
+            }
+        }
+    }
+
+    /**
+     * On a course of height 0 everywhere the ball is never in water, which starts below 0.
+     */
+    public static void flatZeroCourseIsDry() {
+        PhysicsSimulator simulator = new PhysicsSimulator(new Function("0", "x", "y"), GOAL);
+        ShotResult[] results = simulator.evaluateShots(new BallState(0, 0, 0, 0), new double[] {1, 3, 5}, new double[] {0, 1, 2});
+        for (ShotResult result : results) {
+            check(!result.isInWater(), "Shot on a course of height 0 ended in water: " + result);
+        }
+    }
+}